@@ -0,0 +1,87 @@
+package com.homeless.loaddriver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 명령행 옵션 (--name value)
+// --url               STOMP 엔드포인트 (기본 ws://localhost:8081/ws)
+// --scenario          heavy-load | latency | high-vus
+// --token             CONNECT/SEND 의 Authorization 헤더 (모든 사용자 공통)
+// --token-file        사용자별 Authorization 헤더 파일. 한 줄에 하나, 사용자 id 순서대로 돌려 쓴다. (--token 보다 우선)
+// --interval-ms       사용자별 메시지 전송 간격. 응답이 늦어 밀린 전송은 이 간격으로 보정해 기록한다.
+// --timeout-ms        자기 메시지가 돌아오기를 기다리는 시간. 넘으면 timeout 으로 세고 이 값을 지연으로 기록
+// --subscribe-wait-ms SUBSCRIBE 후 첫 전송까지 대기 (k6 스크립트의 sleep 0.5 와 같음)
+// --user-scale        단계별 사용자 수 배율
+// --time-scale        단계별 시간 배율
+// --label             보고서 이름 (비교할 때 구분용, 기본은 시나리오-시각)
+// --report-dir        보고서 상위 디렉터리 (기본 load-reports)
+public record DriverOptions(URI url,
+                            Scenario scenario,
+                            List<String> tokens,
+                            Duration interval,
+                            Duration timeout,
+                            Duration subscribeWait,
+                            double userScale,
+                            double timeScale,
+                            String label,
+                            Path reportDir) {
+
+    public static DriverOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --name value but got: " + arg);
+            }
+            values.put(arg.substring(2), args[++i]);
+        }
+
+        Scenario scenario = Scenario.of(values.getOrDefault("scenario", "heavy-load"));
+        String label = values.getOrDefault("label",
+                scenario.id() + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        return new DriverOptions(
+                URI.create(values.getOrDefault("url", "ws://localhost:8081/ws")),
+                scenario,
+                tokens(values),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("interval-ms", "1000"))),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("timeout-ms", "5000"))),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("subscribe-wait-ms", "500"))),
+                Double.parseDouble(values.getOrDefault("user-scale", "1")),
+                Double.parseDouble(values.getOrDefault("time-scale", "1")),
+                label,
+                Path.of(values.getOrDefault("report-dir", "load-reports")).resolve(label));
+    }
+
+    // 사용자 id 에 해당하는 Authorization 헤더
+    public String token(int userId) {
+        return tokens.get(userId % tokens.size());
+    }
+
+    private static List<String> tokens(Map<String, String> values) {
+        String tokenFile = values.get("token-file");
+        if (tokenFile == null) {
+            return List.of(values.getOrDefault("token", "Bearer test-token"));
+        }
+        try {
+            List<String> tokens = Files.readAllLines(Path.of(tokenFile)).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+            if (tokens.isEmpty()) {
+                throw new IllegalArgumentException("No tokens in " + tokenFile);
+            }
+            return tokens;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read token file " + tokenFile, e);
+        }
+    }
+}
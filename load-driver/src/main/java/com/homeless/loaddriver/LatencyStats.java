@@ -0,0 +1,147 @@
+package com.homeless.loaddriver;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// 단계(ramp-up, steady ...)별 지연 히스토그램 (마이크로초)
+// message: 전송 -> 자기 메시지 수신. 응답을 기다리느라 못 보낸 전송은 전송 간격으로 보정해서 기록한다 (coordinated omission).
+// message-raw: 보정 없이 실제로 잰 값만. 둘의 차이가 크면 서버가 막혀 있던 구간이 있다는 뜻이다.
+// connect: WebSocket 연결 -> STOMP CONNECTED
+final class LatencyStats {
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Map<String, PhaseStats> phases = new LinkedHashMap<>();
+    // 전체 실행을 1초 단위로 기록하는 로그 (HistogramLogProcessor 등으로 다른 실행과 비교)
+    private final Recorder intervalRecorder = new Recorder(MAX_MICROS, SIGNIFICANT_DIGITS);
+    private final long expectedIntervalMicros;
+
+    LatencyStats(List<String> phaseNames, long expectedIntervalMicros) {
+        this.expectedIntervalMicros = expectedIntervalMicros;
+        phaseNames.forEach(name -> phases.putIfAbsent(name, new PhaseStats()));
+    }
+
+    PhaseStats phase(String name) {
+        return phases.get(name);
+    }
+
+    void recordMessage(String phase, long latencyMicros) {
+        long value = Math.min(latencyMicros, MAX_MICROS);
+        PhaseStats stats = phases.get(phase);
+        stats.message.recordValueWithExpectedInterval(value, expectedIntervalMicros);
+        stats.messageRaw.recordValue(value);
+        intervalRecorder.recordValueWithExpectedInterval(value, expectedIntervalMicros);
+    }
+
+    void recordConnect(String phase, long latencyMicros) {
+        phases.get(phase).connect.recordValue(Math.min(latencyMicros, MAX_MICROS));
+    }
+
+    Histogram intervalHistogram() {
+        return intervalRecorder.getIntervalHistogram();
+    }
+
+    // 콘솔 요약과 비교용 파일
+    // summary.csv: 실행/단계별 한 줄 (여러 실행의 csv 를 이어 붙여 비교)
+    // {phase}-message.hgrm 등: 백분위 분포 (HdrHistogram plotter 에 여러 개를 올려 비교)
+    void writeReport(Path dir, String label, PrintStream console) throws IOException {
+        Files.createDirectories(dir);
+        StringBuilder csv = new StringBuilder("label,phase,series,count,p50_ms,p90_ms,p99_ms,p999_ms,p9999_ms,max_ms,"
+                + "sent,received,timeouts,connect_errors,disconnects\n");
+
+        console.printf("%n== %s ==%n", label);
+        for (Map.Entry<String, PhaseStats> entry : phases.entrySet()) {
+            String phase = entry.getKey();
+            PhaseStats stats = entry.getValue();
+            console.printf("[%s] sent=%d received=%d timeouts=%d connect_errors=%d disconnects=%d%n", phase,
+                    stats.sent.sum(), stats.received.sum(), stats.timeouts.sum(),
+                    stats.connectErrors.sum(), stats.disconnects.sum());
+
+            for (Map.Entry<String, Histogram> series : stats.series().entrySet()) {
+                Histogram histogram = series.getValue();
+                console.printf("  %-12s %s%n", series.getKey(), summarize(histogram));
+                csv.append(label).append(',').append(phase).append(',').append(series.getKey()).append(',')
+                        .append(histogram.getTotalCount());
+                for (double percentile : PERCENTILES) {
+                    csv.append(',').append(millis(histogram.getValueAtPercentile(percentile)));
+                }
+                csv.append(',').append(millis(histogram.getMaxValue()))
+                        .append(',').append(stats.sent.sum())
+                        .append(',').append(stats.received.sum())
+                        .append(',').append(stats.timeouts.sum())
+                        .append(',').append(stats.connectErrors.sum())
+                        .append(',').append(stats.disconnects.sum())
+                        .append('\n');
+
+                try (PrintStream out = new PrintStream(dir.resolve(phase + "-" + series.getKey() + ".hgrm").toFile())) {
+                    // 값 단위가 마이크로초이므로 1000 으로 나눠 ms 로 출력
+                    histogram.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+        Files.writeString(dir.resolve("summary.csv"), csv);
+        console.printf("Report written to %s%n", dir.toAbsolutePath());
+    }
+
+    static HistogramLogWriter intervalLog(Path dir, String label) throws IOException {
+        Files.createDirectories(dir);
+        HistogramLogWriter writer = new HistogramLogWriter(dir.resolve("message.hlog").toFile());
+        writer.outputComment("label " + label);
+        writer.outputLogFormatVersion();
+        writer.outputStartTime(System.currentTimeMillis());
+        writer.setBaseTime(System.currentTimeMillis());
+        writer.outputLegend();
+        return writer;
+    }
+
+    private static String summarize(Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return "no samples";
+        }
+        return String.format(Locale.ROOT, "count=%d p50=%sms p90=%sms p99=%sms p99.9=%sms max=%sms",
+                histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.3f", micros / 1000.0);
+    }
+
+    static final class PhaseStats {
+        final Histogram message = new ConcurrentHistogram(MAX_MICROS, SIGNIFICANT_DIGITS);
+        final Histogram messageRaw = new ConcurrentHistogram(MAX_MICROS, SIGNIFICANT_DIGITS);
+        final Histogram connect = new ConcurrentHistogram(MAX_MICROS, SIGNIFICANT_DIGITS);
+        final LongAdder sent = new LongAdder();
+        final LongAdder received = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder connectErrors = new LongAdder();
+        final LongAdder disconnects = new LongAdder();
+
+        Map<String, Histogram> series() {
+            Map<String, Histogram> series = new LinkedHashMap<>();
+            series.put("message", message);
+            series.put("message-raw", messageRaw);
+            series.put("connect", connect);
+            return series;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.homeless.loaddriver;
+
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// STOMP-over-WebSocket 부하 생성기
+// 시나리오 단계에 맞춰 1초마다 사용자(가상 스레드) 수를 목표치로 맞추고, 끝나면 단계별 지연 보고서를 남긴다.
+//
+// 단일 노드로 띄운 서비스에 실행 (RabbitMQ 없이 Mongo/Redis 만 필요). loadtest 프로필은 전송 속도 제한을 끈다:
+//   ./gradlew bootRun --args='--spring.profiles.active=embedded,loadtest'
+//   ./gradlew -p load-driver run --args='--scenario heavy-load --user-scale 10'
+// 짧게 확인할 때는 --time-scale 0.1 처럼 단계 시간을 줄인다.
+public final class LoadDriver {
+
+    private static final Duration TICK = Duration.ofSeconds(1);
+
+    private final DriverOptions options;
+    private final List<Scenario.Stage> stages;
+    private final LatencyStats stats;
+    private final HttpClient httpClient;
+    private final ExecutorService users = Executors.newVirtualThreadPerTaskExecutor();
+    // 나중에 시작한 사용자부터 내린다.
+    private final Deque<VirtualUser> active = new ArrayDeque<>();
+    private volatile String currentPhase;
+    private int nextUserId;
+
+    LoadDriver(DriverOptions options) {
+        this.options = options;
+        this.stages = options.scenario().stages(options.userScale(), options.timeScale());
+        this.stats = new LatencyStats(stages.stream().map(Scenario.Stage::phase).toList(),
+                options.interval().toNanos() / 1000);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(options.timeout())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.currentPhase = stages.get(0).phase();
+    }
+
+    public static void main(String[] args) throws Exception {
+        DriverOptions options = DriverOptions.parse(args);
+        new LoadDriver(options).run();
+    }
+
+    void run() throws Exception {
+        System.out.printf("Scenario %s against %s (interval %dms, %d channels)%n", options.scenario().id(),
+                options.url(), options.interval().toMillis(), options.scenario().channels());
+
+        HistogramLogWriter intervalLog = LatencyStats.intervalLog(options.reportDir(), options.label());
+        try {
+            for (Scenario.Stage stage : stages) {
+                runStage(stage, intervalLog);
+            }
+        } finally {
+            resize(0);
+            users.shutdown();
+            users.awaitTermination(options.timeout().toMillis() + 5000, TimeUnit.MILLISECONDS);
+            intervalLog.outputIntervalHistogram(stats.intervalHistogram());
+            intervalLog.close();
+        }
+        stats.writeReport(options.reportDir(), options.label(), System.out);
+    }
+
+    private void runStage(Scenario.Stage stage, HistogramLogWriter intervalLog) throws InterruptedException {
+        currentPhase = stage.phase();
+        System.out.printf("-> %s: %d -> %d users over %ds%n", stage.phase(), stage.fromUsers(), stage.toUsers(),
+                stage.duration().toSeconds());
+        long startedAt = System.nanoTime();
+        long endsAt = startedAt + stage.duration().toNanos();
+        while (true) {
+            long now = System.nanoTime();
+            resize(stage.targetUsers(Duration.ofNanos(now - startedAt)));
+            if (now >= endsAt) {
+                return;
+            }
+            Thread.sleep(Math.min(TICK.toMillis(), TimeUnit.NANOSECONDS.toMillis(endsAt - now) + 1));
+            intervalLog.outputIntervalHistogram(stats.intervalHistogram());
+        }
+    }
+
+    // 채널은 사용자 번호 순으로 돌아가며 배정해서 채널별 구독자 수를 고르게 한다.
+    private void resize(int target) {
+        while (active.size() < target) {
+            int id = nextUserId++;
+            String channelId = "channel-" + (id % options.scenario().channels() + 1);
+            VirtualUser user = new VirtualUser(id, channelId, options, httpClient, stats, () -> currentPhase);
+            active.push(user);
+            users.execute(user);
+        }
+        while (active.size() > target) {
+            active.pop().stop();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.homeless.loaddriver;
+
+import java.time.Duration;
+import java.util.List;
+
+// test/ 의 k6 스크립트와 같은 단계 구성
+// heavy-load: k6-heavy-load-test.js (ramp-up 200 -> steady 200 -> spike 300 -> recovery 0, 채널 20개, TALK/FILE)
+//             k6 스크립트가 섞어 보내는 SYSTEM 은 서버가 만드는 종류라서 사용자 전송 경로 측정에서는 뺀다.
+// latency:    latency-test.js (50명 1분, 채널 3개)
+// high-vus:   k6-v1-high-vus-scalability-test (ramp-up 50 -> steady 50 -> recovery 0, 채널 5개)
+public enum Scenario {
+
+    HEAVY_LOAD("heavy-load", 20, List.of("TALK", "FILE"), List.of(
+            Stage.ramp("ramp-up", 0, 200, Duration.ofMinutes(2)),
+            Stage.hold("steady", 200, Duration.ofMinutes(3)),
+            Stage.hold("spike", 300, Duration.ofMinutes(1)),
+            Stage.ramp("recovery", 300, 0, Duration.ofMinutes(2)))),
+
+    LATENCY("latency", 3, List.of("TALK"), List.of(
+            Stage.hold("steady", 50, Duration.ofMinutes(1)))),
+
+    HIGH_VUS("high-vus", 5, List.of("TALK"), List.of(
+            Stage.ramp("ramp-up", 0, 50, Duration.ofMinutes(1)),
+            Stage.hold("steady", 50, Duration.ofMinutes(3)),
+            Stage.ramp("recovery", 50, 0, Duration.ofMinutes(1))));
+
+    private final String id;
+    private final int channels;
+    private final List<String> messageTypes;
+    private final List<Stage> stages;
+
+    Scenario(String id, int channels, List<String> messageTypes, List<Stage> stages) {
+        this.id = id;
+        this.channels = channels;
+        this.messageTypes = messageTypes;
+        this.stages = stages;
+    }
+
+    public static Scenario of(String id) {
+        for (Scenario scenario : values()) {
+            if (scenario.id.equals(id)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + id + " (heavy-load, latency, high-vus)");
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public int channels() {
+        return channels;
+    }
+
+    public List<String> messageTypes() {
+        return messageTypes;
+    }
+
+    // 사용자 수와 시간을 배율만큼 조정한 단계 (한 대에서 더 많은 연결을 만들거나 짧게 확인할 때)
+    public List<Stage> stages(double userScale, double timeScale) {
+        return stages.stream().map(stage -> stage.scaled(userScale, timeScale)).toList();
+    }
+
+    // from -> to 로 duration 동안 선형 변화. 같으면 유지
+    public record Stage(String phase, int fromUsers, int toUsers, Duration duration) {
+
+        static Stage ramp(String phase, int fromUsers, int toUsers, Duration duration) {
+            return new Stage(phase, fromUsers, toUsers, duration);
+        }
+
+        static Stage hold(String phase, int users, Duration duration) {
+            return new Stage(phase, users, users, duration);
+        }
+
+        Stage scaled(double userScale, double timeScale) {
+            return new Stage(phase,
+                    (int) Math.round(fromUsers * userScale),
+                    (int) Math.round(toUsers * userScale),
+                    Duration.ofMillis(Math.max(1, Math.round(duration.toMillis() * timeScale))));
+        }
+
+        // 단계 시작 후 elapsed 시점의 목표 사용자 수
+        public int targetUsers(Duration elapsed) {
+            double progress = Math.min(1.0, (double) elapsed.toMillis() / duration.toMillis());
+            return (int) Math.round(fromUsers + (toUsers - fromUsers) * progress);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.homeless.loaddriver;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// JDK WebSocket 위의 최소 STOMP 1.1 클라이언트 (CONNECT, SUBSCRIBE, SEND, MESSAGE, ERROR)
+// 텍스트 프레임만 다룬다. accept-content-type 을 보내지 않으므로 서버는 JSON 으로 보낸다.
+// 보내기는 사용자 스레드 하나에서만 하므로 sendText 를 겹쳐 호출하지 않는다.
+final class StompConnection implements WebSocket.Listener, AutoCloseable {
+
+    private final Consumer<String> messageHandler;
+    private final CompletableFuture<Void> connected = new CompletableFuture<>();
+    private final CompletableFuture<String> closed = new CompletableFuture<>();
+    private final StringBuilder partial = new StringBuilder();
+    private WebSocket webSocket;
+
+    private StompConnection(Consumer<String> messageHandler) {
+        this.messageHandler = messageHandler;
+    }
+
+    // WebSocket 연결 후 CONNECTED 를 받을 때까지 기다린다.
+    static StompConnection open(HttpClient client, URI url, String authorization, Duration timeout,
+                                Consumer<String> messageHandler) throws Exception {
+        StompConnection connection = new StompConnection(messageHandler);
+        connection.webSocket = client.newWebSocketBuilder()
+                .connectTimeout(timeout)
+                .buildAsync(url, connection)
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        connection.sendFrame("CONNECT", Map.of(
+                "accept-version", "1.1",
+                "heart-beat", "0,0",
+                "Authorization", authorization), "");
+        try {
+            connection.connected.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    void subscribe(String id, String destination) {
+        sendFrame("SUBSCRIBE", Map.of("id", id, "destination", destination), "");
+    }
+
+    void send(String destination, String authorization, String json) {
+        sendFrame("SEND", Map.of(
+                "destination", destination,
+                "content-type", "application/json",
+                "Authorization", authorization), json);
+    }
+
+    boolean isOpen() {
+        return !closed.isDone();
+    }
+
+    // 서버가 ERROR 를 보내거나 연결이 끊긴 이유
+    String closeReason() {
+        return closed.getNow(null);
+    }
+
+    private void sendFrame(String command, Map<String, String> headers, String body) {
+        StringBuilder frame = new StringBuilder(command).append('\n');
+        headers.forEach((name, value) -> frame.append(name).append(':').append(value).append('\n'));
+        frame.append('\n').append(body).append('\0');
+        webSocket.sendText(frame, true).join();
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        partial.append(data);
+        if (last) {
+            String text = partial.toString();
+            partial.setLength(0);
+            // 한 WebSocket 메시지에 STOMP 프레임이 여러 개 들어올 수도 있다.
+            for (String frame : text.split("\0")) {
+                handleFrame(frame);
+            }
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    private void handleFrame(String frame) {
+        // heart-beat 개행 제거
+        String trimmed = frame.stripLeading();
+        if (trimmed.isEmpty()) {
+            return;
+        }
+        int commandEnd = trimmed.indexOf('\n');
+        String command = commandEnd < 0 ? trimmed : trimmed.substring(0, commandEnd).strip();
+        int bodyStart = trimmed.indexOf("\n\n");
+        String body = bodyStart < 0 ? "" : trimmed.substring(bodyStart + 2);
+
+        switch (command) {
+            case "CONNECTED" -> connected.complete(null);
+            case "MESSAGE" -> messageHandler.accept(body);
+            case "ERROR" -> {
+                String reason = "STOMP ERROR: " + (body.isBlank() ? trimmed : body);
+                connected.completeExceptionally(new IllegalStateException(reason));
+                closed.complete(reason);
+                webSocket.abort();
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        String message = "closed " + statusCode + (reason.isEmpty() ? "" : " " + reason);
+        connected.completeExceptionally(new IllegalStateException(message));
+        closed.complete(message);
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        connected.completeExceptionally(error);
+        closed.complete(error.toString());
+    }
+
+    @Override
+    public void close() {
+        if (webSocket == null || !isOpen()) {
+            return;
+        }
+        try {
+            sendFrame("DISCONNECT", Map.of(), "");
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "").get(1, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            webSocket.abort();
+        }
+        closed.complete("closed by client");
+    }
+}
@@ -0,0 +1,175 @@
+package com.homeless.loaddriver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// 가상 스레드 하나 = 사용자 하나
+// 채널 하나를 구독하고 interval 마다 메시지를 보내, 같은 내용이 /topic 으로 돌아올 때까지의 시간을 잰다.
+// k6 스크립트처럼 보낸 메시지가 돌아와야 다음 메시지를 보내므로, 늦어진 만큼 못 보낸 전송은 LatencyStats 가 보정한다.
+// 연결이 끊기면 다시 연결한다.
+final class VirtualUser implements Runnable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final int id;
+    private final String channelId;
+    private final String token;
+    private final DriverOptions options;
+    private final HttpClient httpClient;
+    private final LatencyStats stats;
+    private final Supplier<String> currentPhase;
+    // 보낸 메시지 내용 -> 수신 시각(nanoTime)
+    private final Map<String, CompletableFuture<Long>> pending = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+    private long sequence;
+
+    VirtualUser(int id, String channelId, DriverOptions options, HttpClient httpClient,
+                LatencyStats stats, Supplier<String> currentPhase) {
+        this.id = id;
+        this.channelId = channelId;
+        this.token = options.token(id);
+        this.options = options;
+        this.httpClient = httpClient;
+        this.stats = stats;
+        this.currentPhase = currentPhase;
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            String phase = currentPhase.get();
+            long connectStartedAt = System.nanoTime();
+            try (StompConnection connection = StompConnection.open(httpClient, options.url(), token,
+                    options.timeout(), this::onMessage)) {
+                stats.recordConnect(phase, micros(System.nanoTime() - connectStartedAt));
+                connection.subscribe("sub-" + id, "/topic/chat.channel." + channelId);
+                Thread.sleep(options.subscribeWait().toMillis());
+                sendLoop(connection);
+                if (running) {
+                    stats.phase(currentPhase.get()).disconnects.increment();
+                    System.err.printf("user %d disconnected: %s%n", id, connection.closeReason());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                stats.phase(phase).connectErrors.increment();
+                // 서버가 받아주지 못하는 동안 재연결이 몰리지 않도록 잠시 쉰다.
+                sleepQuietly(options.interval().toMillis());
+            }
+        }
+    }
+
+    private void sendLoop(StompConnection connection) throws InterruptedException {
+        long intervalNanos = options.interval().toNanos();
+        long nextSendAt = System.nanoTime();
+        while (running && connection.isOpen()) {
+            String phase = currentPhase.get();
+            String content = "load-test message " + id + "-" + (++sequence);
+            CompletableFuture<Long> echo = new CompletableFuture<>();
+            pending.put(content, echo);
+
+            long sentAt = System.nanoTime();
+            connection.send("/pub/chat.message." + channelId, token, payload(content));
+            LatencyStats.PhaseStats phaseStats = stats.phase(phase);
+            phaseStats.sent.increment();
+            try {
+                long receivedAt = echo.get(options.timeout().toMillis(), TimeUnit.MILLISECONDS);
+                phaseStats.received.increment();
+                stats.recordMessage(phase, micros(receivedAt - sentAt));
+            } catch (TimeoutException e) {
+                // 유실/지연을 빼면 결과가 좋아 보이므로 timeout 값으로 기록
+                phaseStats.timeouts.increment();
+                stats.recordMessage(phase, options.timeout().toMillis() * 1000);
+            } catch (ExecutionException e) {
+                phaseStats.timeouts.increment();
+            } finally {
+                pending.remove(content);
+            }
+
+            nextSendAt += intervalNanos;
+            long waitNanos = nextSendAt - System.nanoTime();
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } else {
+                // 밀린 전송을 몰아서 보내지 않는다. 빠진 구간은 기록 시 보정된다.
+                nextSendAt = System.nanoTime();
+            }
+        }
+    }
+
+    // k6 와 같은 ChatMessageRequest 형식
+    private String payload(String content) {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("serverId", "test-server");
+        body.put("email", "load-" + id + "@example.com");
+        body.put("writer", "load-user-" + id);
+        body.put("content", content);
+        String messageType = options.scenario().messageTypes()
+                .get(ThreadLocalRandom.current().nextInt(options.scenario().messageTypes().size()));
+        body.put("messageType", messageType);
+        if ("FILE".equals(messageType)) {
+            body.put("fileUrl", "https://example.com/files/" + content.hashCode() + ".pdf");
+            body.put("fileName", "load-test-" + sequence + ".pdf");
+        } else {
+            body.putNull("fileUrl");
+            body.putNull("fileName");
+        }
+        return body.toString();
+    }
+
+    // 단건 MessageDto 또는 묶음 프레임(type: BATCH, messages)
+    private void onMessage(String body) {
+        long receivedAt = System.nanoTime();
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            JsonNode node = MAPPER.readTree(body);
+            if (node.has("messages")) {
+                node.get("messages").forEach(message -> complete(message, receivedAt));
+            } else {
+                complete(node, receivedAt);
+            }
+        } catch (Exception e) {
+            // 채널의 다른 메시지 형식(신호 등)은 무시
+        }
+    }
+
+    private void complete(JsonNode message, long receivedAt) {
+        JsonNode content = message.get("content");
+        if (content != null) {
+            CompletableFuture<Long> echo = pending.get(content.asText());
+            if (echo != null) {
+                echo.complete(receivedAt);
+            }
+        }
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,12 +2,18 @@ package com.homeless.chatservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class ChatServiceApplication {
 
+    // 기동 단계별 소요 시간 기록 개수 (actuator /startup 으로 조회)
+    private static final int STARTUP_EVENT_CAPACITY = 4096;
+
     public static void main(String[] args) {
-        SpringApplication.run(ChatServiceApplication.class, args);
+        SpringApplication application = new SpringApplication(ChatServiceApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_EVENT_CAPACITY));
+        application.run(args);
     }
 
 }
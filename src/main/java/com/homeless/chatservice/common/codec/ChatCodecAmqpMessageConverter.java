@@ -0,0 +1,62 @@
+package com.homeless.chatservice.common.codec;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.IOException;
+
+// AMQP 메시지 변환기. 보낼 때는 기본 코덱으로 인코딩하고, 받을 때는 content-type에 맞는 코덱으로 디코딩한다.
+// 타입 정보는 __TypeId__ 헤더로 전달하며, 신뢰할 수 있는 dto 패키지의 클래스만 역직렬화한다.
+public class ChatCodecAmqpMessageConverter implements MessageConverter {
+
+    static final String TYPE_ID_HEADER = "__TypeId__";
+    private static final String TRUSTED_PACKAGE = "com.homeless.chatservice.dto.";
+
+    private final ChatMessageCodecRegistry codecRegistry;
+
+    public ChatCodecAmqpMessageConverter(ChatMessageCodecRegistry codecRegistry) {
+        this.codecRegistry = codecRegistry;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        ChatMessageCodec codec = codecRegistry.defaultCodec();
+        try {
+            byte[] body = codec.encode(object);
+            messageProperties.setContentType(codec.contentType().toString());
+            messageProperties.setContentLength(body.length);
+            messageProperties.setHeader(TYPE_ID_HEADER, object.getClass().getName());
+            return new Message(body, messageProperties);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to encode " + object.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        return fromMessage(message, resolveType(message.getMessageProperties()));
+    }
+
+    public <T> T fromMessage(Message message, Class<T> type) throws MessageConversionException {
+        ChatMessageCodec codec = codecRegistry.resolve(message.getMessageProperties().getContentType());
+        try {
+            return codec.decode(message.getBody(), type);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to decode message as " + type.getSimpleName(), e);
+        }
+    }
+
+    private Class<?> resolveType(MessageProperties properties) {
+        Object typeId = properties.getHeaders().get(TYPE_ID_HEADER);
+        if (typeId instanceof String className && className.startsWith(TRUSTED_PACKAGE)) {
+            try {
+                return Class.forName(className);
+            } catch (ClassNotFoundException e) {
+                throw new MessageConversionException("Unknown message type: " + className, e);
+            }
+        }
+        return Object.class;
+    }
+}
@@ -0,0 +1,19 @@
+package com.homeless.chatservice.common.codec;
+
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+
+// 채팅 메시지 직렬화 방식(JSON, CBOR ...)을 추상화한 코덱
+// AMQP 메시지 변환과 STOMP 송신 프레임 변환이 같은 코덱을 content-type 기준으로 골라 쓴다.
+public interface ChatMessageCodec {
+
+    MimeType contentType();
+
+    byte[] encode(Object value) throws IOException;
+
+    <T> T decode(byte[] payload, Class<T> type) throws IOException;
+
+    // 다른 코덱으로 인코딩 된 페이로드를 이 코덱 형식으로 변환 (타입 정보 없이 트리 단위로 변환)
+    byte[] transcode(byte[] payload, ChatMessageCodec source) throws IOException;
+}
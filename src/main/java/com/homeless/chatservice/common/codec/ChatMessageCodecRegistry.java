@@ -0,0 +1,76 @@
+package com.homeless.chatservice.common.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// content-type으로 코덱을 찾아주는 레지스트리
+// 내부 AMQP 트래픽은 chat.codec.default(기본 CBOR)를 사용하고, 모르는 타입은 JSON으로 처리한다.
+@Slf4j
+@Component
+public class ChatMessageCodecRegistry {
+
+    public static final MimeType APPLICATION_CBOR = new MimeType("application", "cbor");
+
+    private final Map<String, ChatMessageCodec> codecs = new LinkedHashMap<>();
+    private final ChatMessageCodec jsonCodec;
+    private final ChatMessageCodec defaultCodec;
+
+    public ChatMessageCodecRegistry(@Value("${chat.codec.default:application/cbor}") String defaultContentType) {
+        this.jsonCodec = register(new JacksonChatMessageCodec(new ObjectMapper(), MimeTypeUtils.APPLICATION_JSON));
+        register(new JacksonChatMessageCodec(new CBORMapper(), APPLICATION_CBOR));
+
+        ChatMessageCodec configured = forContentType(defaultContentType);
+        this.defaultCodec = configured != null ? configured : jsonCodec;
+        log.info("Default chat message codec: {}", this.defaultCodec.contentType());
+    }
+
+    private ChatMessageCodec register(ChatMessageCodec codec) {
+        codecs.put(codec.contentType().getSubtype(), codec);
+        return codec;
+    }
+
+    // 파라미터(charset 등)는 무시하고 subtype으로 비교. 지원하지 않는 타입이면 null
+    public ChatMessageCodec forContentType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return null;
+        }
+        try {
+            return forContentType(MimeTypeUtils.parseMimeType(contentType));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public ChatMessageCodec forContentType(MimeType contentType) {
+        if (contentType == null || !"application".equals(contentType.getType())) {
+            return null;
+        }
+        return codecs.get(contentType.getSubtype());
+    }
+
+    // content-type이 없거나 모르는 형식이면 JSON으로 간주 (기존 발행자 호환)
+    public ChatMessageCodec resolve(String contentType) {
+        ChatMessageCodec codec = forContentType(contentType);
+        return codec != null ? codec : jsonCodec;
+    }
+
+    public ChatMessageCodec defaultCodec() {
+        return defaultCodec;
+    }
+
+    public ChatMessageCodec json() {
+        return jsonCodec;
+    }
+
+    public ChatMessageCodec cbor() {
+        return codecs.get(APPLICATION_CBOR.getSubtype());
+    }
+}
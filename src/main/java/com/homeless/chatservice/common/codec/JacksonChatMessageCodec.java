@@ -0,0 +1,46 @@
+package com.homeless.chatservice.common.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+
+// Jackson 기반 코덱. ObjectMapper 종류(JSON, CBOR)만 바꿔서 같은 DTO를 그대로 직렬화한다.
+public class JacksonChatMessageCodec implements ChatMessageCodec {
+
+    private final ObjectMapper objectMapper;
+    private final MimeType contentType;
+
+    public JacksonChatMessageCodec(ObjectMapper objectMapper, MimeType contentType) {
+        this.objectMapper = objectMapper
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.contentType = contentType;
+    }
+
+    @Override
+    public MimeType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public <T> T decode(byte[] payload, Class<T> type) throws IOException {
+        return objectMapper.readValue(payload, type);
+    }
+
+    @Override
+    public byte[] transcode(byte[] payload, ChatMessageCodec source) throws IOException {
+        if (source == this) {
+            return payload;
+        }
+        return objectMapper.writeValueAsBytes(source.decode(payload, JsonNode.class));
+    }
+}
@@ -55,11 +55,24 @@ public class AwsS3Config {
      * @return - 버킷에 업로드 된 버킷 경로(url)
      */
     public String uploadToS3Bucket(byte[] uploadFile, String fileName) {
+        return uploadToS3Bucket(uploadFile, fileName, null);
+    }
+
+    /**
+     * Content-Type을 지정해서 업로드 (썸네일처럼 서버에서 만든 파일은 타입을 명시해야 브라우저가 바로 렌더링함)
+     *
+     * @param uploadFile  - 업로드 할 파일의 실제 raw 데이터
+     * @param fileName    - 업로드 할 파일명
+     * @param contentType - 오브젝트의 Content-Type (null이면 지정하지 않음)
+     * @return - 버킷에 업로드 된 버킷 경로(url)
+     */
+    public String uploadToS3Bucket(byte[] uploadFile, String fileName, String contentType) {
 
         // 업로드 할 파일을 S3 오브젝트로 생성.
         PutObjectRequest request = PutObjectRequest.builder()
                 .bucket(bucketName)
                 .key(fileName)
+                .contentType(contentType)
                 .build();
 
         // 오브젝트를 버킷에 업로드 (위에서 선언한 오브젝트, 업로드 하고자 하는 파일(바이트배열))
@@ -1,40 +1,130 @@
 package com.homeless.chatservice.common.config;
 
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @Slf4j
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
+    // 이력 페이지/검색 전용 템플릿 (chat.mongo.history-read-preference 로 읽음)
+    public static final String HISTORY_TEMPLATE = "historyMongoTemplate";
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${spring.data.mongodb.uri}")
     private String uri;
-    
+
     @Value("${spring.data.mongodb.database}")
     private String database;
 
+    @Value("${chat.mongo.pool.min-size:10}")
+    private int poolMinSize;
+
+    @Value("${chat.mongo.pool.max-size:100}")
+    private int poolMaxSize;
+
+    @Value("${chat.mongo.pool.max-wait-ms:2000}")
+    private long poolMaxWaitMs;
+
+    @Value("${chat.mongo.pool.max-idle-ms:300000}")
+    private long poolMaxIdleMs;
+
+    @Value("${chat.mongo.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${chat.mongo.read-timeout-ms:10000}")
+    private int readTimeoutMs;
+
+    @Value("${chat.mongo.server-selection-timeout-ms:5000}")
+    private long serverSelectionTimeoutMs;
+
+    // 선호 순서 (zstd, snappy, zlib). 서버가 지원하는 첫 번째 방식을 쓴다.
+    @Value("${chat.mongo.compressors:zstd,snappy}")
+    private List<String> compressors;
+
+    @Value("${chat.mongo.history-read-preference:secondaryPreferred}")
+    private String historyReadPreference;
+
+    public MongoConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Override
     @NonNull
     protected String getDatabaseName() {
         return database;
     }
 
+    // URI 설정 위에 chat.mongo 설정을 덮어쓴다.
     @Override
-    @NonNull
-    public MongoClient mongoClient() {
-        log.info("Connecting to MongoDB: {}", uri);
-        return MongoClients.create(uri);
+    protected void configureClientSettings(@NonNull MongoClientSettings.Builder builder) {
+        log.info("Connecting to MongoDB: {} (pool {}-{}, compressors {})", uri, poolMinSize, poolMaxSize, compressors);
+        builder.applyConnectionString(new ConnectionString(uri))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(poolMinSize)
+                        .maxSize(poolMaxSize)
+                        .maxWaitTime(poolMaxWaitMs, TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(poolMaxIdleMs, TimeUnit.MILLISECONDS)
+                        .addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry)))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                        .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS))
+                .applyToClusterSettings(cluster -> cluster
+                        .serverSelectionTimeout(serverSelectionTimeoutMs, TimeUnit.MILLISECONDS))
+                .compressorList(compressorList())
+                .addCommandListener(new MongoMetricsCommandListener(meterRegistry));
     }
 
+    // 저장/수정과 순번 조회는 모두 primary 에서 읽는다.
+    @Primary
     @Bean
-    public MongoTemplate mongoTemplate() {
-        return new MongoTemplate(mongoClient(), getDatabaseName());
+    @Override
+    @NonNull
+    public MongoTemplate mongoTemplate(@NonNull MongoDatabaseFactory databaseFactory,
+                                      @NonNull MappingMongoConverter converter) {
+        return new MongoTemplate(databaseFactory, converter);
+    }
+
+    // 복제 지연만큼 늦게 보여도 되는 이력 페이지/검색용
+    @Bean(HISTORY_TEMPLATE)
+    public MongoTemplate historyMongoTemplate(MongoDatabaseFactory databaseFactory, MappingMongoConverter converter) {
+        MongoTemplate template = new MongoTemplate(databaseFactory, converter);
+        template.setReadPreference(ReadPreference.valueOf(historyReadPreference));
+        return template;
+    }
+
+    private List<MongoCompressor> compressorList() {
+        List<MongoCompressor> result = new ArrayList<>();
+        for (String name : compressors) {
+            switch (name.trim().toLowerCase()) {
+                case "zstd" -> result.add(MongoCompressor.createZstdCompressor());
+                case "snappy" -> result.add(MongoCompressor.createSnappyCompressor());
+                case "zlib" -> result.add(MongoCompressor.createZlibCompressor());
+                case "" -> {
+                }
+                default -> log.warn("Unknown Mongo compressor ignored: {}", name);
+            }
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.homeless.chatservice.common.config;
 
+import com.homeless.chatservice.common.codec.ChatCodecAmqpMessageConverter;
+import com.homeless.chatservice.common.codec.ChatMessageCodecRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Binding;
@@ -12,18 +14,20 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.amqp.rabbit.core.RabbitMessagingTemplate;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 
 
+// chat.broker.mode=EMBEDDED (embedded 프로필) 에서는 RabbitMQ 에 연결하지 않는다.
 @Configuration
 @EnableRabbit
 @Slf4j
+@ConditionalOnProperty(name = "chat.broker.mode", havingValue = "RELAY", matchIfMissing = true)
 public class RabbitConfig {
 
     @Value("${rabbitmq.chat-exchange.name}")
@@ -68,6 +72,8 @@ public class RabbitConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(messageConverter);
+        // 바인딩된 큐가 없는 메시지는 버려지지 않고 반송된다 (AmqpChatPublisher 가 CorrelationData 로 받아 재시도)
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
 
@@ -90,14 +96,18 @@ public class RabbitConfig {
         
         // 연결 실패 시 재시도 설정
         factory.setConnectionTimeout(5000);
+
+        // 발행 확인(ack/nack)을 CorrelationData 로 비동기 수신 (AmqpChatPublisher)
+        factory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+        factory.setPublisherReturns(true);
         
         return factory;
     }
 
-    // 직렬화 : 메세지를 JSON 으로 변환하는 Message Converter
+    // 직렬화 : content-type 별 코덱(기본 CBOR, JSON 호환)으로 변환하는 Message Converter
     @Bean
-    public MessageConverter jackson2JsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter chatMessageConverter(ChatMessageCodecRegistry codecRegistry) {
+        return new ChatCodecAmqpMessageConverter(codecRegistry);
     }
 
     // RabbitAdmin -> RabbitMQ 관리 작업을 수행하는 클래스
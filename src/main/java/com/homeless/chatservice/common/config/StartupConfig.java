@@ -0,0 +1,23 @@
+package com.homeless.chatservice.common.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Arrays;
+
+@Configuration
+public class StartupConfig {
+
+    // spring.main.lazy-initialization=true (prod 프로필) 이어도 @PostConstruct 에서 스케줄러/리스너를 시작하는 빈은
+    // 처음 요청을 받을 때가 아니라 기동 시에 바로 만든다.
+    @Bean
+    static LazyInitializationExcludeFilter backgroundWorkerExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && beanType.getName().startsWith("com.homeless.chatservice.")
+                && Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(beanType))
+                        .anyMatch(method -> method.isAnnotationPresent(PostConstruct.class));
+    }
+}
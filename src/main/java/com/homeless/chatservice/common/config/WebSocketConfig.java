@@ -1,12 +1,23 @@
 package com.homeless.chatservice.common.config;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.homeless.chatservice.common.codec.ChatMessageCodecRegistry;
+import com.homeless.chatservice.common.interceptor.StompCodecInterceptor;
 import com.homeless.chatservice.common.interceptor.StompInterceptor;
+import com.homeless.chatservice.common.lane.PriorityLaneQueue;
+import com.homeless.chatservice.common.lane.StompLaneClassifier;
+import com.homeless.chatservice.common.websocket.OutboundTrafficMetricsDecoratorFactory;
+import com.homeless.chatservice.common.websocket.SessionOutboundQueueDecoratorFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -17,6 +28,9 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 import org.springframework.context.annotation.Bean;
 
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+
 @Configuration
 @EnableWebSocketMessageBroker
 @Slf4j
@@ -24,9 +38,32 @@ import org.springframework.context.annotation.Bean;
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final StompInterceptor stompInterceptor;
-    @Value("${spring.rabbitmq.host}")
+    private final StompCodecInterceptor stompCodecInterceptor;
+    private final OutboundTrafficMetricsDecoratorFactory outboundTrafficMetricsDecoratorFactory;
+    private final SessionOutboundQueueDecoratorFactory sessionOutboundQueueDecoratorFactory;
+    private final MeterRegistry meterRegistry;
+    @Value("${spring.rabbitmq.host:localhost}")
     private String RABBITMQ_HOST;
 
+    // RELAY: RabbitMQ STOMP relay, EMBEDDED: 같은 JVM 안의 simple broker (단일 노드 전용)
+    @Value("${chat.broker.mode:RELAY}")
+    private String brokerMode;
+
+    @Value("${chat.lanes.control-weight:4}")
+    private int controlWeight;
+
+    @Value("${chat.lanes.inbound.core-threads:10}")
+    private int inboundCoreThreads;
+
+    @Value("${chat.lanes.inbound.max-threads:20}")
+    private int inboundMaxThreads;
+
+    @Value("${chat.lanes.inbound.control-capacity:100}")
+    private int inboundControlCapacity;
+
+    @Value("${chat.lanes.inbound.bulk-capacity:100}")
+    private int inboundBulkCapacity;
+
     @Bean
     public CorsFilter corsFilter() {
         log.info("Configuring CORS filter...");
@@ -43,11 +80,43 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         log.info("Configuring client inbound channel...");
-        registration.interceptors(stompInterceptor);
-        registration.taskExecutor()
-            .corePoolSize(10)
-            .maxPoolSize(20)
-            .queueCapacity(100);
+        registration.interceptors(stompInterceptor, stompCodecInterceptor);
+        registration.executor(inboundLaneExecutor());
+    }
+
+    // 모든 STOMP 프레임이 이 executor 를 거치므로 TALK 가 몰려도 SYSTEM/JOIN/LEAVE, 수정/삭제가 뒤에 밀리지 않도록
+    // 레인별 큐(chat.lanes)를 쓴다. 한 레인이 가득 차면 max-threads 까지 늘고 그 다음부터 거절된다.
+    private ThreadPoolTaskExecutor inboundLaneExecutor() {
+        PriorityLaneQueue queue = new PriorityLaneQueue(new StompLaneClassifier(),
+                inboundControlCapacity, inboundBulkCapacity, controlWeight)
+                .bindTo(meterRegistry, "inbound");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor() {
+            @Override
+            protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+                return queue;
+            }
+        };
+        executor.setCorePoolSize(inboundCoreThreads);
+        executor.setMaxPoolSize(inboundMaxThreads);
+        executor.setThreadNamePrefix("clientInboundChannel-");
+        return executor;
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // 세션이 협상한 코덱(CBOR 등)으로 송신 페이로드 변환
+        registration.interceptors(stompCodecInterceptor);
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // content-type: application/cbor 로 보낸 SEND 프레임도 DTO로 읽을 수 있게 추가.
+        // strict 매칭을 켜서 content-type이 없는 송신 메시지는 기존 JSON 변환기가 처리하도록 한다.
+        MappingJackson2MessageConverter cborConverter = new MappingJackson2MessageConverter(ChatMessageCodecRegistry.APPLICATION_CBOR);
+        cborConverter.setObjectMapper(new CBORMapper());
+        cborConverter.setStrictContentTypeMatch(true);
+        messageConverters.add(cborConverter);
+        return true;
     }
 
     @Override
@@ -59,29 +128,39 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        log.info("Configuring message broker with RabbitMQ host: {}", RABBITMQ_HOST);
-        
-        registry.enableStompBrokerRelay("/queue", "/topic", "/exchange", "/amq/queue")
-                .setAutoStartup(true)
-                .setRelayHost(RABBITMQ_HOST)
-                .setRelayPort(61613)
-                .setSystemLogin("guest")
-                .setSystemPasscode("guest")
-                .setClientLogin("guest")
-                .setClientPasscode("guest")
-                .setVirtualHost("/");
+        if ("EMBEDDED".equalsIgnoreCase(brokerMode)) {
+            // 구독이 이 JVM 에만 있으므로 여러 인스턴스로 띄우면 다른 노드 사용자에게 전달되지 않는다.
+            registry.enableSimpleBroker("/queue", "/topic", "/exchange", "/amq/queue");
+            log.info("Configuring in-process simple message broker");
+        } else {
+            log.info("Configuring message broker with RabbitMQ host: {}", RABBITMQ_HOST);
+            registry.enableStompBrokerRelay("/queue", "/topic", "/exchange", "/amq/queue")
+                    .setAutoStartup(true)
+                    .setRelayHost(RABBITMQ_HOST)
+                    .setRelayPort(61613)
+                    .setSystemLogin("guest")
+                    .setSystemPasscode("guest")
+                    .setClientLogin("guest")
+                    .setClientPasscode("guest")
+                    .setVirtualHost("/");
+        }
 
         registry.setPathMatcher(new AntPathMatcher("."));
         registry.setApplicationDestinationPrefixes("/pub", "/exchange");
         
-        log.info("Message broker configured with RabbitMQ");
+        log.info("Message broker configured ({})", brokerMode);
     }
 
     @Override
     public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
         log.info("Configuring WebSocket transport...");
+        // 세션 송신 큐가 먼저 감싸므로 아래 버퍼/시간 제한은 큐에 넣는 시간에만 적용되고,
+        // 느린 클라이언트 처리는 chat.websocket.outbound 정책을 따른다.
+        // 트래픽 집계는 큐 다음(실제 소켓 쓰기 직전)에서 이루어진다.
         registration.setMessageSizeLimit(128 * 1024)
                    .setSendBufferSizeLimit(512 * 1024)
-                   .setSendTimeLimit(20000);
+                   .setSendTimeLimit(20000)
+                   .addDecoratorFactory(sessionOutboundQueueDecoratorFactory)
+                   .addDecoratorFactory(outboundTrafficMetricsDecoratorFactory);
     }
 }
\ No newline at end of file
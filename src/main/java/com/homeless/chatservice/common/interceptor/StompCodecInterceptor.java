@@ -0,0 +1,103 @@
+package com.homeless.chatservice.common.interceptor;
+
+import com.homeless.chatservice.common.codec.ChatMessageCodec;
+import com.homeless.chatservice.common.codec.ChatMessageCodecRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 세션별 페이로드 형식 협상 인터셉터
+// CONNECT 프레임의 accept-content-type 헤더로 원하는 코덱(application/cbor 등)을 기록하고,
+// 송신 MESSAGE 프레임의 페이로드를 세션이 원하는 형식으로 변환한다. 헤더가 없는 클라이언트는 계속 JSON을 받는다.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StompCodecInterceptor implements ChannelInterceptor {
+
+    public static final String ACCEPT_CONTENT_TYPE_HEADER = "accept-content-type";
+    public static final String CODEC_HEADER = "codec";
+
+    private final ChatMessageCodecRegistry codecRegistry;
+
+    private final Map<String, ChatMessageCodec> sessionCodecs = new ConcurrentHashMap<>();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType messageType = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (messageType == SimpMessageType.CONNECT) {
+            registerSession(message);
+            return message;
+        }
+        if (messageType == SimpMessageType.MESSAGE && message.getPayload() instanceof byte[] payload) {
+            return transcode(message, payload);
+        }
+        return message;
+    }
+
+    private void registerSession(Message<?> message) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        ChatMessageCodec codec = codecRegistry.forContentType(accessor.getFirstNativeHeader(ACCEPT_CONTENT_TYPE_HEADER));
+        if (codec != null && codec != codecRegistry.json()) {
+            sessionCodecs.put(accessor.getSessionId(), codec);
+            log.debug("Session {} negotiated {} payloads", accessor.getSessionId(), codec.contentType());
+        }
+    }
+
+    private Message<?> transcode(Message<?> message, byte[] payload) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        ChatMessageCodec target = sessionId != null ? sessionCodecs.getOrDefault(sessionId, codecRegistry.json()) : codecRegistry.json();
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        ChatMessageCodec source = sourceCodec(accessor);
+        if (source == null || source == target) {
+            return message;
+        }
+
+        try {
+            byte[] converted = target.transcode(payload, source);
+            if (target == codecRegistry.json()) {
+                accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+                accessor.removeNativeHeader(CODEC_HEADER);
+            } else {
+                // application/octet-stream 이어야 바이너리 WebSocket 프레임으로 전송되므로 실제 형식은 codec 헤더로 알려준다.
+                accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+                accessor.setNativeHeader(CODEC_HEADER, target.contentType().toString());
+            }
+            accessor.removeNativeHeader(StompHeaderAccessor.STOMP_CONTENT_LENGTH_HEADER);
+            return MessageBuilder.createMessage(converted, accessor.getMessageHeaders());
+        } catch (Exception e) {
+            log.warn("Failed to transcode payload for session {}: {}", sessionId, e.getMessage());
+            return message;
+        }
+    }
+
+    // 송신 프레임의 실제 형식. 이미 변환된 바이너리 프레임은 codec 헤더를 우선한다.
+    private ChatMessageCodec sourceCodec(StompHeaderAccessor accessor) {
+        ChatMessageCodec codec = codecRegistry.forContentType(accessor.getFirstNativeHeader(CODEC_HEADER));
+        if (codec != null) {
+            return codec;
+        }
+        MimeType contentType = accessor.getContentType();
+        return contentType != null ? codecRegistry.forContentType(contentType) : null;
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        sessionCodecs.remove(event.getSessionId());
+    }
+}
@@ -0,0 +1,22 @@
+package com.homeless.chatservice.common.lane;
+
+// 처리 우선순위 레인
+// CONTROL: 메시지 수정/삭제, 접속 상태, 연결/구독 프레임처럼 적고 늦으면 안 되는 작업
+// BULK: 채팅 메시지와 입력 중 신호처럼 몰려 들어오는 작업
+// 레인은 STOMP 명령/목적지나 서버 쪽 호출 경로로만 정한다. (클라이언트 payload 의 messageType 으로 정하지 않음)
+public enum MessageLane {
+    CONTROL,
+    BULK;
+
+    // 레인을 지정해서 PriorityLaneQueue 기반 executor 에 넘기는 작업
+    public Runnable task(Runnable task) {
+        return new LaneTask(this, task);
+    }
+
+    record LaneTask(MessageLane lane, Runnable task) implements Runnable {
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+}
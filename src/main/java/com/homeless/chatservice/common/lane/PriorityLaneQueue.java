@@ -0,0 +1,301 @@
+package com.homeless.chatservice.common.lane;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// ThreadPoolExecutor 작업 큐로 쓰는 레인별 큐
+// 레인마다 따로 용량을 두어 BULK 가 가득 차도 CONTROL 은 계속 받는다. (가득 찬 레인의 offer 는 false -> 스레드 추가 또는 거절)
+// 두 레인이 모두 밀려 있으면 CONTROL 을 control-weight 개 꺼낼 때마다 BULK 를 하나 꺼내서 BULK 도 멈추지 않게 한다.
+// 같은 레인 안에서는 FIFO.
+public class PriorityLaneQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private final Function<Runnable, MessageLane> classifier;
+    private final Map<MessageLane, ArrayDeque<Runnable>> lanes = new EnumMap<>(MessageLane.class);
+    private final Map<MessageLane, Integer> capacities = new EnumMap<>(MessageLane.class);
+    private final int controlWeight;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    // 연속으로 꺼낸 CONTROL 수
+    private int controlStreak;
+
+    public PriorityLaneQueue(Function<Runnable, MessageLane> classifier, int controlCapacity, int bulkCapacity,
+                             int controlWeight) {
+        if (controlCapacity < 1 || bulkCapacity < 1 || controlWeight < 1) {
+            throw new IllegalArgumentException("lane capacities and control weight must be positive");
+        }
+        this.classifier = classifier;
+        this.controlWeight = controlWeight;
+        capacities.put(MessageLane.CONTROL, controlCapacity);
+        capacities.put(MessageLane.BULK, bulkCapacity);
+        for (MessageLane lane : MessageLane.values()) {
+            lanes.put(lane, new ArrayDeque<>());
+        }
+    }
+
+    // MessageLane.task 로 감싼 작업은 지정된 레인, 나머지는 BULK
+    public static MessageLane laneOf(Runnable task) {
+        return task instanceof MessageLane.LaneTask laneTask ? laneTask.lane() : MessageLane.BULK;
+    }
+
+    // chat.lanes.queued{executor, lane}
+    public PriorityLaneQueue bindTo(MeterRegistry meterRegistry, String executorName) {
+        for (MessageLane lane : MessageLane.values()) {
+            Gauge.builder("chat.lanes.queued", this, queue -> queue.size(lane))
+                    .tag("executor", executorName)
+                    .tag("lane", lane.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        return this;
+    }
+
+    public int size(MessageLane lane) {
+        lock.lock();
+        try {
+            return lanes.get(lane).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        MessageLane lane = classifier.apply(task);
+        lock.lock();
+        try {
+            return enqueue(lane, task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+        MessageLane lane = classifier.apply(task);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (!enqueue(lane, task)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Runnable task) throws InterruptedException {
+        MessageLane lane = classifier.apply(task);
+        lock.lockInterruptibly();
+        try {
+            while (!enqueue(lane, task)) {
+                notFull.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            Runnable task;
+            while ((task = dequeue()) == null) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            Runnable task;
+            while ((task = dequeue()) == null) {
+                notEmpty.await();
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            Runnable control = lanes.get(MessageLane.CONTROL).peekFirst();
+            return control != null ? control : lanes.get(MessageLane.BULK).peekFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return lanes.get(MessageLane.CONTROL).size() + lanes.get(MessageLane.BULK).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            int remaining = 0;
+            for (MessageLane lane : MessageLane.values()) {
+                remaining += capacities.get(lane) - lanes.get(lane).size();
+            }
+            return remaining;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object task) {
+        lock.lock();
+        try {
+            for (ArrayDeque<Runnable> queue : lanes.values()) {
+                if (queue.removeFirstOccurrence(task)) {
+                    notFull.signalAll();
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target, int maxElements) {
+        if (target == this) {
+            throw new IllegalArgumentException("Cannot drain to self");
+        }
+        lock.lock();
+        try {
+            int drained = 0;
+            Runnable task;
+            while (drained < maxElements && (task = dequeue()) != null) {
+                target.add(task);
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 호출 시점 복사본 (ThreadPoolExecutor.purge 등에서 사용)
+    @Override
+    public Iterator<Runnable> iterator() {
+        List<Runnable> snapshot;
+        lock.lock();
+        try {
+            snapshot = new ArrayList<>(size());
+            snapshot.addAll(lanes.get(MessageLane.CONTROL));
+            snapshot.addAll(lanes.get(MessageLane.BULK));
+        } finally {
+            lock.unlock();
+        }
+        Iterator<Runnable> iterator = snapshot.iterator();
+        return new Iterator<>() {
+            private Runnable last;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                last = iterator.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                PriorityLaneQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    private boolean enqueue(MessageLane lane, Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        ArrayDeque<Runnable> queue = lanes.get(lane);
+        if (queue.size() >= capacities.get(lane)) {
+            return false;
+        }
+        queue.addLast(task);
+        notEmpty.signal();
+        return true;
+    }
+
+    private Runnable dequeue() {
+        ArrayDeque<Runnable> control = lanes.get(MessageLane.CONTROL);
+        ArrayDeque<Runnable> bulk = lanes.get(MessageLane.BULK);
+        Runnable task;
+        if (!control.isEmpty() && (bulk.isEmpty() || controlStreak < controlWeight)) {
+            controlStreak++;
+            task = control.pollFirst();
+        } else if (!bulk.isEmpty()) {
+            controlStreak = 0;
+            task = bulk.pollFirst();
+        } else {
+            return null;
+        }
+        notFull.signalAll();
+        return task;
+    }
+}
@@ -0,0 +1,33 @@
+package com.homeless.chatservice.common.lane;
+
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+
+import java.util.function.Function;
+
+// clientInboundChannel 작업(SendTask)의 레인 판정
+// 연결/구독/해제 프레임과 메시지 수정/삭제는 CONTROL, 나머지 SEND 는 BULK.
+// 전송 제한기보다 먼저 실행되므로 클라이언트가 채우는 payload(messageType 등)는 보지 않고 STOMP 명령과 목적지만으로 나눈다.
+public class StompLaneClassifier implements Function<Runnable, MessageLane> {
+
+    private static final String UPDATE_PREFIX = "/pub/chat.message.update.";
+    private static final String DELETE_PREFIX = "/pub/chat.message.delete.";
+
+    @Override
+    public MessageLane apply(Runnable task) {
+        if (!(task instanceof MessageHandlingRunnable handling)) {
+            return MessageLane.BULK;
+        }
+        MessageHeaders headers = handling.getMessage().getHeaders();
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE) {
+            return MessageLane.CONTROL;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination != null && (destination.startsWith(UPDATE_PREFIX) || destination.startsWith(DELETE_PREFIX))) {
+            return MessageLane.CONTROL;
+        }
+        return MessageLane.BULK;
+    }
+}
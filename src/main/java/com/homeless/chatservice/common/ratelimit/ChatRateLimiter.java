@@ -0,0 +1,161 @@
+package com.homeless.chatservice.common.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 메시지 전송 속도 제한 (사용자별, 채널별)
+// 평소에는 노드 로컬 토큰 버킷으로 판정하고, chat.ratelimit.global.enabled 이면
+// 로컬을 통과한 요청만 Redis 스크립트로 클러스터 전체 예산을 한 번 더 확인한다.
+@Slf4j
+@Component
+public class ChatRateLimiter {
+
+    public static final String SCOPE_USER = "user";
+    public static final String SCOPE_CHANNEL = "channel";
+
+    private static final String USER_KEY_PREFIX = "chat:ratelimit:user:";
+    private static final String CHANNEL_KEY_PREFIX = "chat:ratelimit:channel:";
+
+    // 키마다 (간격, 허용 오차) 인자를 받아서 모두 통과할 때만 갱신하는 GCRA. 시각은 Redis 서버 기준(ms)
+    private static final DefaultRedisScript<List> GLOBAL_BUDGET_SCRIPT = new DefaultRedisScript<>("""
+            local t = redis.call('TIME')
+            local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+            local tats = {}
+            for i, key in ipairs(KEYS) do
+              local interval = tonumber(ARGV[i * 2 - 1])
+              local tolerance = tonumber(ARGV[i * 2])
+              local tat = tonumber(redis.call('GET', key) or now)
+              if tat < now then tat = now end
+              local wait = tat + interval - now - tolerance
+              if wait > 0 then return {wait, i} end
+              tats[i] = tat + interval
+            end
+            for i, key in ipairs(KEYS) do
+              redis.call('SET', key, tats[i], 'PX', tats[i] - now + 1)
+            end
+            return {0, 0}
+            """, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Map<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> channelBuckets = new ConcurrentHashMap<>();
+    private final Counter userRejected;
+    private final Counter channelRejected;
+    private final Counter globalRejected;
+
+    @Value("${chat.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.ratelimit.user.rate-per-second:5}")
+    private double userRate;
+
+    @Value("${chat.ratelimit.user.burst:10}")
+    private int userBurst;
+
+    @Value("${chat.ratelimit.channel.rate-per-second:50}")
+    private double channelRate;
+
+    @Value("${chat.ratelimit.channel.burst:100}")
+    private int channelBurst;
+
+    @Value("${chat.ratelimit.global.enabled:false}")
+    private boolean globalEnabled;
+
+    @Value("${chat.ratelimit.idle-eviction-interval-ms:60000}")
+    private long idleEvictionIntervalMs;
+
+    private final ScheduledExecutorService evictionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ratelimit-eviction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 판정 결과. 거부된 경우 어떤 범위에서 막혔는지와 재시도까지 남은 시간
+    public record Decision(boolean allowed, String scope, long retryAfterMs) {
+        static final Decision ALLOWED = new Decision(true, null, 0);
+    }
+
+    public ChatRateLimiter(@Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
+                           MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.userRejected = meterRegistry.counter("chat.ratelimit.rejected", "scope", SCOPE_USER);
+        this.channelRejected = meterRegistry.counter("chat.ratelimit.rejected", "scope", SCOPE_CHANNEL);
+        this.globalRejected = meterRegistry.counter("chat.ratelimit.rejected", "scope", "global");
+    }
+
+    @PostConstruct
+    public void init() {
+        // 가득 찬 버킷은 새 버킷과 같으므로 주기적으로 지워서 맵이 계속 커지지 않게 한다.
+        evictionScheduler.scheduleWithFixedDelay(() -> {
+            userBuckets.values().removeIf(TokenBucket::isIdle);
+            channelBuckets.values().removeIf(TokenBucket::isIdle);
+        }, idleEvictionIntervalMs, idleEvictionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public Decision tryAcquire(String userEmail, String channelId) {
+        if (!enabled) {
+            return Decision.ALLOWED;
+        }
+
+        long userWait = userBuckets.computeIfAbsent(userEmail, key -> new TokenBucket(userRate, userBurst)).tryAcquire();
+        if (userWait > 0) {
+            userRejected.increment();
+            return new Decision(false, SCOPE_USER, TimeUnit.NANOSECONDS.toMillis(userWait) + 1);
+        }
+        long channelWait = channelBuckets.computeIfAbsent(channelId, key -> new TokenBucket(channelRate, channelBurst)).tryAcquire();
+        if (channelWait > 0) {
+            channelRejected.increment();
+            return new Decision(false, SCOPE_CHANNEL, TimeUnit.NANOSECONDS.toMillis(channelWait) + 1);
+        }
+
+        return globalEnabled ? tryAcquireGlobal(userEmail, channelId) : Decision.ALLOWED;
+    }
+
+    private Decision tryAcquireGlobal(String userEmail, String channelId) {
+        try {
+            List<?> result = redisTemplate.execute(GLOBAL_BUDGET_SCRIPT,
+                    List.of(USER_KEY_PREFIX + userEmail, CHANNEL_KEY_PREFIX + channelId),
+                    intervalMs(userRate), toleranceMs(userRate, userBurst),
+                    intervalMs(channelRate), toleranceMs(channelRate, channelBurst));
+            long wait = result == null ? 0 : ((Number) result.get(0)).longValue();
+            if (wait <= 0) {
+                return Decision.ALLOWED;
+            }
+            globalRejected.increment();
+            String scope = ((Number) result.get(1)).intValue() == 1 ? SCOPE_USER : SCOPE_CHANNEL;
+            return new Decision(false, scope, wait);
+        } catch (Exception e) {
+            // Redis 장애 시에는 로컬 제한만으로 통과시킨다.
+            log.warn("Global rate limit check failed, allowing message: {}", e.getMessage());
+            return Decision.ALLOWED;
+        }
+    }
+
+    private static String intervalMs(double ratePerSecond) {
+        return String.valueOf(Math.max(1, Math.round(1000 / ratePerSecond)));
+    }
+
+    private static String toleranceMs(double ratePerSecond, int burst) {
+        return String.valueOf(Math.max(1, Math.round(1000 / ratePerSecond)) * burst);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        evictionScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,51 @@
+package com.homeless.chatservice.common.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// 락 없는 토큰 버킷 (GCRA 방식)
+// 남은 토큰 수 대신 "버킷이 다시 가득 차는 이론상 시각" 하나만 AtomicLong 으로 관리해서 CAS 한 번으로 판정한다.
+// rate 개/초로 채워지고 최대 burst 개까지 연속으로 허용한다.
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier clock;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+
+    public TokenBucket(double ratePerSecond, int burst, LongSupplier nanoClock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate and burst must be positive");
+        }
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.clock = nanoClock;
+        this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    // 토큰 하나를 사용. 허용되면 0, 거부되면 다시 시도할 수 있을 때까지 남은 시간(ns)
+    public long tryAcquire() {
+        while (true) {
+            long now = clock.getAsLong();
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long waitNanos = next - now - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // 버킷이 가득 찬 상태면 새로 만든 버킷과 같으므로 정리 대상
+    public boolean isIdle() {
+        return theoreticalArrival.get() <= clock.getAsLong();
+    }
+}
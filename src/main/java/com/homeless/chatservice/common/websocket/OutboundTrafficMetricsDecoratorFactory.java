@@ -0,0 +1,113 @@
+package com.homeless.chatservice.common.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.Deflater;
+
+// 세션별 송신 트래픽을 permessage-deflate 협상 여부로 나눠 집계하는 데코레이터
+// chat.ws.outbound.payload.bytes 는 압축 전 페이로드 크기다. 컨테이너가 압축한 뒤의 실제 전송량은 노출되지 않으므로,
+// 협상된 세션의 일부 프레임을 같은 레벨로 압축해 보고(chat.ws.outbound.deflate.sample.bytes) 압축률을 추정한다.
+@Slf4j
+@Component
+public class OutboundTrafficMetricsDecoratorFactory implements WebSocketHandlerDecoratorFactory {
+
+    private final Counter deflateFrames;
+    private final Counter deflatePayloadBytes;
+    private final Counter rawFrames;
+    private final Counter rawPayloadBytes;
+    private final Counter sampledRawBytes;
+    private final Counter sampledDeflatedBytes;
+
+    @Value("${chat.websocket.compression.sample-rate:0.01}")
+    private double sampleRate;
+
+    public OutboundTrafficMetricsDecoratorFactory(MeterRegistry meterRegistry) {
+        this.deflateFrames = meterRegistry.counter("chat.ws.outbound.frames", "deflate_negotiated", "true");
+        this.deflatePayloadBytes = meterRegistry.counter("chat.ws.outbound.payload.bytes", "deflate_negotiated", "true");
+        this.rawFrames = meterRegistry.counter("chat.ws.outbound.frames", "deflate_negotiated", "false");
+        this.rawPayloadBytes = meterRegistry.counter("chat.ws.outbound.payload.bytes", "deflate_negotiated", "false");
+        this.sampledRawBytes = meterRegistry.counter("chat.ws.outbound.deflate.sample.bytes", "stage", "raw");
+        this.sampledDeflatedBytes = meterRegistry.counter("chat.ws.outbound.deflate.sample.bytes", "stage", "deflated");
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                boolean deflate = session.getExtensions().stream()
+                        .anyMatch(extension -> WebSocketCompressionFilter.PERMESSAGE_DEFLATE.equals(extension.getName()));
+                log.debug("WebSocket session {} established (permessage-deflate: {})", session.getId(), deflate);
+                super.afterConnectionEstablished(new CountingSession(session, deflate));
+            }
+        };
+    }
+
+    private class CountingSession extends WebSocketSessionDecorator {
+
+        private final boolean deflate;
+
+        CountingSession(WebSocketSession session, boolean deflate) {
+            super(session);
+            this.deflate = deflate;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            int length = message.getPayloadLength();
+            if (deflate) {
+                deflateFrames.increment();
+                deflatePayloadBytes.increment(length);
+                if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                    sample(message);
+                }
+            } else {
+                rawFrames.increment();
+                rawPayloadBytes.increment(length);
+            }
+            super.sendMessage(message);
+        }
+
+        private void sample(WebSocketMessage<?> message) {
+            byte[] payload;
+            if (message instanceof TextMessage text) {
+                payload = text.getPayload().getBytes(StandardCharsets.UTF_8);
+            } else if (message instanceof BinaryMessage binary) {
+                payload = new byte[binary.getPayload().remaining()];
+                binary.getPayload().duplicate().get(payload);
+            } else {
+                return;
+            }
+
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                deflater.setInput(payload);
+                deflater.finish();
+                byte[] buffer = new byte[Math.max(64, payload.length)];
+                long compressed = 0;
+                while (!deflater.finished()) {
+                    compressed += deflater.deflate(buffer);
+                }
+                sampledRawBytes.increment(payload.length);
+                sampledDeflatedBytes.increment(compressed);
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.homeless.chatservice.common.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 세션마다 제한된 송신 큐를 두는 데코레이터
+// 브로커 전송 스레드는 큐에 넣기만 하고 실제 소켓 쓰기는 공용 드레인 풀에서 세션별로 순서대로 처리한다.
+// 느린 클라이언트는 자기 큐만 채우고, 가득 차면 설정된 정책(SlowConsumerPolicy)에 따라 버리거나/합치거나/끊는다.
+// 소켓 쓰기 한 번은 send-time-limit-ms 로 제한하고, 감시 스레드가 쓰기가 멈췄거나 max-lag-ms 를 넘긴 세션을 끊어서
+// 멈춘 클라이언트가 드레인 스레드를 오래 붙잡아 다른 세션의 전송까지 막지 않게 한다.
+@Slf4j
+@Component
+public class SessionOutboundQueueDecoratorFactory implements WebSocketHandlerDecoratorFactory {
+
+    // 같은 키의 대기 프레임을 최신 값으로 교체할 때 사용하는 STOMP 헤더 (타이핑 표시 등)
+    public static final String COALESCE_KEY_HEADER = "coalesce-key";
+    // 한 번의 드레인 작업에서 보내는 최대 프레임 수 (한 세션이 드레인 스레드를 독점하지 않도록)
+    private static final int DRAIN_BATCH = 64;
+    // 헤더 파싱 시 읽는 최대 바이트
+    private static final int MAX_HEADER_SCAN = 4096;
+    // Tomcat 이 소켓 쓰기 한 번을 기다리는 최대 시간 (세션 user property)
+    private static final String BLOCKING_SEND_TIMEOUT_PROPERTY = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+    private static final long WATCHDOG_INTERVAL_MS = 1000;
+
+    private final Map<String, QueuedSession> sessions = new ConcurrentHashMap<>();
+
+    private final Timer lagTimer;
+    private final Counter droppedFrames;
+    private final Counter coalescedFrames;
+    private final Counter overflowDisconnects;
+    private final Counter lagDisconnects;
+    private final Counter sendTimeoutDisconnects;
+
+    @Value("${chat.websocket.outbound.policy:DROP_OLDEST}")
+    private SlowConsumerPolicy policy;
+
+    @Value("${chat.websocket.outbound.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${chat.websocket.outbound.queue-max-bytes:1048576}")
+    private long queueMaxBytes;
+
+    @Value("${chat.websocket.outbound.max-lag-ms:30000}")
+    private long maxLagMs;
+
+    @Value("${chat.websocket.outbound.send-time-limit-ms:10000}")
+    private long sendTimeLimitMs;
+
+    @Value("${chat.websocket.outbound.drain-threads:16}")
+    private int drainThreads;
+
+    private ThreadPoolExecutor drainExecutor;
+
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ws-outbound-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SessionOutboundQueueDecoratorFactory(MeterRegistry meterRegistry) {
+        this.lagTimer = Timer.builder("chat.ws.outbound.queue.lag")
+                .description("Time a frame waited in the session outbound queue")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.droppedFrames = meterRegistry.counter("chat.ws.outbound.queue.dropped", "reason", "drop_oldest");
+        this.coalescedFrames = meterRegistry.counter("chat.ws.outbound.queue.dropped", "reason", "coalesced");
+        this.overflowDisconnects = meterRegistry.counter("chat.ws.outbound.queue.disconnects", "reason", "overflow");
+        this.lagDisconnects = meterRegistry.counter("chat.ws.outbound.queue.disconnects", "reason", "lag");
+        this.sendTimeoutDisconnects = meterRegistry.counter("chat.ws.outbound.queue.disconnects", "reason", "send_timeout");
+        Gauge.builder("chat.ws.outbound.queue.depth", sessions,
+                        map -> map.values().stream().mapToInt(QueuedSession::depth).sum())
+                .register(meterRegistry);
+        Gauge.builder("chat.ws.outbound.queue.max.lag", sessions,
+                        map -> map.values().stream().mapToLong(QueuedSession::oldestAgeMillis).max().orElse(0))
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    // 세션별 송신 지연 현황 (actuator wssessions 엔드포인트에서 노출)
+    public record SessionLag(String sessionId, String user, int queuedFrames, long queuedBytes,
+                             long oldestFrameAgeMs, long lastSendLagMs, long droppedFrames, long coalescedFrames) {
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // 세션당 드레인 작업은 최대 하나만 예약되므로 작업 큐 크기는 세션 수를 넘지 않는다.
+        drainExecutor = new ThreadPoolExecutor(
+                drainThreads, drainThreads,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ws-outbound-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        watchdog.scheduleAtFixedRate(this::evictStalled, WATCHDOG_INTERVAL_MS, WATCHDOG_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        log.info("Session outbound queues enabled (policy: {}, capacity: {} frames / {} bytes, send limit: {}ms)",
+                policy, queueCapacity, queueMaxBytes, sendTimeLimitMs);
+    }
+
+    // 새 프레임이 들어오지 않아도 멈춘 세션을 끊는다. (쓰기 중 멈춤 -> send_timeout, 큐 대기 초과 -> lag)
+    private void evictStalled() {
+        for (QueuedSession session : sessions.values()) {
+            if (session.closed) {
+                continue;
+            }
+            try {
+                if (session.sendingMillis() > sendTimeLimitMs) {
+                    sendTimeoutDisconnects.increment();
+                    session.disconnect("Send time limit exceeded " + sendTimeLimitMs + "ms");
+                } else if (session.oldestAgeMillis() > maxLagMs) {
+                    lagDisconnects.increment();
+                    session.disconnect("Outbound lag exceeded " + maxLagMs + "ms");
+                }
+            } catch (Exception e) {
+                log.warn("Failed to check outbound session {}: {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    // Tomcat 에서는 소켓 쓰기 자체에도 시간 제한을 걸어 드레인 스레드가 send-time-limit-ms 이상 막히지 않게 한다.
+    private void limitBlockingSend(WebSocketSession session) {
+        if (WebSocketSessionDecorator.unwrap(session) instanceof NativeWebSocketSession nativeSession
+                && nativeSession.getNativeSession() instanceof jakarta.websocket.Session webSocket) {
+            webSocket.getUserProperties().put(BLOCKING_SEND_TIMEOUT_PROPERTY, sendTimeLimitMs);
+        }
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                limitBlockingSend(session);
+                QueuedSession queued = new QueuedSession(session);
+                sessions.put(session.getId(), queued);
+                super.afterConnectionEstablished(queued);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                QueuedSession queued = sessions.remove(session.getId());
+                if (queued != null) {
+                    queued.discard();
+                }
+                super.afterConnectionClosed(queued != null ? queued : session, closeStatus);
+            }
+        };
+    }
+
+    public List<SessionLag> topLaggingSessions(int limit) {
+        return sessions.values().stream()
+                .map(QueuedSession::snapshot)
+                .sorted(Comparator.comparingLong(SessionLag::oldestFrameAgeMs)
+                        .thenComparingInt(SessionLag::queuedFrames)
+                        .reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private class QueuedSession extends WebSocketSessionDecorator {
+
+        // synchronized(this) 로 보호
+        private final LinkedList<OutboundFrame> queue = new LinkedList<>();
+        private long queuedBytes;
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile long lastSendLagNanos;
+        // 진행 중인 소켓 쓰기의 시작 시각 (쓰는 중이 아니면 0)
+        private volatile long sendStartedAt;
+        private volatile long dropped;
+        private volatile long coalesced;
+
+        QueuedSession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            if (closed) {
+                return;
+            }
+            OutboundFrame frame = OutboundFrame.of(message);
+            String overflowReason = null;
+            synchronized (this) {
+                if (policy == SlowConsumerPolicy.COALESCE && frame.coalesceKey() != null && replacePending(frame)) {
+                    coalesced++;
+                    coalescedFrames.increment();
+                } else {
+                    queue.addLast(frame);
+                    queuedBytes += frame.size();
+                    while (overflowing()) {
+                        if (policy == SlowConsumerPolicy.DISCONNECT || !dropOldestNonCritical()) {
+                            overflowReason = "Outbound queue overflow";
+                            break;
+                        }
+                    }
+                }
+            }
+
+            if (overflowReason != null) {
+                overflowDisconnects.increment();
+                disconnect(overflowReason);
+                return;
+            }
+            if (oldestAgeMillis() > maxLagMs) {
+                lagDisconnects.increment();
+                disconnect("Outbound lag exceeded " + maxLagMs + "ms");
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private boolean overflowing() {
+            return queue.size() > queueCapacity || queuedBytes > queueMaxBytes;
+        }
+
+        private boolean replacePending(OutboundFrame frame) {
+            ListIterator<OutboundFrame> iterator = queue.listIterator();
+            while (iterator.hasNext()) {
+                OutboundFrame pending = iterator.next();
+                if (frame.coalesceKey().equals(pending.coalesceKey())) {
+                    // 큐 위치(대기 시간)는 유지하고 내용만 최신으로 바꾼다.
+                    iterator.set(frame.withEnqueuedAt(pending.enqueuedAt()));
+                    queuedBytes += frame.size() - pending.size();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean dropOldestNonCritical() {
+            Iterator<OutboundFrame> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                OutboundFrame pending = iterator.next();
+                if (!pending.critical()) {
+                    iterator.remove();
+                    queuedBytes -= pending.size();
+                    dropped++;
+                    droppedFrames.increment();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                drainExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                log.warn("Outbound drain rejected for session {}", getId());
+            }
+        }
+
+        private void drain() {
+            try {
+                for (int i = 0; i < DRAIN_BATCH && !closed; i++) {
+                    OutboundFrame frame;
+                    synchronized (this) {
+                        frame = queue.pollFirst();
+                        if (frame == null) {
+                            break;
+                        }
+                        queuedBytes -= frame.size();
+                    }
+                    long lag = System.nanoTime() - frame.enqueuedAt();
+                    lastSendLagNanos = lag;
+                    lagTimer.record(lag, TimeUnit.NANOSECONDS);
+                    // 꺼낼 때도 확인 (큐에 넣을 때만 보면 새 프레임이 없는 동안 밀린 세션이 남는다)
+                    if (TimeUnit.NANOSECONDS.toMillis(lag) > maxLagMs) {
+                        lagDisconnects.increment();
+                        disconnect("Outbound lag exceeded " + maxLagMs + "ms");
+                        break;
+                    }
+                    sendStartedAt = System.nanoTime();
+                    try {
+                        getDelegate().sendMessage(frame.message());
+                    } finally {
+                        sendStartedAt = 0;
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Failed to send to session {}: {}", getId(), e.getMessage());
+                disconnect("Send failed");
+            } finally {
+                draining.set(false);
+            }
+            // 드레인 종료 직전에 들어온 프레임이 남지 않도록 다시 확인
+            if (!closed && depth() > 0) {
+                scheduleDrain();
+            }
+        }
+
+        private void disconnect(String reason) {
+            if (closed) {
+                return;
+            }
+            discard();
+            log.warn("Disconnecting slow session {} (user: {}): {}", getId(), userName(), reason);
+            try {
+                getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE.withReason(reason));
+            } catch (IOException e) {
+                log.debug("Failed to close session {}: {}", getId(), e.getMessage());
+            }
+        }
+
+        synchronized void discard() {
+            closed = true;
+            queue.clear();
+            queuedBytes = 0;
+        }
+
+        long sendingMillis() {
+            long startedAt = sendStartedAt;
+            return startedAt == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        }
+
+        synchronized int depth() {
+            return queue.size();
+        }
+
+        synchronized long oldestAgeMillis() {
+            OutboundFrame oldest = queue.peekFirst();
+            return oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedAt());
+        }
+
+        synchronized SessionLag snapshot() {
+            return new SessionLag(getId(), userName(), queue.size(), queuedBytes, oldestAgeMillis(),
+                    TimeUnit.NANOSECONDS.toMillis(lastSendLagNanos), dropped, coalesced);
+        }
+
+        private String userName() {
+            Principal principal = getPrincipal();
+            return principal != null ? principal.getName() : null;
+        }
+    }
+
+    // 큐에 들어간 STOMP 프레임. 정책 판단에 필요한 헤더만 미리 읽어 둔다.
+    private record OutboundFrame(WebSocketMessage<?> message, int size, long enqueuedAt,
+                                 boolean critical, String coalesceKey) {
+
+        static OutboundFrame of(WebSocketMessage<?> message) {
+            String command = null;
+            String destination = null;
+            String coalesceKey = null;
+            for (String line : headerBlock(message).split("\n")) {
+                if (command == null) {
+                    command = line.trim();
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                if (colon <= 0) {
+                    continue;
+                }
+                String name = line.substring(0, colon);
+                if ("destination".equals(name)) {
+                    destination = line.substring(colon + 1);
+                } else if (COALESCE_KEY_HEADER.equals(name)) {
+                    coalesceKey = line.substring(colon + 1);
+                }
+            }
+            return new OutboundFrame(message, message.getPayloadLength(), System.nanoTime(),
+                    isCritical(command, destination), coalesceKey);
+        }
+
+        OutboundFrame withEnqueuedAt(long enqueuedAt) {
+            return new OutboundFrame(message, size, enqueuedAt, critical, coalesceKey);
+        }
+
+        // CONNECTED/RECEIPT/ERROR 와 개인 큐(/user, /queue) 메시지는 버리지 않는다.
+        // 채널 브로드캐스트(/topic)와 하트비트만 버릴 수 있다.
+        private static boolean isCritical(String command, String destination) {
+            if (command == null || command.isEmpty()) {
+                return false;
+            }
+            if (!"MESSAGE".equals(command)) {
+                return true;
+            }
+            return destination != null && (destination.startsWith("/user/") || destination.startsWith("/queue/"));
+        }
+
+        private static String headerBlock(WebSocketMessage<?> message) {
+            if (message instanceof TextMessage text) {
+                String payload = text.getPayload();
+                int end = payload.indexOf("\n\n");
+                return end >= 0 ? payload.substring(0, end) : payload.substring(0, Math.min(payload.length(), MAX_HEADER_SCAN));
+            }
+            if (message instanceof BinaryMessage binary) {
+                ByteBuffer buffer = binary.getPayload().duplicate();
+                int limit = Math.min(buffer.remaining(), MAX_HEADER_SCAN);
+                int start = buffer.position();
+                int end = limit;
+                for (int i = 1; i < limit; i++) {
+                    if (buffer.get(start + i) == '\n' && buffer.get(start + i - 1) == '\n') {
+                        end = i - 1;
+                        break;
+                    }
+                }
+                byte[] header = new byte[end];
+                buffer.get(header);
+                return new String(header, StandardCharsets.UTF_8);
+            }
+            return "";
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        watchdog.shutdownNow();
+        drainExecutor.shutdown();
+        try {
+            if (!drainExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                drainExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            drainExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
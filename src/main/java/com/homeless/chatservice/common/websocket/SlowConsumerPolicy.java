@@ -0,0 +1,11 @@
+package com.homeless.chatservice.common.websocket;
+
+// 세션 송신 큐가 가득 찼을 때의 처리 방식
+public enum SlowConsumerPolicy {
+    // 가장 오래된 비필수 프레임(/topic MESSAGE, 하트비트)을 버린다.
+    DROP_OLDEST,
+    // 같은 coalesce-key 헤더를 가진 대기 프레임을 최신 프레임으로 교체하고, 그래도 가득 차면 DROP_OLDEST 처럼 동작
+    COALESCE,
+    // 사유와 함께 연결을 끊어서 클라이언트가 재접속 후 다시 받아가게 한다.
+    DISCONNECT
+}
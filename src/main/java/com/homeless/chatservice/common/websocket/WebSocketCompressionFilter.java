@@ -0,0 +1,85 @@
+package com.homeless.chatservice.common.websocket;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+// /ws 핸드셰이크에서 permessage-deflate(RFC 7692) 협상 여부를 제어하는 필터
+// 실제 압축은 서블릿 컨테이너(Tomcat)의 확장 구현이 담당하고,
+// 컨테이너는 요청 헤더를 직접 읽어서 협상하기 때문에 설정이 꺼져 있으면 헤더에서 해당 확장을 제거한다.
+@Slf4j
+@Component
+public class WebSocketCompressionFilter extends OncePerRequestFilter {
+
+    static final String EXTENSIONS_HEADER = "Sec-WebSocket-Extensions";
+    static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    @Value("${chat.websocket.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${spring.websocket.path:/ws}")
+    private String websocketPath;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // 압축을 허용하는 경우에는 컨테이너 기본 협상을 그대로 사용
+        return compressionEnabled || !request.getRequestURI().startsWith(websocketPath);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(new WithoutDeflateRequest(request), response);
+    }
+
+    // 요청된 확장 목록에서 permessage-deflate 항목만 숨기는 요청 래퍼
+    private static class WithoutDeflateRequest extends HttpServletRequestWrapper {
+
+        WithoutDeflateRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (!EXTENSIONS_HEADER.equalsIgnoreCase(name)) {
+                return super.getHeader(name);
+            }
+            List<String> values = filteredExtensions();
+            return values.isEmpty() ? null : String.join(", ", values);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (!EXTENSIONS_HEADER.equalsIgnoreCase(name)) {
+                return super.getHeaders(name);
+            }
+            return Collections.enumeration(filteredExtensions());
+        }
+
+        private List<String> filteredExtensions() {
+            List<String> result = new ArrayList<>();
+            Enumeration<String> headers = super.getHeaders(EXTENSIONS_HEADER);
+            while (headers != null && headers.hasMoreElements()) {
+                for (String extension : headers.nextElement().split(",")) {
+                    String trimmed = extension.trim();
+                    if (!trimmed.isEmpty() && !trimmed.startsWith(PERMESSAGE_DEFLATE)) {
+                        result.add(trimmed);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.homeless.chatservice.common.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// 송신 지연이 큰 세션 목록 (/actuator/wssessions?limit=20)
+@Component
+@Endpoint(id = "wssessions")
+@RequiredArgsConstructor
+public class WebSocketSessionsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final SessionOutboundQueueDecoratorFactory outboundQueues;
+
+    @ReadOperation
+    public List<SessionOutboundQueueDecoratorFactory.SessionLag> laggingSessions(@Nullable Integer limit) {
+        return outboundQueues.topLaggingSessions(limit != null ? limit : DEFAULT_LIMIT);
+    }
+}
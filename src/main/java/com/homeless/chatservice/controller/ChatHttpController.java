@@ -1,8 +1,13 @@
 package com.homeless.chatservice.controller;
 
+import com.homeless.chatservice.common.auth.JwtUtils;
 import com.homeless.chatservice.dto.ChatMessageResponse;
 import com.homeless.chatservice.dto.CommonResDto;
+import com.homeless.chatservice.dto.LatestMessagesResponse;
+import com.homeless.chatservice.service.ChannelReplayService;
+import com.homeless.chatservice.service.ChannelSummaryService;
 import com.homeless.chatservice.service.ChatHttpService;
+import com.homeless.chatservice.service.ChatSignalService;
 import com.homeless.chatservice.service.ResponseService;
 import com.homeless.chatservice.service.StompMessageService;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +17,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RequiredArgsConstructor
@@ -23,6 +29,10 @@ public class ChatHttpController {
     private final ChatHttpService chatHttpService;
     private final ResponseService responseService;
     private final StompMessageService stompMessageService;
+    private final ChatSignalService chatSignalService;
+    private final ChannelReplayService channelReplayService;
+    private final ChannelSummaryService channelSummaryService;
+    private final JwtUtils jwtUtils;
 
     //메시지 조회
     @GetMapping("/ch/{channelId}")
@@ -48,6 +58,84 @@ public class ChatHttpController {
 
 
 
+    // 여러 채널 최신 메시지 일괄 조회 (서버 전환 시 채널마다 요청하지 않도록)
+    // channelIds 또는 serverId 중 하나를 지정
+    @GetMapping("/latest")
+    public ResponseEntity<?> getLatestMessages(
+            @RequestParam(required = false) List<String> channelIds,
+            @RequestParam(required = false) String serverId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "0") int page) {
+        if ((channelIds == null || channelIds.isEmpty()) && serverId == null) {
+            return responseService.createErrorResponse(HttpStatus.BAD_REQUEST, "channelIds 또는 serverId가 필요합니다.");
+        }
+        if (chatHttpService.isInvalidSize(limit)) {
+            return responseService.createErrorResponse(HttpStatus.BAD_REQUEST, "limit은 1 이상의 값이어야 합니다.");
+        }
+
+        try {
+            LatestMessagesResponse messages = channelIds != null && !channelIds.isEmpty()
+                    ? chatHttpService.getLatestMessages(channelIds, limit, page)
+                    : chatHttpService.getLatestMessagesByServer(serverId, limit, page);
+            CommonResDto<Object> commonResDto = new CommonResDto<>(HttpStatus.OK, "메시지 조회 완료", messages);
+            return new ResponseEntity<>(commonResDto, HttpStatus.OK);
+        } catch (Exception e) {
+            return handleException(e);
+        }
+    }
+
+    // seq 이후 놓친 메시지 조회 (구독 중 순번이 비었을 때 이어받기)
+    @GetMapping("/ch/{channelId}/since")
+    public ResponseEntity<?> getMessagesSince(@PathVariable String channelId, @RequestParam long seq) {
+        if (seq < 0) {
+            return responseService.createErrorResponse(HttpStatus.BAD_REQUEST, "seq는 0 이상의 값이어야 합니다.");
+        }
+        CommonResDto<Object> commonResDto = new CommonResDto<>(HttpStatus.OK, "메시지 조회 완료",
+                channelReplayService.replaySince(channelId, seq));
+        return new ResponseEntity<>(commonResDto, HttpStatus.OK);
+    }
+
+    // 서버의 채널 목록 요약 (마지막 메시지 미리보기, 안 읽은 메시지 수)
+    @GetMapping("/servers/{serverId}/summaries")
+    public ResponseEntity<?> getChannelSummaries(@PathVariable String serverId,
+                                                 @RequestHeader("Authorization") String authorizationHeader) {
+        try {
+            String userEmail = jwtUtils.getEmailFromToken(jwtUtils.validateToken(authorizationHeader));
+            CommonResDto<Object> commonResDto = new CommonResDto<>(HttpStatus.OK, "채널 요약 조회 완료",
+                    Map.of("serverId", serverId, "channels", channelSummaryService.getSummaries(serverId, userEmail)));
+            return new ResponseEntity<>(commonResDto, HttpStatus.OK);
+        } catch (Exception e) {
+            return handleException(e);
+        }
+    }
+
+    // 읽음 처리 (seq 를 생략하면 채널의 마지막 메시지까지)
+    @PostMapping("/ch/{channelId}/read")
+    public ResponseEntity<?> markRead(@PathVariable String channelId,
+                                      @RequestParam(required = false) Long seq,
+                                      @RequestHeader("Authorization") String authorizationHeader) {
+        if (seq != null && seq < 0) {
+            return responseService.createErrorResponse(HttpStatus.BAD_REQUEST, "seq는 0 이상의 값이어야 합니다.");
+        }
+        try {
+            String userEmail = jwtUtils.getEmailFromToken(jwtUtils.validateToken(authorizationHeader));
+            long readSeq = channelSummaryService.markRead(userEmail, channelId, seq);
+            CommonResDto<Object> commonResDto = new CommonResDto<>(HttpStatus.OK, "읽음 처리 완료",
+                    Map.of("channelId", channelId, "lastReadSeq", readSeq));
+            return new ResponseEntity<>(commonResDto, HttpStatus.OK);
+        } catch (Exception e) {
+            return handleException(e);
+        }
+    }
+
+    // 채널 접속 중인 사용자 조회
+    @GetMapping("/ch/{channelId}/presence")
+    public ResponseEntity<?> getPresence(@PathVariable String channelId) {
+        CommonResDto<Object> commonResDto = new CommonResDto<>(HttpStatus.OK, "접속 사용자 조회 완료",
+                Map.of("channelId", channelId, "users", chatSignalService.onlineUsers(channelId)));
+        return new ResponseEntity<>(commonResDto, HttpStatus.OK);
+    }
+
     // 메시지 검색
     @GetMapping("/search")
     public Page<ChatMessageResponse> searchMessages(
@@ -67,6 +155,8 @@ public class ChatHttpController {
     // feign : 채널 삭제
     @DeleteMapping("/ch/{channelId}")
     public ResponseEntity<?> deleteMessagesByChannel(@PathVariable String channelId) throws Exception {
+        // 요약 키에서 서버를 찾아야 하므로 채널 Redis 키를 지우기 전에 정리
+        channelSummaryService.removeChannel(channelId);
         stompMessageService.removeChannel(channelId);
         chatHttpService.deleteChatMessageByChannelId(channelId);
 
@@ -0,0 +1,78 @@
+package com.homeless.chatservice.controller;
+
+import com.homeless.chatservice.dto.ChannelType;
+import com.homeless.chatservice.dto.CommonResDto;
+import com.homeless.chatservice.entity.RetentionPolicy;
+import com.homeless.chatservice.service.ResponseService;
+import com.homeless.chatservice.service.RetentionPolicyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// 메시지 보관 기간 정책 관리 (days 가 0 이면 영구 보관)
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/chats/retention")
+public class RetentionController {
+
+    private final RetentionPolicyService retentionPolicyService;
+    private final ResponseService responseService;
+
+    @GetMapping
+    public ResponseEntity<?> getPolicies() {
+        CommonResDto<Object> commonResDto = new CommonResDto<>(HttpStatus.OK, "보관 정책 조회 완료",
+                retentionPolicyService.findAll());
+        return new ResponseEntity<>(commonResDto, HttpStatus.OK);
+    }
+
+    @PutMapping("/servers/{serverId}")
+    public ResponseEntity<?> setServerPolicy(@PathVariable String serverId, @RequestParam int days) {
+        return savePolicy(RetentionPolicy.Scope.SERVER, serverId, days);
+    }
+
+    @PutMapping("/channels/{channelId}")
+    public ResponseEntity<?> setChannelPolicy(@PathVariable String channelId, @RequestParam int days) {
+        return savePolicy(RetentionPolicy.Scope.CHANNEL, channelId, days);
+    }
+
+    @DeleteMapping("/servers/{serverId}")
+    public ResponseEntity<?> deleteServerPolicy(@PathVariable String serverId) {
+        retentionPolicyService.delete(RetentionPolicy.Scope.SERVER, serverId);
+        CommonResDto<Void> commonResDto = new CommonResDto<>(HttpStatus.OK, "보관 정책 삭제 완료", null);
+        return new ResponseEntity<>(commonResDto, HttpStatus.OK);
+    }
+
+    @DeleteMapping("/channels/{channelId}")
+    public ResponseEntity<?> deleteChannelPolicy(@PathVariable String channelId) {
+        retentionPolicyService.delete(RetentionPolicy.Scope.CHANNEL, channelId);
+        CommonResDto<Void> commonResDto = new CommonResDto<>(HttpStatus.OK, "보관 정책 삭제 완료", null);
+        return new ResponseEntity<>(commonResDto, HttpStatus.OK);
+    }
+
+    // 채널의 서버/종류 등록 (채널을 관리하는 서비스가 채널 생성/변경 시 호출, 1:1 채널은 serverId 없이)
+    @PutMapping("/channels/{channelId}/metadata")
+    public ResponseEntity<?> setChannelMetadata(@PathVariable String channelId,
+                                                @RequestParam ChannelType channelType,
+                                                @RequestParam(required = false) String serverId) {
+        CommonResDto<Object> commonResDto = new CommonResDto<>(HttpStatus.OK, "채널 정보 저장 완료",
+                retentionPolicyService.saveChannel(channelId, serverId, channelType));
+        return new ResponseEntity<>(commonResDto, HttpStatus.OK);
+    }
+
+    @DeleteMapping("/channels/{channelId}/metadata")
+    public ResponseEntity<?> deleteChannelMetadata(@PathVariable String channelId) {
+        retentionPolicyService.deleteChannel(channelId);
+        CommonResDto<Void> commonResDto = new CommonResDto<>(HttpStatus.OK, "채널 정보 삭제 완료", null);
+        return new ResponseEntity<>(commonResDto, HttpStatus.OK);
+    }
+
+    private ResponseEntity<?> savePolicy(RetentionPolicy.Scope scope, String target, int days) {
+        if (days < 0) {
+            return responseService.createErrorResponse(HttpStatus.BAD_REQUEST, "days는 0 이상의 값이어야 합니다.");
+        }
+        RetentionPolicy policy = retentionPolicyService.save(scope, target, days);
+        CommonResDto<Object> commonResDto = new CommonResDto<>(HttpStatus.OK, "보관 정책 저장 완료", policy);
+        return new ResponseEntity<>(commonResDto, HttpStatus.OK);
+    }
+}
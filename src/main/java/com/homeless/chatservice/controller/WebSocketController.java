@@ -2,10 +2,13 @@ package com.homeless.chatservice.controller;
 
 import com.homeless.chatservice.common.auth.JwtUtils;
 import com.homeless.chatservice.common.exception.TokenValidationException;
+import com.homeless.chatservice.common.ratelimit.ChatRateLimiter;
 import com.homeless.chatservice.dto.*;
 import com.homeless.chatservice.entity.ChatMessage;
 import com.homeless.chatservice.dto.MessageDto;
+import com.homeless.chatservice.service.ChannelSummaryService;
 import com.homeless.chatservice.service.ChatHttpService;
+import com.homeless.chatservice.service.ChatSignalService;
 import com.homeless.chatservice.service.DtoBuilder;
 import com.homeless.chatservice.service.StompMessageService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,10 +20,12 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.security.Principal;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -34,8 +39,12 @@ public class WebSocketController {
     private final SimpMessagingTemplate simpMessagingTemplate;
     private final JwtUtils jwtUtils;
     private final DtoBuilder dtoBuilder;
+    private final ChatRateLimiter rateLimiter;
+    private final ChatSignalService chatSignalService;
+    private final ChannelSummaryService channelSummaryService;
 
     private final String CHAT_DESTINATION = "/topic/chat.channel.";
+    private final String ERROR_DESTINATION = "/queue/errors";
 
     @MessageMapping("chat.message.{channelId}")
     @Operation(summary = "메시지 전송", description = "메시지를 전송합니다.")
@@ -55,10 +64,19 @@ public class WebSocketController {
             String userEmail = jwtUtils.getEmailFromToken(tokenWithoutBearer);
             log.info("Authenticated user: {} for channel: {}", userEmail, channelId);
 
+            // 전송 속도 제한 (저장/전송 전에 확인)
+            ChatRateLimiter.Decision decision = rateLimiter.tryAcquire(userEmail, channelId);
+            if (!decision.allowed()) {
+                rejectThrottled(userEmail, channelId, decision);
+                return;
+            }
+
             // 메시지 저장 및 DTO 변환
-            String chatId = dtoBuilder.saveChatMessage(channelId, chatReqDto);
-            MessageDto messageDto = dtoBuilder.buildMessageDto(chatId, channelId, chatReqDto);
-            log.info("Message saved with ID: {} for channel: {}", chatId, channelId);
+            MessageDto messageDto = dtoBuilder.saveAndBuildMessageDto(channelId, chatReqDto);
+            log.info("Message saved with ID: {} (seq {}) for channel: {}", messageDto.getChatId(), messageDto.getSeq(), channelId);
+
+            // 채널 목록 요약(마지막 메시지, 안 읽은 수) 갱신
+            channelSummaryService.onMessage(chatReqDto.serverId(), messageDto);
 
             // 메시지 전송
             messageService.sendMessageFromRabbitMQ(messageDto);
@@ -83,6 +101,35 @@ public class WebSocketController {
         }
     }
 
+    // 제한에 걸린 사용자에게만 에러 프레임 전송 (채널 구독자에게는 보내지 않음)
+    private void rejectThrottled(String userEmail, String channelId, ChatRateLimiter.Decision decision) {
+        log.warn("Rate limited user: {} on channel: {} (scope: {}, retry after {}ms)",
+                userEmail, channelId, decision.scope(), decision.retryAfterMs());
+        Map<String, Object> errorResult = new HashMap<>();
+        errorResult.put("status", "error");
+        errorResult.put("message", "Too many messages");
+        errorResult.put("channelId", channelId);
+        errorResult.put("scope", decision.scope());
+        errorResult.put("retryAfterMs", decision.retryAfterMs());
+        simpMessagingTemplate.convertAndSendToUser(userEmail, ERROR_DESTINATION, errorResult,
+                Map.of("retry-after-ms", String.valueOf(decision.retryAfterMs())));
+    }
+
+    // 타이핑/접속 신호는 저장하지 않고 tick 단위로 모아서 /topic/chat.signal.{channelId} 로 전송
+    // 인증은 StompInterceptor 가 SEND 프레임에서 처리하고 사용자를 세션에 넣어 둔다.
+    @MessageMapping("chat.signal.{channelId}")
+    @Operation(summary = "채널 신호 전송", description = "타이핑/접속 상태를 전송합니다.")
+    public void sendSignal(@DestinationVariable String channelId,
+                           @Payload ChatSignalRequest signalRequest,
+                           Principal principal,
+                           SimpMessageHeaderAccessor headerAccessor) {
+        if (principal == null || signalRequest.type() == null) {
+            return;
+        }
+        chatSignalService.submit(headerAccessor.getSessionId(), channelId, principal.getName(),
+                signalRequest.writer(), signalRequest.type());
+    }
+
     @MessageMapping("chat.message.delete.{channelId}")
     @SendTo("/exchange/chat.exchange/chat.channel.{channelId}")
     @Transactional
@@ -113,7 +160,9 @@ public class WebSocketController {
                     result.put("status", "success");
                     result.put("message", "Message deleted: 메시지 삭제됨.");
                     result.put("deletedChatId", chatId);
-                    simpMessagingTemplate.convertAndSend(CHAT_DESTINATION + channelId, result);
+                    if (!messageService.broadcastsFromChangeStream()) {
+                        messageService.sendControl(CHAT_DESTINATION + channelId, result);
+                    }
                 } else {
                     log.warn("User does not have permission to delete message: {}", chatId);
                     Map<String, Object> errorResult = new HashMap<>();
@@ -173,7 +222,9 @@ public class WebSocketController {
 
                     CommonResDto<Object> commonResDto = new CommonResDto<>(HttpStatus.OK, "Message updated successfully", result);
 
-                    simpMessagingTemplate.convertAndSend(CHAT_DESTINATION + channelId, commonResDto);
+                    if (!messageService.broadcastsFromChangeStream()) {
+                        messageService.sendControl(CHAT_DESTINATION + channelId, commonResDto);
+                    }
                 } else {
                     log.warn("User does not have permission to update message: {}", dto.getChatId());
                     // 권한 없을 때 에러 응답
@@ -0,0 +1,16 @@
+package com.homeless.chatservice.dto;
+
+import lombok.Builder;
+
+// 채널 목록 한 줄: 마지막 메시지 미리보기와 안 읽은 메시지 수
+@Builder
+public record ChannelSummaryResponse(String channelId,
+                                     String lastChatId,
+                                     long lastSeq,
+                                     String writer,
+                                     String preview,
+                                     MessageType messageType,
+                                     Long timestamp,
+                                     long lastReadSeq,
+                                     long unreadCount) {
+}
@@ -12,6 +12,13 @@ public record ChatMessageCreateCommand(String serverId,
                                        String content,
                                        MessageType messageType,
                                        String fileUrl,
-                                       String fileName) {
+                                       String fileName,
+                                       Long seq,
+                                       ChannelType channelType) {
 
+    // 순번 없이 생성 (HTTP 경로 등)
+    public ChatMessageCreateCommand(String serverId, String channelId, String email, String writer, String content,
+                                    MessageType messageType, String fileUrl, String fileName) {
+        this(serverId, channelId, email, writer, content, messageType, fileUrl, fileName, null, null);
+    }
 }
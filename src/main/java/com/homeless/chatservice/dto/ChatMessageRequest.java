@@ -11,7 +11,9 @@ public record ChatMessageRequest(String serverId,
                                  String content,
                                  MessageType messageType,
                                  String fileUrl,
-                                 String fileName) {
+                                 String fileName,
+                                 // 보관 기간 정책 적용용 (없으면 기본 정책)
+                                 ChannelType channelType) {
 
 }
 
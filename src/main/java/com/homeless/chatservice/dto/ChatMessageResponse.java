@@ -9,6 +9,9 @@ public record ChatMessageResponse(String id,
                                   String content,
                                   String writer,
                                   Long timestamp,
+                                  Long seq,
                                   String fileUrl,
-                                  String fileName) {
+                                  String fileName,
+                                  ImageVariant thumbnail,
+                                  ImageVariant preview) {
 }
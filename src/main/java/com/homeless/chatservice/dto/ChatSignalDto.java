@@ -0,0 +1,11 @@
+package com.homeless.chatservice.dto;
+
+import java.util.List;
+
+// 한 틱 동안 모인 채널 신호 (서버 -> 클라이언트, /topic/chat.signal.{channelId})
+// 사용자마다 마지막 신호 하나만 담는다.
+public record ChatSignalDto(String channelId, List<UserSignal> signals) {
+
+    public record UserSignal(String email, String writer, SignalType type) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.homeless.chatservice.dto;
+
+// 타이핑/접속 신호 요청 (클라이언트 -> 서버)
+public record ChatSignalRequest(SignalType type, String writer) {
+}
@@ -0,0 +1,19 @@
+package com.homeless.chatservice.dto;
+
+import java.util.List;
+
+// 구독 시점에 한 번 보내는 이력 프레임 (messages 는 순번 오름차순)
+// REPLAY: last-seq 이후 놓친 메시지, lastSeq 는 이 프레임에 포함된 마지막 순번
+// SNAPSHOT: 최근 N개 메시지, lastSeq 는 스냅샷에 담긴 마지막 순번. 클라이언트는 seq 가 lastSeq 이하인 라이브 메시지를 버린다.
+// truncated 가 true 이면 놓친 메시지가 너무 많아 일부만 담겼으므로 HTTP 조회로 이어서 가져와야 한다.
+// 이력 프레임은 구독이 브로커에 등록된 뒤에 만들어지므로 라이브 메시지가 먼저 도착할 수 있고,
+// relay 모드에서는 lastSeq 이후 메시지를 REPLAY 로 한 번 더 받을 수 있다. 클라이언트는 seq 로 정렬/중복 제거해서 합친다.
+public record HistoryFrameDto(String type,
+                              String channelId,
+                              long lastSeq,
+                              boolean truncated,
+                              List<MessageDto> messages) {
+
+    public static final String REPLAY = "REPLAY";
+    public static final String SNAPSHOT = "SNAPSHOT";
+}
@@ -0,0 +1,9 @@
+package com.homeless.chatservice.dto;
+
+// 이미지 첨부파일에서 생성한 파생 이미지(썸네일, 미리보기) 정보
+// url과 함께 가로/세로 크기를 내려줘서 클라이언트가 원본 없이 레이아웃을 잡을 수 있게 한다.
+public record ImageVariant(String url,
+                           int width,
+                           int height) {
+
+}
@@ -0,0 +1,10 @@
+package com.homeless.chatservice.dto;
+
+import java.util.List;
+import java.util.Map;
+
+// 여러 채널 최신 메시지 일괄 조회 결과 (채널 순서 유지)
+// 채널이 한 페이지(chat.history.bulk.max-channels)보다 많으면 nextPage 로 이어서 조회한다. 마지막 페이지면 null
+public record LatestMessagesResponse(Map<String, List<ChatMessageResponse>> channels,
+                                     Integer nextPage) {
+}
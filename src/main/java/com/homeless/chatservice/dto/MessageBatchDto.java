@@ -0,0 +1,14 @@
+package com.homeless.chatservice.dto;
+
+import java.util.List;
+
+// 바쁜 채널에서 짧은 구간 동안 모인 메시지를 한 프레임으로 보내는 묶음
+// 클라이언트는 type 이 BATCH 이면 messages 를 순서대로 처리한다.
+public record MessageBatchDto(String type, String channelId, List<MessageDto> messages) {
+
+    public static final String TYPE = "BATCH";
+
+    public static MessageBatchDto of(String channelId, List<MessageDto> messages) {
+        return new MessageBatchDto(TYPE, channelId, messages);
+    }
+}
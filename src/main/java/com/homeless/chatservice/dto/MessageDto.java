@@ -26,7 +26,12 @@ public class MessageDto {
     private ChannelType channelType;
     @NotNull
     private MessageType messageType;
+    // 채널 내 순번
+    private Long seq;
 
     private String fileUrl;
     private String fileName;
+
+    private ImageVariant thumbnail;
+    private ImageVariant preview;
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.homeless.chatservice.dto;
+
+// 저장하지 않는 일시적인 채널 신호
+public enum SignalType {
+    TYPING,         // 입력 중
+    STOP_TYPING,    // 입력 중단
+    ONLINE,         // 채널 접속 (주기적으로 다시 보내서 presence TTL 연장)
+    OFFLINE         // 채널 이탈
+}
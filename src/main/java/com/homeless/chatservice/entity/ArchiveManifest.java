@@ -0,0 +1,41 @@
+package com.homeless.chatservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+// 보관 세그먼트 하나로 옮기는 메시지 묶음의 기록 (MessageArchiver)
+// 세그먼트를 쓰기 전에 PENDING 으로 남기고, Mongo 원본까지 지운 뒤 ARCHIVED 로 바꾼다.
+// 중간에 멈추면 다음 실행에서 세그먼트가 있으면 원본 삭제를 마저 하고, 없으면 기록만 지운다.
+@Document(collection = "archiveManifests")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveManifest {
+
+    public enum State {
+        PENDING,
+        ARCHIVED
+    }
+
+    // "{channelId}/{segment}"
+    @Id
+    private String id;
+    private String channelId;
+    private String segment;
+    @Indexed
+    private State state;
+    // 지울 원본 (ChatMessageStore.MessageBatch.sourceIds, ARCHIVED 가 되면 비운다)
+    private List<String> sourceIds;
+    private int count;
+    private Long updatedAt;
+
+    public static String idOf(String channelId, String segment) {
+        return channelId + "/" + segment;
+    }
+}
@@ -0,0 +1,24 @@
+package com.homeless.chatservice.entity;
+
+import com.homeless.chatservice.dto.ChannelType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// 보관 정책을 고를 때 쓰는 채널의 서버/종류
+// 메시지에 실린 channelType 은 클라이언트가 보낸 값이므로 쓰지 않고, 채널을 관리하는 서비스가 등록한 값만 믿는다.
+@Document(collection = "channelMetadata")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChannelMetadata {
+
+    @Id
+    private String channelId;
+    // 1:1 채널은 null
+    private String serverId;
+    private ChannelType channelType;
+    private Long updatedAt;
+}
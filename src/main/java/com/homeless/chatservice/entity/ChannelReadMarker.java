@@ -0,0 +1,21 @@
+package com.homeless.chatservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Map;
+
+// 사용자별 채널 읽음 위치 (channelId -> 마지막으로 읽은 seq)
+@Document(collection = "channelReadMarkers")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChannelReadMarker {
+
+    @Id
+    private String email;
+    private Map<String, Long> markers;
+}
@@ -0,0 +1,32 @@
+package com.homeless.chatservice.entity;
+
+import com.homeless.chatservice.dto.MessageType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// 채널 목록 표시용 마지막 메시지 요약 (Redis 가 원본, 주기적으로 Mongo 에 저장)
+@Document(collection = "channelSummaries")
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChannelSummary {
+
+    @Id
+    private String channelId;
+    @Indexed
+    private String serverId;
+    private String lastChatId;
+    private Long lastSeq;
+    private String writer;
+    private String email;
+    // 본문 앞부분 (미리보기)
+    private String preview;
+    private MessageType messageType;
+    private Long timestamp;
+}
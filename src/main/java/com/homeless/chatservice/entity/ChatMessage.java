@@ -1,5 +1,7 @@
 package com.homeless.chatservice.entity;
 
+import com.homeless.chatservice.dto.ChannelType;
+import com.homeless.chatservice.dto.ImageVariant;
 import com.homeless.chatservice.dto.MessageType;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -7,12 +9,19 @@ import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "chatMessages")  // MongoDB 컬렉션 지정
-@CompoundIndex(def = "{'serverId', 'channelId': 1}")
+@CompoundIndexes({
+        @CompoundIndex(def = "{'serverId', 'channelId': 1}"),
+        // 재접속 시 놓친 메시지 조회 (seq 이후)
+        @CompoundIndex(name = "channel_seq", def = "{'channelId': 1, 'seq': 1}"),
+        // 채널별 최신 메시지 조회
+        @CompoundIndex(name = "channel_timestamp", def = "{'channelId': 1, 'timestamp': -1}")
+})
 @Getter
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatMessage {
@@ -34,10 +43,18 @@ public class ChatMessage {
     private MessageType messageType;
     @CreatedDate
     private Long timestamp;
+    // 채널 내 순번 (1부터 증가, 클라이언트가 누락 여부를 판단하는 기준)
+    private Long seq;
+    // 클라이언트가 보낸 채널 종류 (보관 기간 정책은 이 값이 아니라 channelMetadata 를 본다)
+    private ChannelType channelType;
 
     private String fileUrl;
     private String fileName;
 
+    // 이미지 첨부파일의 파생 이미지 (비동기로 생성되므로 비어 있을 수 있음)
+    private ImageVariant thumbnail;
+    private ImageVariant preview;
+
     public void setContent(String reqMessage) {
 
     }
@@ -0,0 +1,46 @@
+package com.homeless.chatservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+// 채널 메시지를 개수/시간 단위로 묶어 저장하는 문서 (chat.storage.layout=BUCKETED)
+// 메시지는 $push 로 뒤에 붙고, 이력 조회는 필요한 묶음만 통째로 읽는다.
+@Document(collection = "chatMessageBuckets")
+@CompoundIndexes({
+        // 최신 묶음부터 조회 (최신 메시지, 새 메시지를 붙일 열린 묶음 찾기)
+        @CompoundIndex(name = "channel_end", def = "{'channelId': 1, 'endTimestamp': -1}"),
+        // 이력 페이지 헤더를 시작 시각 순으로 읽고, 채널 메시지 수를 count 만으로 합산
+        @CompoundIndex(name = "channel_start", def = "{'channelId': 1, 'startTimestamp': -1, 'count': 1}"),
+        // 순번 구간 조회 (재접속 복구, 스냅샷)
+        @CompoundIndex(name = "channel_seq", def = "{'channelId': 1, 'lastSeq': 1}"),
+        // chatId 로 메시지 찾기 (수정/삭제)
+        @CompoundIndex(name = "message_id", def = "{'messages._id': 1}"),
+        @CompoundIndex(name = "message_file", def = "{'messages.fileUrl': 1}", sparse = true),
+        @CompoundIndex(def = "{'serverId': 1, 'channelId': 1}")
+})
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageBucket {
+
+    @Id
+    private String id;
+    private String serverId;
+    private String channelId;
+    private Long startTimestamp;
+    private Long endTimestamp;
+    private Long firstSeq;
+    private Long lastSeq;
+    // messages 크기 (배열 길이를 읽지 않고 페이지 위치를 계산하기 위해 따로 유지)
+    private int count;
+    private List<ChatMessage> messages;
+}
@@ -0,0 +1,33 @@
+package com.homeless.chatservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// 서버/채널 단위 메시지 보관 기간 지정 (채널 > 서버 > 채널 종류 기본값 순으로 적용)
+@Document(collection = "retentionPolicies")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetentionPolicy {
+
+    public enum Scope {
+        SERVER,
+        CHANNEL
+    }
+
+    // "{scope}:{target}"
+    @Id
+    private String id;
+    private Scope scope;
+    private String target;
+    // 0 이하면 영구 보관
+    private int days;
+    private Long updatedAt;
+
+    public static String idOf(Scope scope, String target) {
+        return scope.name() + ":" + target;
+    }
+}
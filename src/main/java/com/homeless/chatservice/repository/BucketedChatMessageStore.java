@@ -0,0 +1,383 @@
+package com.homeless.chatservice.repository;
+
+import com.homeless.chatservice.common.config.MongoConfig;
+import com.homeless.chatservice.dto.ImageVariant;
+import com.homeless.chatservice.entity.ChatMessage;
+import com.homeless.chatservice.entity.ChatMessageBucket;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// 채널 메시지를 chatMessageBuckets 문서에 묶어서 저장하는 방식
+// 채널의 가장 최근 묶음이 max-messages 미만이고 max-span-ms 안에 열린 경우 $push 로 붙이고, 아니면 upsert 로 새 묶음을 만든다.
+// 메시지 문서/인덱스 항목 수가 묶음 크기만큼 줄고, 이력 페이지는 묶음 몇 개만 읽으면 된다.
+// 메시지 id 는 저장 시 직접 발급하므로 chatId 는 기존과 같은 ObjectId 문자열이다.
+// 이력 페이지와 검색은 historyMongoTemplate (기본 secondaryPreferred) 으로 읽는다.
+@Slf4j
+@Repository(ChatMessageStore.HOT)
+@ConditionalOnProperty(name = "chat.storage.layout", havingValue = "BUCKETED")
+public class BucketedChatMessageStore implements ChatMessageStore {
+
+    static final String COLLECTION = "chatMessageBuckets";
+    // 이력 페이지에서 헤더를 한 번에 가져오는 개수
+    private static final int HEADER_BATCH = 20;
+
+    private static final Comparator<ChatMessage> BY_TIMESTAMP_DESC =
+            Comparator.comparing(ChatMessage::getTimestamp, Comparator.nullsLast(Comparator.reverseOrder()));
+    private static final Comparator<ChatMessage> BY_SEQ =
+            Comparator.comparing(ChatMessage::getSeq, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoTemplate historyTemplate;
+
+    @Value("${chat.storage.bucket.max-messages:200}")
+    private int maxMessages;
+
+    @Value("${chat.storage.bucket.max-span-ms:3600000}")
+    private long maxSpanMs;
+
+    @Value("${chat.fanout.mode:DIRECT_RELAY}")
+    private String fanoutMode;
+
+    public BucketedChatMessageStore(MongoTemplate mongoTemplate,
+                                    @Qualifier(MongoConfig.HISTORY_TEMPLATE) MongoTemplate historyTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.historyTemplate = historyTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("Using bucketed message storage (max {} messages or {}ms per bucket)", maxMessages, maxSpanMs);
+        if ("CHANGE_STREAM".equalsIgnoreCase(fanoutMode)) {
+            // 변경 스트림 fan-out 은 chatMessages insert 이벤트를 보고 있으므로 묶음 저장과 함께 쓰면 전송되지 않는다.
+            log.warn("chat.fanout.mode=CHANGE_STREAM watches chatMessages inserts and does not see bucketed messages");
+        }
+    }
+
+    @Override
+    public String save(ChatMessage message) {
+        ChatMessage stored = message.toBuilder()
+                .id(message.getId() != null ? message.getId() : new ObjectId().toHexString())
+                .build();
+        long timestamp = stored.getTimestamp() != null ? stored.getTimestamp() : System.currentTimeMillis();
+
+        // 열린 묶음 조건에 맞는 문서가 없으면 channelId 만 채워진 새 묶음이 만들어진다.
+        Query open = new Query(Criteria.where("channelId").is(stored.getChannelId())
+                .and("count").lt(maxMessages)
+                .and("startTimestamp").gte(timestamp - maxSpanMs));
+        Update update = new Update()
+                .push("messages", stored)
+                .inc("count", 1)
+                .min("startTimestamp", timestamp)
+                .max("endTimestamp", timestamp)
+                .setOnInsert("serverId", stored.getServerId());
+        if (stored.getSeq() != null) {
+            update.min("firstSeq", stored.getSeq()).max("lastSeq", stored.getSeq());
+        }
+        mongoTemplate.upsert(open, update, ChatMessageBucket.class);
+        return stored.getId();
+    }
+
+    @Override
+    public Optional<ChatMessage> findById(String chatId) {
+        ChatMessageBucket bucket = mongoTemplate.findOne(new Query(Criteria.where("messages.id").is(chatId)), ChatMessageBucket.class);
+        if (bucket == null || bucket.getMessages() == null) {
+            return Optional.empty();
+        }
+        return bucket.getMessages().stream().filter(message -> chatId.equals(message.getId())).findFirst();
+    }
+
+    @Override
+    public Page<ChatMessage> findPageByChannelId(String channelId, Pageable pageable) {
+        // 1) 최신 묶음부터 헤더(id, count)를 읽다가 페이지 끝에 닿으면 멈춘다. (채널의 묶음 전체를 읽지 않음)
+        Query headerQuery = new Query(Criteria.where("channelId").is(channelId))
+                .with(Sort.by(Sort.Direction.DESC, "startTimestamp").and(Sort.by(Sort.Direction.DESC, "id")))
+                .cursorBatchSize(HEADER_BATCH);
+        headerQuery.fields().include("count");
+
+        long offset = pageable.getOffset();
+        long end = offset + pageable.getPageSize();
+        long read = 0;
+        long skip = 0;
+        List<String> bucketIds = new ArrayList<>();
+        try (Stream<ChatMessageBucket> headers = historyTemplate.stream(headerQuery, ChatMessageBucket.class)) {
+            var iterator = headers.iterator();
+            while (read < end && iterator.hasNext()) {
+                ChatMessageBucket header = iterator.next();
+                long bucketStart = read;
+                read += header.getCount();
+                if (read <= offset) {
+                    continue;
+                }
+                if (bucketIds.isEmpty()) {
+                    skip = offset - bucketStart;
+                }
+                bucketIds.add(header.getId());
+            }
+        }
+
+        List<ChatMessage> messages = new ArrayList<>();
+        if (!bucketIds.isEmpty()) {
+            // 2) 고른 묶음만 통째로 읽어서 헤더 순서대로 이어 붙인다.
+            Query bucketQuery = new Query(Criteria.where("id").in(bucketIds))
+                    .with(Sort.by(Sort.Direction.DESC, "startTimestamp").and(Sort.by(Sort.Direction.DESC, "id")));
+            for (ChatMessageBucket bucket : historyTemplate.find(bucketQuery, ChatMessageBucket.class)) {
+                messages.addAll(sorted(bucket.getMessages(), BY_TIMESTAMP_DESC));
+            }
+        }
+        int from = (int) Math.min(skip, messages.size());
+        int to = (int) Math.min(from + pageable.getPageSize(), messages.size());
+        // 전체 개수는 마지막 페이지가 아닐 때만 (channelId, startTimestamp, count) 인덱스로 합산한다.
+        return PageableExecutionUtils.getPage(new ArrayList<>(messages.subList(from, to)), pageable,
+                () -> countMessages(channelId));
+    }
+
+    private long countMessages(String channelId) {
+        Document total = historyTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("channelId").is(channelId)),
+                        Aggregation.group().sum("count").as("total")), COLLECTION, Document.class)
+                .getUniqueMappedResult();
+        return total != null ? ((Number) total.get("total")).longValue() : 0;
+    }
+
+    @Override
+    public List<ChatMessage> findLatestByChannelId(String channelId, int limit) {
+        Query query = new Query(Criteria.where("channelId").is(channelId))
+                .with(Sort.by(Sort.Direction.DESC, "endTimestamp"));
+        List<ChatMessage> messages = new ArrayList<>();
+        try (Stream<ChatMessageBucket> buckets = mongoTemplate.stream(query, ChatMessageBucket.class)) {
+            var iterator = buckets.iterator();
+            while (messages.size() < limit && iterator.hasNext()) {
+                messages.addAll(sorted(iterator.next().getMessages(), BY_TIMESTAMP_DESC));
+            }
+        }
+        return messages.size() > limit ? new ArrayList<>(messages.subList(0, limit)) : messages;
+    }
+
+    @Override
+    public List<ChatMessage> findAfterSeq(String channelId, long afterSeq, int limit) {
+        Query query = new Query(Criteria.where("channelId").is(channelId).and("lastSeq").gt(afterSeq))
+                .with(Sort.by(Sort.Direction.ASC, "firstSeq"));
+        List<ChatMessage> messages = new ArrayList<>();
+        try (Stream<ChatMessageBucket> buckets = mongoTemplate.stream(query, ChatMessageBucket.class)) {
+            var iterator = buckets.iterator();
+            while (iterator.hasNext()) {
+                ChatMessageBucket bucket = iterator.next();
+                // 여러 노드가 동시에 묶음을 열면 순번 구간이 겹칠 수 있으므로, 이미 모은 limit 개보다 뒤에서 시작하는 묶음까지만 읽는다.
+                if (messages.size() >= limit && bucket.getFirstSeq() > messages.get(limit - 1).getSeq()) {
+                    break;
+                }
+                for (ChatMessage message : bucket.getMessages()) {
+                    if (message.getSeq() != null && message.getSeq() > afterSeq) {
+                        messages.add(message);
+                    }
+                }
+                messages.sort(BY_SEQ);
+            }
+        }
+        return messages.size() > limit ? new ArrayList<>(messages.subList(0, limit)) : messages;
+    }
+
+    @Override
+    public List<ChatMessage> findUpToSeq(String channelId, long seq, int limit) {
+        Query query = new Query(Criteria.where("channelId").is(channelId).and("firstSeq").lte(seq))
+                .with(Sort.by(Sort.Direction.DESC, "lastSeq"));
+        Comparator<ChatMessage> bySeqDesc = BY_SEQ.reversed();
+        List<ChatMessage> messages = new ArrayList<>();
+        try (Stream<ChatMessageBucket> buckets = mongoTemplate.stream(query, ChatMessageBucket.class)) {
+            var iterator = buckets.iterator();
+            while (iterator.hasNext()) {
+                ChatMessageBucket bucket = iterator.next();
+                if (messages.size() >= limit && bucket.getLastSeq() < messages.get(limit - 1).getSeq()) {
+                    break;
+                }
+                for (ChatMessage message : bucket.getMessages()) {
+                    if (message.getSeq() != null && message.getSeq() <= seq) {
+                        messages.add(message);
+                    }
+                }
+                messages.sort(bySeqDesc);
+            }
+        }
+        return messages.size() > limit ? new ArrayList<>(messages.subList(0, limit)) : messages;
+    }
+
+    @Override
+    public Optional<Long> findMaxSeq(String channelId) {
+        Query query = new Query(Criteria.where("channelId").is(channelId).and("lastSeq").ne(null))
+                .with(Sort.by(Sort.Direction.DESC, "lastSeq"))
+                .limit(1);
+        query.fields().include("lastSeq");
+        return Optional.ofNullable(mongoTemplate.findOne(query, ChatMessageBucket.class)).map(ChatMessageBucket::getLastSeq);
+    }
+
+    @Override
+    public Page<ChatMessage> searchByContent(String channelId, String keyword, Pageable pageable) {
+        return search(channelId, "content", keyword, pageable);
+    }
+
+    @Override
+    public Page<ChatMessage> searchByWriter(String channelId, String keyword, Pageable pageable) {
+        return search(channelId, "writer", keyword, pageable);
+    }
+
+    // 묶음을 풀어서(unwind) 메시지 단위로 검색 (Containing 과 같은 부분 일치)
+    private Page<ChatMessage> search(String channelId, String field, String keyword, Pageable pageable) {
+        String pattern = Pattern.quote(keyword);
+        List<AggregationOperation> filter = List.of(
+                Aggregation.match(Criteria.where("channelId").is(channelId).and("messages." + field).regex(pattern)),
+                Aggregation.unwind("messages"),
+                Aggregation.match(Criteria.where("messages." + field).regex(pattern)),
+                Aggregation.replaceRoot("messages"));
+
+        List<AggregationOperation> countStages = new ArrayList<>(filter);
+        countStages.add(Aggregation.count().as("total"));
+        Document count = historyTemplate.aggregate(Aggregation.newAggregation(countStages), COLLECTION, Document.class)
+                .getUniqueMappedResult();
+        long total = count != null ? ((Number) count.get("total")).longValue() : 0;
+
+        List<AggregationOperation> pageStages = new ArrayList<>(filter);
+        pageStages.add(Aggregation.sort(Sort.Direction.DESC, "timestamp"));
+        pageStages.add(Aggregation.skip(pageable.getOffset()));
+        pageStages.add(Aggregation.limit(pageable.getPageSize()));
+        List<ChatMessage> messages = historyTemplate.aggregate(Aggregation.newAggregation(pageStages), COLLECTION, ChatMessage.class)
+                .getMappedResults();
+        return new PageImpl<>(messages, pageable, total);
+    }
+
+    @Override
+    public List<ChatMessage> findWithFileByChannelId(String channelId) {
+        Query query = new Query(Criteria.where("channelId").is(channelId).and("messages.fileUrl").ne(null));
+        List<ChatMessage> messages = new ArrayList<>();
+        try (Stream<ChatMessageBucket> buckets = mongoTemplate.stream(query, ChatMessageBucket.class)) {
+            buckets.forEach(bucket -> bucket.getMessages().stream()
+                    .filter(message -> message.getFileUrl() != null)
+                    .forEach(messages::add));
+        }
+        return messages;
+    }
+
+    @Override
+    public List<String> findChannelIdsByServerId(String serverId) {
+        return mongoTemplate.findDistinct(new Query(Criteria.where("serverId").is(serverId)), "channelId",
+                ChatMessageBucket.class, String.class);
+    }
+
+    @Override
+    public void updateContent(String chatId, String content) {
+        Query query = new Query(Criteria.where("messages.id").is(chatId));
+        var result = mongoTemplate.updateFirst(query, new Update().set("messages.$.content", content), ChatMessageBucket.class);
+        if (result.getMatchedCount() == 0) {
+            throw new IllegalArgumentException("Message not found for the given chatId.");
+        }
+    }
+
+    // 같은 파일을 가진 모든 묶음의 해당 메시지에 파생 이미지 정보를 채운다. (반환값은 갱신된 묶음 수)
+    @Override
+    public long updateImageVariants(String fileUrl, ImageVariant thumbnail, ImageVariant preview) {
+        Update update = new Update()
+                .set("messages.$[m].thumbnail", thumbnail)
+                .set("messages.$[m].preview", preview)
+                .filterArray(Criteria.where("m.fileUrl").is(fileUrl));
+        return mongoTemplate.updateMulti(new Query(Criteria.where("messages.fileUrl").is(fileUrl)), update, ChatMessageBucket.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public void deleteById(String chatId) {
+        // 메시지가 있는 묶음만 매칭되므로 count 는 정확히 하나 줄어든다.
+        // 묶음 안의 메시지 _id 도 최상위 문서처럼 ObjectId 로 저장되므로 같은 타입으로 비교한다.
+        Query query = new Query(Criteria.where("messages.id").is(chatId));
+        Update update = new Update()
+                .pull("messages", new Document("_id", ObjectId.isValid(chatId) ? new ObjectId(chatId) : chatId))
+                .inc("count", -1);
+        mongoTemplate.updateFirst(query, update, ChatMessageBucket.class);
+    }
+
+    @Override
+    public void deleteByChannelId(String channelId) {
+        mongoTemplate.remove(new Query(Criteria.where("channelId").is(channelId)), ChatMessageBucket.class);
+    }
+
+    @Override
+    public List<String> findChannelIdsWithMessagesBefore(long before) {
+        return mongoTemplate.findDistinct(new Query(Criteria.where("endTimestamp").lt(before)), "channelId",
+                ChatMessageBucket.class, String.class);
+    }
+
+    @Override
+    public List<String> findChannelIdsAfter(String afterChannelId, int limit) {
+        // (channelId, endTimestamp) 인덱스에서 다음 channelId 하나씩만 찾는다
+        List<String> channelIds = new ArrayList<>();
+        String cursor = afterChannelId != null ? afterChannelId : "";
+        while (channelIds.size() < limit) {
+            Query query = new Query(Criteria.where("channelId").gt(cursor))
+                    .with(Sort.by(Sort.Direction.ASC, "channelId"))
+                    .limit(1);
+            query.fields().include("channelId");
+            ChatMessageBucket next = mongoTemplate.findOne(query, ChatMessageBucket.class);
+            if (next == null) {
+                break;
+            }
+            cursor = next.getChannelId();
+            channelIds.add(cursor);
+        }
+        return channelIds;
+    }
+
+    // 묶음 단위로 옮긴다 (묶음의 마지막 메시지까지 before 보다 오래된 경우만)
+    @Override
+    public MessageBatch findOldest(String channelId, long before, int limit) {
+        Query query = new Query(Criteria.where("channelId").is(channelId).and("endTimestamp").lt(before))
+                .with(Sort.by(Sort.Direction.ASC, "endTimestamp"));
+        List<ChatMessage> messages = new ArrayList<>();
+        List<String> bucketIds = new ArrayList<>();
+        try (Stream<ChatMessageBucket> buckets = mongoTemplate.stream(query, ChatMessageBucket.class)) {
+            var iterator = buckets.iterator();
+            while (messages.size() < limit && iterator.hasNext()) {
+                ChatMessageBucket bucket = iterator.next();
+                messages.addAll(bucket.getMessages() != null ? bucket.getMessages() : List.of());
+                bucketIds.add(bucket.getId());
+            }
+        }
+        messages.sort(Comparator.comparing(ChatMessage::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return new MessageBatch(channelId, messages, bucketIds);
+    }
+
+    @Override
+    public void deleteBatch(MessageBatch batch) {
+        mongoTemplate.remove(new Query(Criteria.where("id").in(batch.sourceIds())), ChatMessageBucket.class);
+    }
+
+    private static List<ChatMessage> sorted(List<ChatMessage> messages, Comparator<ChatMessage> order) {
+        if (messages == null) {
+            return List.of();
+        }
+        List<ChatMessage> copy = new ArrayList<>(messages);
+        copy.sort(order);
+        return copy;
+    }
+}
@@ -1,6 +1,27 @@
 package com.homeless.chatservice.repository;
 
+import com.homeless.chatservice.dto.ImageVariant;
+import com.homeless.chatservice.entity.ChatMessage;
+
+import java.util.List;
 
 public interface ChatMessageCustomRepository {
     void updateContent(String id, String content);
+
+    // 같은 파일 url을 가진 메시지들에 파생 이미지 정보를 채워 넣음
+    long updateImageVariants(String fileUrl, ImageVariant thumbnail, ImageVariant preview);
+
+    // 채널의 최신 메시지 limit 개 (count 쿼리 없이)
+    List<ChatMessage> findLatestByChannelId(String channelId, int limit);
+
+    // 서버에 메시지가 있는 채널 목록
+    List<String> findChannelIdsByServerId(String serverId);
+
+    // before 보다 오래된 메시지를 오래된 순으로 limit 개
+    List<ChatMessage> findOldestBefore(String channelId, long before, int limit);
+
+    List<String> findChannelIdsWithMessagesBefore(long before);
+
+    // afterChannelId 다음 채널 limit 개 (channelId 순)
+    List<String> findChannelIdsAfter(String afterChannelId, int limit);
 }
@@ -1,15 +1,20 @@
 package com.homeless.chatservice.repository;
 
+import com.homeless.chatservice.dto.ImageVariant;
 import com.homeless.chatservice.entity.ChatMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Repository
 @RequiredArgsConstructor
 public class ChatMessageCustomRepositoryImpl implements ChatMessageCustomRepository {
@@ -34,4 +39,66 @@ public class ChatMessageCustomRepositoryImpl implements ChatMessageCustomReposit
         }
     }
 
+    @Override
+    public long updateImageVariants(String fileUrl, ImageVariant thumbnail, ImageVariant preview) {
+        Query query = new Query(Criteria.where("fileUrl").is(fileUrl));
+
+        Update update = new Update();
+        update.set("thumbnail", thumbnail);
+        update.set("preview", preview);
+
+        // 썸네일 생성 전에 이미 저장된 메시지가 여러 개일 수 있으므로 모두 갱신
+        return mongoTemplate.updateMulti(query, update, ChatMessage.class).getModifiedCount();
+    }
+
+    @Override
+    public List<ChatMessage> findLatestByChannelId(String channelId, int limit) {
+        // (channelId, timestamp) 인덱스를 따라 limit 개만 읽는다.
+        Query query = new Query(Criteria.where("channelId").is(channelId))
+                .with(Sort.by(Sort.Direction.DESC, "timestamp"))
+                .limit(limit);
+        return mongoTemplate.find(query, ChatMessage.class);
+    }
+
+    @Override
+    public List<String> findChannelIdsByServerId(String serverId) {
+        // (serverId, channelId) 인덱스로 distinct 처리
+        Query query = new Query(Criteria.where("serverId").is(serverId));
+        return mongoTemplate.findDistinct(query, "channelId", ChatMessage.class, String.class);
+    }
+
+    @Override
+    public List<ChatMessage> findOldestBefore(String channelId, long before, int limit) {
+        Query query = new Query(Criteria.where("channelId").is(channelId).and("timestamp").lt(before))
+                .with(Sort.by(Sort.Direction.ASC, "timestamp"))
+                .limit(limit);
+        return mongoTemplate.find(query, ChatMessage.class);
+    }
+
+    @Override
+    public List<String> findChannelIdsWithMessagesBefore(long before) {
+        // timestamp 단독 인덱스가 없으므로 전체 채널 목록을 (channelId 인덱스로) 돌려주고, 채널별 조회에서 걸러낸다.
+        return mongoTemplate.findDistinct(new Query(), "channelId", ChatMessage.class, String.class);
+    }
+
+    @Override
+    public List<String> findChannelIdsAfter(String afterChannelId, int limit) {
+        // (channelId, timestamp) 인덱스에서 다음 channelId 하나씩만 찾는다 (distinct 로 전체를 훑지 않음)
+        List<String> channelIds = new ArrayList<>();
+        String cursor = afterChannelId != null ? afterChannelId : "";
+        while (channelIds.size() < limit) {
+            Query query = new Query(Criteria.where("channelId").gt(cursor))
+                    .with(Sort.by(Sort.Direction.ASC, "channelId"))
+                    .limit(1);
+            query.fields().include("channelId");
+            ChatMessage next = mongoTemplate.findOne(query, ChatMessage.class);
+            if (next == null) {
+                break;
+            }
+            cursor = next.getChannelId();
+            channelIds.add(cursor);
+        }
+        return channelIds;
+    }
+
 }
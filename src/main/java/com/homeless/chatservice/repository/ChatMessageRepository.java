@@ -2,7 +2,6 @@ package com.homeless.chatservice.repository;
 
 
 import com.homeless.chatservice.entity.ChatMessage;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
@@ -15,13 +14,15 @@ public interface ChatMessageRepository extends MongoRepository<ChatMessage, Stri
 
     void deleteChatMessageByChannelId(String channelId);
 
-    Page<ChatMessage> findByChannelIdOrderByTimestampDesc(String channelId, Pageable pageable);
+    List<ChatMessage> findByChannelIdAndFileUrlIsNotNull(String channelId);
 
-    Page<ChatMessage> findByChannelIdAndContentContainingOrderByTimestampDesc(String channelId, String content, Pageable pageable);
+    // 재접속 복구: lastSeq 이후 메시지를 순번 순으로
+    List<ChatMessage> findByChannelIdAndSeqGreaterThanOrderBySeqAsc(String channelId, Long seq, Pageable pageable);
 
-    Page<ChatMessage> findByChannelIdAndWriterContainingOrderByTimestampDesc(String channelId, String keyword, Pageable pageable);
+    Optional<ChatMessage> findFirstByChannelIdOrderBySeqDesc(String channelId);
 
-    List<ChatMessage> findByChannelIdAndFileUrlIsNotNull(String channelId);
+    // 구독 스냅샷: 스냅샷 시점 순번 이하의 최근 메시지
+    List<ChatMessage> findByChannelIdAndSeqLessThanEqualOrderBySeqDesc(String channelId, Long seq, Pageable pageable);
 
 
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.homeless.chatservice.repository;
+
+import com.homeless.chatservice.dto.ImageVariant;
+import com.homeless.chatservice.entity.ChatMessage;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+// 메시지 저장소. chat.storage.layout 에 따라 메시지당 문서(DOCUMENT) 또는 채널별 묶음 문서(BUCKETED)를 사용한다.
+// 보관 계층(chat.archive.enabled)을 켜면 이 저장소(HOT)를 감싼 저장소가 기본으로 주입된다.
+public interface ChatMessageStore {
+
+    String HOT = "hotChatMessageStore";
+
+    // 보관/만료 처리할 오래된 메시지 (시각 오름차순)와 처리 후 지울 원본 문서 id
+    record MessageBatch(String channelId, List<ChatMessage> messages, List<String> sourceIds) {
+
+        public boolean isEmpty() {
+            return messages.isEmpty();
+        }
+    }
+
+    // 저장 후 chatId 반환
+    String save(ChatMessage message);
+
+    Optional<ChatMessage> findById(String chatId);
+
+    // 최신순 페이지
+    Page<ChatMessage> findPageByChannelId(String channelId, Pageable pageable);
+
+    // 최신 limit 개 (최신순, count 없이)
+    List<ChatMessage> findLatestByChannelId(String channelId, int limit);
+
+    // afterSeq 이후 메시지 limit 개 (순번 오름차순)
+    List<ChatMessage> findAfterSeq(String channelId, long afterSeq, int limit);
+
+    // seq 이하 최근 메시지 limit 개 (순번 내림차순)
+    List<ChatMessage> findUpToSeq(String channelId, long seq, int limit);
+
+    Optional<Long> findMaxSeq(String channelId);
+
+    Page<ChatMessage> searchByContent(String channelId, String keyword, Pageable pageable);
+
+    Page<ChatMessage> searchByWriter(String channelId, String keyword, Pageable pageable);
+
+    List<ChatMessage> findWithFileByChannelId(String channelId);
+
+    List<String> findChannelIdsByServerId(String serverId);
+
+    void updateContent(String chatId, String content);
+
+    long updateImageVariants(String fileUrl, ImageVariant thumbnail, ImageVariant preview);
+
+    void deleteById(String chatId);
+
+    void deleteByChannelId(String channelId);
+
+    // before 보다 오래된 메시지가 있을 수 있는 채널 (후보이므로 없는 채널이 섞일 수 있다)
+    List<String> findChannelIdsWithMessagesBefore(long before);
+
+    // afterChannelId (null 이면 처음) 다음 채널을 channelId 순으로 limit 개
+    // channelId 인덱스를 채널마다 한 번씩 건너뛰며 읽으므로 메시지 수와 상관없이 limit 번의 짧은 조회로 끝난다.
+    List<String> findChannelIdsAfter(String afterChannelId, int limit);
+
+    // before 보다 오래된 메시지를 오래된 순으로 약 limit 개
+    MessageBatch findOldest(String channelId, long before, int limit);
+
+    void deleteBatch(MessageBatch batch);
+}
@@ -0,0 +1,139 @@
+package com.homeless.chatservice.repository;
+
+import com.homeless.chatservice.common.config.MongoConfig;
+import com.homeless.chatservice.dto.ImageVariant;
+import com.homeless.chatservice.entity.ChatMessage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// 메시지 하나를 chatMessages 문서 하나로 저장하는 기본 방식
+// 이력 페이지와 검색은 historyMongoTemplate (기본 secondaryPreferred) 으로 읽는다.
+@Repository(ChatMessageStore.HOT)
+@ConditionalOnProperty(name = "chat.storage.layout", havingValue = "DOCUMENT", matchIfMissing = true)
+public class DocumentChatMessageStore implements ChatMessageStore {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final MongoTemplate historyTemplate;
+
+    public DocumentChatMessageStore(ChatMessageRepository chatMessageRepository,
+                                    @Qualifier(MongoConfig.HISTORY_TEMPLATE) MongoTemplate historyTemplate) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.historyTemplate = historyTemplate;
+    }
+
+    @Override
+    public String save(ChatMessage message) {
+        return chatMessageRepository.save(message).getId();
+    }
+
+    @Override
+    public Optional<ChatMessage> findById(String chatId) {
+        return chatMessageRepository.findById(chatId);
+    }
+
+    @Override
+    public Page<ChatMessage> findPageByChannelId(String channelId, Pageable pageable) {
+        return findHistoryPage(Criteria.where("channelId").is(channelId), pageable);
+    }
+
+    @Override
+    public List<ChatMessage> findLatestByChannelId(String channelId, int limit) {
+        return chatMessageRepository.findLatestByChannelId(channelId, limit);
+    }
+
+    @Override
+    public List<ChatMessage> findAfterSeq(String channelId, long afterSeq, int limit) {
+        return chatMessageRepository.findByChannelIdAndSeqGreaterThanOrderBySeqAsc(channelId, afterSeq, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<ChatMessage> findUpToSeq(String channelId, long seq, int limit) {
+        return chatMessageRepository.findByChannelIdAndSeqLessThanEqualOrderBySeqDesc(channelId, seq, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public Optional<Long> findMaxSeq(String channelId) {
+        return chatMessageRepository.findFirstByChannelIdOrderBySeqDesc(channelId).map(ChatMessage::getSeq);
+    }
+
+    @Override
+    public Page<ChatMessage> searchByContent(String channelId, String keyword, Pageable pageable) {
+        return findHistoryPage(Criteria.where("channelId").is(channelId).and("content").regex(Pattern.quote(keyword)), pageable);
+    }
+
+    @Override
+    public Page<ChatMessage> searchByWriter(String channelId, String keyword, Pageable pageable) {
+        return findHistoryPage(Criteria.where("channelId").is(channelId).and("writer").regex(Pattern.quote(keyword)), pageable);
+    }
+
+    @Override
+    public List<ChatMessage> findWithFileByChannelId(String channelId) {
+        return chatMessageRepository.findByChannelIdAndFileUrlIsNotNull(channelId);
+    }
+
+    @Override
+    public List<String> findChannelIdsByServerId(String serverId) {
+        return chatMessageRepository.findChannelIdsByServerId(serverId);
+    }
+
+    @Override
+    public void updateContent(String chatId, String content) {
+        chatMessageRepository.updateContent(chatId, content);
+    }
+
+    @Override
+    public long updateImageVariants(String fileUrl, ImageVariant thumbnail, ImageVariant preview) {
+        return chatMessageRepository.updateImageVariants(fileUrl, thumbnail, preview);
+    }
+
+    @Override
+    public void deleteById(String chatId) {
+        chatMessageRepository.deleteById(chatId);
+    }
+
+    @Override
+    public void deleteByChannelId(String channelId) {
+        chatMessageRepository.deleteChatMessageByChannelId(channelId);
+    }
+
+    @Override
+    public List<String> findChannelIdsWithMessagesBefore(long before) {
+        return chatMessageRepository.findChannelIdsWithMessagesBefore(before);
+    }
+
+    @Override
+    public List<String> findChannelIdsAfter(String afterChannelId, int limit) {
+        return chatMessageRepository.findChannelIdsAfter(afterChannelId, limit);
+    }
+
+    @Override
+    public MessageBatch findOldest(String channelId, long before, int limit) {
+        List<ChatMessage> messages = chatMessageRepository.findOldestBefore(channelId, before, limit);
+        return new MessageBatch(channelId, messages, messages.stream().map(ChatMessage::getId).toList());
+    }
+
+    @Override
+    public void deleteBatch(MessageBatch batch) {
+        chatMessageRepository.deleteAllById(batch.sourceIds());
+    }
+
+    // 최신순 페이지. 첫 페이지가 size 보다 적게 채워지면 count 를 생략한다.
+    private Page<ChatMessage> findHistoryPage(Criteria criteria, Pageable pageable) {
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.DESC, "timestamp"));
+        List<ChatMessage> messages = historyTemplate.find(Query.of(query).with(pageable), ChatMessage.class);
+        return PageableExecutionUtils.getPage(messages, pageable, () -> historyTemplate.count(query, ChatMessage.class));
+    }
+}
@@ -0,0 +1,229 @@
+package com.homeless.chatservice.repository.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.Zstd;
+import com.homeless.chatservice.entity.ChatMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// 보관 세그먼트 하나 (불변)
+// .seg: 메시지 block-messages 개씩 JSON 줄로 이어 붙여 zstd 로 압축한 블록들
+// .idx: 블록마다 (시각 범위, 순번 범위, 위치, 크기, 개수) 고정 길이 항목을 가진 희소 인덱스. 메모리 매핑으로 읽는다.
+// 세그먼트 안의 메시지는 시각 오름차순이다.
+public final class ArchiveSegment {
+
+    static final String DATA_SUFFIX = ".seg";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x43484152; // "CHAR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    // firstTs, lastTs, firstSeq, lastSeq, offset (long x5) + compressed, raw, count, reserved (int x4)
+    private static final int ENTRY_BYTES = 56;
+
+    private final Path dataPath;
+    private final Path indexPath;
+    private final MappedByteBuffer index;
+    private final int blocks;
+    private final int count;
+
+    private ArchiveSegment(Path indexPath, MappedByteBuffer index) {
+        this.indexPath = indexPath;
+        this.dataPath = siblingPath(indexPath, DATA_SUFFIX);
+        this.index = index;
+        this.blocks = index.getInt(8);
+        int total = 0;
+        for (int i = 0; i < blocks; i++) {
+            total += index.getInt(entry(i) + 48);
+        }
+        this.count = total;
+    }
+
+    public static ArchiveSegment open(Path indexPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            index.order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() < HEADER_BYTES || index.getInt(0) != MAGIC || index.getInt(4) != VERSION
+                    || channel.size() < HEADER_BYTES + (long) index.getInt(8) * ENTRY_BYTES) {
+                throw new IOException("Not an archive segment index: " + indexPath);
+            }
+            return new ArchiveSegment(indexPath, index);
+        }
+    }
+
+    // 새 세그먼트 이름 (첫 시각-마지막 시각-임의값)
+    static String newName(List<ChatMessage> messages) {
+        return messages.get(0).getTimestamp() + "-" + messages.get(messages.size() - 1).getTimestamp()
+                + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    // 메시지(시각 오름차순)를 name 세그먼트로 기록. 임시 파일에 쓴 뒤 이름을 바꾸고, .idx 가 마지막에 생기므로
+    // .idx 가 보이는 세그먼트는 항상 완전하다.
+    static ArchiveSegment write(Path directory, String name, List<ChatMessage> messages, ObjectMapper mapper,
+                                int blockMessages, int level) throws IOException {
+        Files.createDirectories(directory);
+        Path dataPath = directory.resolve(name + DATA_SUFFIX);
+        Path indexPath = directory.resolve(name + INDEX_SUFFIX);
+        Path dataTmp = directory.resolve(name + DATA_SUFFIX + ".tmp");
+        Path indexTmp = directory.resolve(name + INDEX_SUFFIX + ".tmp");
+
+        int blockCount = (messages.size() + blockMessages - 1) / blockMessages;
+        ByteBuffer indexBuffer = ByteBuffer.allocate(HEADER_BYTES + blockCount * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        indexBuffer.putInt(MAGIC).putInt(VERSION).putInt(blockCount).putInt(0);
+
+        try (FileChannel data = FileChannel.open(dataTmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long offset = 0;
+            for (int from = 0; from < messages.size(); from += blockMessages) {
+                List<ChatMessage> block = messages.subList(from, Math.min(from + blockMessages, messages.size()));
+                ByteArrayOutputStream raw = new ByteArrayOutputStream();
+                for (ChatMessage message : block) {
+                    raw.write(mapper.writeValueAsBytes(message));
+                    raw.write('\n');
+                }
+                byte[] compressed = Zstd.compress(raw.toByteArray(), level);
+                ByteBuffer out = ByteBuffer.wrap(compressed);
+                while (out.hasRemaining()) {
+                    data.write(out);
+                }
+
+                long firstSeq = 0;
+                long lastSeq = 0;
+                for (ChatMessage message : block) {
+                    if (message.getSeq() != null) {
+                        firstSeq = firstSeq == 0 ? message.getSeq() : Math.min(firstSeq, message.getSeq());
+                        lastSeq = Math.max(lastSeq, message.getSeq());
+                    }
+                }
+                indexBuffer.putLong(block.get(0).getTimestamp())
+                        .putLong(block.get(block.size() - 1).getTimestamp())
+                        .putLong(firstSeq)
+                        .putLong(lastSeq)
+                        .putLong(offset)
+                        .putInt(compressed.length)
+                        .putInt(raw.size())
+                        .putInt(block.size())
+                        .putInt(0);
+                offset += compressed.length;
+            }
+            data.force(true);
+        }
+        indexBuffer.flip();
+        try (FileChannel index = FileChannel.open(indexTmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (indexBuffer.hasRemaining()) {
+                index.write(indexBuffer);
+            }
+            index.force(true);
+        }
+        Files.move(dataTmp, dataPath, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTmp, indexPath, StandardCopyOption.ATOMIC_MOVE);
+        return open(indexPath);
+    }
+
+    public int blocks() {
+        return blocks;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int blockCount(int block) {
+        return index.getInt(entry(block) + 48);
+    }
+
+    public long firstTimestamp() {
+        return blocks == 0 ? 0 : index.getLong(entry(0));
+    }
+
+    public long lastTimestamp() {
+        return blocks == 0 ? 0 : index.getLong(entry(blocks - 1) + 8);
+    }
+
+    public long blockFirstSeq(int block) {
+        return index.getLong(entry(block) + 16);
+    }
+
+    public long blockLastSeq(int block) {
+        return index.getLong(entry(block) + 24);
+    }
+
+    public long lastSeq() {
+        long last = 0;
+        for (int i = 0; i < blocks; i++) {
+            last = Math.max(last, blockLastSeq(i));
+        }
+        return last;
+    }
+
+    // 블록 하나를 읽어서 압축 해제 (시각 오름차순)
+    public List<ChatMessage> readBlock(int block, ObjectMapper mapper) throws IOException {
+        int base = entry(block);
+        long offset = index.getLong(base + 32);
+        int compressedLength = index.getInt(base + 40);
+        int rawLength = index.getInt(base + 44);
+
+        ByteBuffer compressed = ByteBuffer.allocate(compressedLength);
+        try (FileChannel data = FileChannel.open(dataPath, StandardOpenOption.READ)) {
+            while (compressed.hasRemaining()) {
+                if (data.read(compressed, offset + compressed.position()) < 0) {
+                    throw new IOException("Truncated archive segment: " + dataPath);
+                }
+            }
+        }
+        byte[] raw = Zstd.decompress(compressed.array(), rawLength);
+
+        List<ChatMessage> messages = new ArrayList<>(blockCount(block));
+        int start = 0;
+        for (int i = 0; i < raw.length; i++) {
+            if (raw[i] == '\n') {
+                messages.add(mapper.readValue(raw, start, i - start, ChatMessage.class));
+                start = i + 1;
+            }
+        }
+        return messages;
+    }
+
+    static boolean exists(Path directory, String name) {
+        return Files.exists(directory.resolve(name + INDEX_SUFFIX));
+    }
+
+    // 끝까지 쓰지 못한 세그먼트의 파일 정리 (.idx 가 없는 경우에만 호출)
+    static void discard(Path directory, String name) throws IOException {
+        Files.deleteIfExists(directory.resolve(name + DATA_SUFFIX + ".tmp"));
+        Files.deleteIfExists(directory.resolve(name + INDEX_SUFFIX + ".tmp"));
+        Files.deleteIfExists(directory.resolve(name + DATA_SUFFIX));
+    }
+
+    void delete() throws IOException {
+        // .idx 를 먼저 지워서 읽는 쪽에서 반쯤 지워진 세그먼트가 보이지 않게 한다.
+        Files.deleteIfExists(indexPath);
+        Files.deleteIfExists(dataPath);
+    }
+
+    Path indexPath() {
+        return indexPath;
+    }
+
+    private static int entry(int block) {
+        return HEADER_BYTES + block * ENTRY_BYTES;
+    }
+
+    private static Path siblingPath(Path indexPath, String suffix) {
+        String name = indexPath.getFileName().toString();
+        return indexPath.resolveSibling(name.substring(0, name.length() - INDEX_SUFFIX.length()) + suffix);
+    }
+}
@@ -0,0 +1,298 @@
+package com.homeless.chatservice.repository.archive;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeless.chatservice.entity.ChatMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// 오래된 메시지를 채널별 압축 세그먼트 파일로 보관하는 계층 ({directory}/{channelId}/*.seg, *.idx)
+// 세그먼트 목록은 채널 디렉터리 수정 시각이 바뀔 때만 다시 읽으므로, 다른 노드가 같은 디렉터리(공유 볼륨)에
+// 세그먼트를 추가해도 다음 조회에서 보인다.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.archive.enabled", havingValue = "true")
+public class MessageArchive {
+
+    private final Path directory;
+    private final int blockMessages;
+    private final int compressionLevel;
+    // ChatMessage 는 setter 가 없고 setContent 는 아무것도 하지 않으므로 필드로 직접 직렬화한다.
+    private final ObjectMapper mapper = new ObjectMapper()
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final Map<String, ChannelSegments> channels = new ConcurrentHashMap<>();
+
+    public MessageArchive(@Value("${chat.archive.directory:./data/archive}") String directory,
+                          @Value("${chat.archive.block-messages:128}") int blockMessages,
+                          @Value("${chat.archive.compression-level:3}") int compressionLevel,
+                          @Value("${chat.archive.shared-directory:false}") boolean sharedDirectory,
+                          @Value("${chat.cluster.enabled:false}") boolean clusterEnabled) {
+        // 보관한 메시지는 Mongo 에서 지워지므로, 노드마다 다른 로컬 디스크에 쓰면 다른 노드에서는 이력이 사라진다.
+        if (clusterEnabled && !sharedDirectory) {
+            throw new IllegalStateException("chat.archive.directory (" + directory + ") must be a volume shared by all "
+                    + "cluster nodes; set chat.archive.shared-directory=true once it is");
+        }
+        this.directory = Paths.get(directory);
+        this.blockMessages = blockMessages;
+        this.compressionLevel = compressionLevel;
+    }
+
+    // 채널별 세그먼트 목록 (첫 메시지 시각 오름차순)
+    private record ChannelSegments(FileTime modified, List<ArchiveSegment> segments) {
+    }
+
+    // 메시지(시각 오름차순)를 새 세그먼트로 저장
+    public void write(String channelId, List<ChatMessage> messages) throws IOException {
+        if (messages.isEmpty()) {
+            return;
+        }
+        write(channelId, newSegmentName(messages), messages);
+    }
+
+    // 이름을 먼저 정해 두고 쓰는 경우 (MessageArchiver 가 기록 전에 목록에 남긴다)
+    public String newSegmentName(List<ChatMessage> messages) {
+        return ArchiveSegment.newName(messages);
+    }
+
+    public void write(String channelId, String segmentName, List<ChatMessage> messages) throws IOException {
+        ArchiveSegment.write(channelDirectory(channelId), segmentName, messages, mapper, blockMessages, compressionLevel);
+        channels.remove(channelId);
+    }
+
+    // 세그먼트가 끝까지 기록되었는지 (.idx 존재)
+    public boolean hasSegment(String channelId, String segmentName) {
+        return ArchiveSegment.exists(channelDirectory(channelId), segmentName);
+    }
+
+    public void discardSegment(String channelId, String segmentName) throws IOException {
+        ArchiveSegment.discard(channelDirectory(channelId), segmentName);
+    }
+
+    public long count(String channelId) {
+        long total = 0;
+        for (ArchiveSegment segment : segments(channelId)) {
+            total += segment.count();
+        }
+        return total;
+    }
+
+    public long maxSeq(String channelId) {
+        long max = 0;
+        for (ArchiveSegment segment : segments(channelId)) {
+            max = Math.max(max, segment.lastSeq());
+        }
+        return max;
+    }
+
+    // 최신순으로 offset 개를 건너뛰고 limit 개. 블록 단위 개수는 인덱스에 있으므로 건너뛰는 블록은 읽지 않는다.
+    public List<ChatMessage> readNewestFirst(String channelId, long offset, int limit) {
+        List<ChatMessage> result = new ArrayList<>();
+        long skip = offset;
+        List<ArchiveSegment> segments = segments(channelId);
+        for (int s = segments.size() - 1; s >= 0 && result.size() < limit; s--) {
+            ArchiveSegment segment = segments.get(s);
+            if (skip >= segment.count()) {
+                skip -= segment.count();
+                continue;
+            }
+            for (int b = segment.blocks() - 1; b >= 0 && result.size() < limit; b--) {
+                int blockCount = segment.blockCount(b);
+                if (skip >= blockCount) {
+                    skip -= blockCount;
+                    continue;
+                }
+                List<ChatMessage> block = readBlock(segment, b);
+                for (int i = block.size() - 1 - (int) skip; i >= 0 && result.size() < limit; i--) {
+                    result.add(block.get(i));
+                }
+                skip = 0;
+            }
+        }
+        return result;
+    }
+
+    // afterSeq 이후 메시지 limit 개 (순번 오름차순). 순번 범위가 겹치지 않는 블록은 읽지 않는다.
+    public List<ChatMessage> readAfterSeq(String channelId, long afterSeq, int limit) {
+        List<ChatMessage> result = new ArrayList<>();
+        for (ArchiveSegment segment : segments(channelId)) {
+            for (int b = 0; b < segment.blocks(); b++) {
+                if (segment.blockLastSeq(b) <= afterSeq) {
+                    continue;
+                }
+                // 시각 순으로 올라가므로 이미 limit 개를 모았고 이 블록이 모두 더 나중 순번이면 멈춘다.
+                if (result.size() >= limit && segment.blockFirstSeq(b) > result.get(limit - 1).getSeq()) {
+                    return new ArrayList<>(result.subList(0, limit));
+                }
+                for (ChatMessage message : readBlock(segment, b)) {
+                    if (message.getSeq() != null && message.getSeq() > afterSeq) {
+                        result.add(message);
+                    }
+                }
+                result.sort(Comparator.comparing(ChatMessage::getSeq));
+            }
+        }
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    // seq 이하 최근 메시지 limit 개 (순번 내림차순)
+    public List<ChatMessage> readUpToSeq(String channelId, long seq, int limit) {
+        List<ChatMessage> result = new ArrayList<>();
+        List<ArchiveSegment> segments = segments(channelId);
+        for (int s = segments.size() - 1; s >= 0; s--) {
+            ArchiveSegment segment = segments.get(s);
+            for (int b = segment.blocks() - 1; b >= 0; b--) {
+                long blockFirst = segment.blockFirstSeq(b);
+                if (blockFirst == 0 || blockFirst > seq) {
+                    continue;
+                }
+                // 시각 순으로 내려가므로 이미 limit 개를 모았고 이 블록이 모두 더 오래된 순번이면 멈춘다.
+                if (result.size() >= limit && segment.blockLastSeq(b) < result.get(limit - 1).getSeq()) {
+                    return new ArrayList<>(result.subList(0, limit));
+                }
+                for (ChatMessage message : readBlock(segment, b)) {
+                    if (message.getSeq() != null && message.getSeq() <= seq) {
+                        result.add(message);
+                    }
+                }
+                result.sort(Comparator.comparing(ChatMessage::getSeq).reversed());
+            }
+        }
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    // 첨부파일이 있는 보관 메시지 (채널 삭제 시 S3 정리용, 전체 블록을 읽는다)
+    public List<ChatMessage> readWithFiles(String channelId) {
+        List<ChatMessage> result = new ArrayList<>();
+        for (ArchiveSegment segment : segments(channelId)) {
+            for (int b = 0; b < segment.blocks(); b++) {
+                for (ChatMessage message : readBlock(segment, b)) {
+                    if (message.getFileUrl() != null) {
+                        result.add(message);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // before 보다 오래된 메시지만 담긴 세그먼트의 첨부파일 메시지 (만료 전 S3 정리용)
+    public List<ChatMessage> readExpiredWithFiles(String channelId, long before) {
+        List<ChatMessage> result = new ArrayList<>();
+        for (ArchiveSegment segment : segments(channelId)) {
+            if (segment.lastTimestamp() >= before) {
+                continue;
+            }
+            for (int b = 0; b < segment.blocks(); b++) {
+                for (ChatMessage message : readBlock(segment, b)) {
+                    if (message.getFileUrl() != null) {
+                        result.add(message);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // before 보다 오래된 메시지만 담긴 세그먼트 삭제 (보관 기간 정리용). 삭제한 메시지 수 반환
+    public long deleteOlderThan(String channelId, long before) {
+        long deleted = 0;
+        for (ArchiveSegment segment : segments(channelId)) {
+            if (segment.lastTimestamp() >= before) {
+                continue;
+            }
+            try {
+                segment.delete();
+                deleted += segment.count();
+            } catch (IOException e) {
+                log.warn("Failed to delete archive segment {}: {}", segment.indexPath(), e.getMessage());
+            }
+        }
+        channels.remove(channelId);
+        return deleted;
+    }
+
+    public void deleteChannel(String channelId) {
+        Path channelDirectory = channelDirectory(channelId);
+        channels.remove(channelId);
+        if (!Files.isDirectory(channelDirectory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(channelDirectory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(channelDirectory);
+        } catch (IOException e) {
+            log.warn("Failed to delete archive of channel {}: {}", channelId, e.getMessage());
+        }
+    }
+
+    // 보관된 메시지가 있는 채널 목록
+    public List<String> channelIds() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> children = Files.list(directory)) {
+            return children.filter(Files::isDirectory).map(path -> path.getFileName().toString()).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<ChatMessage> readBlock(ArchiveSegment segment, int block) {
+        try {
+            return segment.readBlock(block, mapper);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive segment " + segment.indexPath(), e);
+        }
+    }
+
+    private List<ArchiveSegment> segments(String channelId) {
+        Path channelDirectory = channelDirectory(channelId);
+        if (!Files.isDirectory(channelDirectory)) {
+            return List.of();
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(channelDirectory);
+            ChannelSegments cached = channels.get(channelId);
+            if (cached != null && cached.modified().equals(modified)) {
+                return cached.segments();
+            }
+            List<ArchiveSegment> segments = new ArrayList<>();
+            try (Stream<Path> files = Files.list(channelDirectory)) {
+                for (Path file : files.filter(path -> path.toString().endsWith(ArchiveSegment.INDEX_SUFFIX)).toList()) {
+                    segments.add(ArchiveSegment.open(file));
+                }
+            }
+            segments.sort(Comparator.comparingLong(ArchiveSegment::firstTimestamp));
+            channels.put(channelId, new ChannelSegments(modified, List.copyOf(segments)));
+            return segments;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list archive of channel " + channelId, e);
+        }
+    }
+
+    // 채널 id 를 디렉터리 이름으로 쓸 수 있게 정리
+    private Path channelDirectory(String channelId) {
+        return directory.resolve(channelId.replaceAll("[^A-Za-z0-9_-]", "_"));
+    }
+}
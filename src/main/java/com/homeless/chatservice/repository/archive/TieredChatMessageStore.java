@@ -0,0 +1,177 @@
+package com.homeless.chatservice.repository.archive;
+
+import com.homeless.chatservice.dto.ImageVariant;
+import com.homeless.chatservice.entity.ChatMessage;
+import com.homeless.chatservice.repository.ChatMessageStore;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Mongo(최근 메시지) 뒤에 보관 세그먼트를 이어 붙여서 읽는 저장소
+// 이력 페이지/최신 메시지/순번 조회가 Mongo 에 있는 범위를 넘어가면 보관 계층에서 이어서 읽는다.
+// 보관된 메시지는 불변이므로 수정/삭제/검색은 Mongo 에 있는 메시지에만 적용된다.
+@Primary
+@Repository
+@ConditionalOnProperty(name = "chat.archive.enabled", havingValue = "true")
+public class TieredChatMessageStore implements ChatMessageStore {
+
+    private final ChatMessageStore hot;
+    private final MessageArchive archive;
+
+    public TieredChatMessageStore(@Qualifier(ChatMessageStore.HOT) ChatMessageStore hot, MessageArchive archive) {
+        this.hot = hot;
+        this.archive = archive;
+    }
+
+    @Override
+    public String save(ChatMessage message) {
+        return hot.save(message);
+    }
+
+    @Override
+    public Optional<ChatMessage> findById(String chatId) {
+        return hot.findById(chatId);
+    }
+
+    @Override
+    public Page<ChatMessage> findPageByChannelId(String channelId, Pageable pageable) {
+        Page<ChatMessage> page = hot.findPageByChannelId(channelId, pageable);
+        long archived = archive.count(channelId);
+        if (archived == 0) {
+            return page;
+        }
+        List<ChatMessage> messages = new ArrayList<>(page.getContent());
+        if (messages.size() < pageable.getPageSize()) {
+            // Mongo 범위를 지난 만큼 보관 계층에서 건너뛴다.
+            long archiveOffset = Math.max(0, pageable.getOffset() - page.getTotalElements());
+            messages.addAll(archive.readNewestFirst(channelId, archiveOffset, pageable.getPageSize() - messages.size()));
+        }
+        return new PageImpl<>(messages, pageable, page.getTotalElements() + archived);
+    }
+
+    @Override
+    public List<ChatMessage> findLatestByChannelId(String channelId, int limit) {
+        List<ChatMessage> messages = hot.findLatestByChannelId(channelId, limit);
+        if (messages.size() >= limit) {
+            return messages;
+        }
+        List<ChatMessage> merged = new ArrayList<>(messages);
+        merged.addAll(archive.readNewestFirst(channelId, 0, limit - messages.size()));
+        return merged;
+    }
+
+    @Override
+    public List<ChatMessage> findAfterSeq(String channelId, long afterSeq, int limit) {
+        List<ChatMessage> messages = hot.findAfterSeq(channelId, afterSeq, limit);
+        Long firstHotSeq = messages.isEmpty() ? null : messages.get(0).getSeq();
+        if (firstHotSeq != null && firstHotSeq == afterSeq + 1) {
+            return messages;
+        }
+        // 삭제/저장 실패로 순번이 비는 경우는 흔하므로, 요청 구간이 보관된 순번 범위에 걸칠 때만 보관 계층을 읽는다.
+        if (afterSeq >= archive.maxSeq(channelId)) {
+            return messages;
+        }
+        // 요청 구간 앞부분이 보관 계층으로 넘어간 경우
+        List<ChatMessage> merged = new ArrayList<>();
+        for (ChatMessage message : archive.readAfterSeq(channelId, afterSeq, limit)) {
+            if (firstHotSeq == null || message.getSeq() < firstHotSeq) {
+                merged.add(message);
+            }
+        }
+        merged.addAll(messages);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    @Override
+    public List<ChatMessage> findUpToSeq(String channelId, long seq, int limit) {
+        List<ChatMessage> messages = hot.findUpToSeq(channelId, seq, limit);
+        if (messages.size() >= limit) {
+            return messages;
+        }
+        long before = messages.isEmpty() ? seq : messages.get(messages.size() - 1).getSeq() - 1;
+        List<ChatMessage> merged = new ArrayList<>(messages);
+        merged.addAll(archive.readUpToSeq(channelId, before, limit - messages.size()));
+        return merged;
+    }
+
+    @Override
+    public Optional<Long> findMaxSeq(String channelId) {
+        Optional<Long> stored = hot.findMaxSeq(channelId);
+        if (stored.isPresent()) {
+            return stored;
+        }
+        long archived = archive.maxSeq(channelId);
+        return archived > 0 ? Optional.of(archived) : Optional.empty();
+    }
+
+    @Override
+    public Page<ChatMessage> searchByContent(String channelId, String keyword, Pageable pageable) {
+        return hot.searchByContent(channelId, keyword, pageable);
+    }
+
+    @Override
+    public Page<ChatMessage> searchByWriter(String channelId, String keyword, Pageable pageable) {
+        return hot.searchByWriter(channelId, keyword, pageable);
+    }
+
+    @Override
+    public List<ChatMessage> findWithFileByChannelId(String channelId) {
+        List<ChatMessage> messages = new ArrayList<>(hot.findWithFileByChannelId(channelId));
+        messages.addAll(archive.readWithFiles(channelId));
+        return messages;
+    }
+
+    @Override
+    public List<String> findChannelIdsByServerId(String serverId) {
+        return hot.findChannelIdsByServerId(serverId);
+    }
+
+    @Override
+    public void updateContent(String chatId, String content) {
+        hot.updateContent(chatId, content);
+    }
+
+    @Override
+    public long updateImageVariants(String fileUrl, ImageVariant thumbnail, ImageVariant preview) {
+        return hot.updateImageVariants(fileUrl, thumbnail, preview);
+    }
+
+    @Override
+    public void deleteById(String chatId) {
+        hot.deleteById(chatId);
+    }
+
+    @Override
+    public void deleteByChannelId(String channelId) {
+        hot.deleteByChannelId(channelId);
+        archive.deleteChannel(channelId);
+    }
+
+    @Override
+    public List<String> findChannelIdsWithMessagesBefore(long before) {
+        return hot.findChannelIdsWithMessagesBefore(before);
+    }
+
+    @Override
+    public List<String> findChannelIdsAfter(String afterChannelId, int limit) {
+        return hot.findChannelIdsAfter(afterChannelId, limit);
+    }
+
+    @Override
+    public MessageBatch findOldest(String channelId, long before, int limit) {
+        return hot.findOldest(channelId, before, limit);
+    }
+
+    @Override
+    public void deleteBatch(MessageBatch batch) {
+        hot.deleteBatch(batch);
+    }
+}
@@ -0,0 +1,380 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.common.codec.ChatMessageCodecRegistry;
+import com.homeless.chatservice.common.config.RabbitConfig;
+import com.homeless.chatservice.dto.MessageDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// chat.exchange 발행 파이프라인 (publisher confirm + mandatory 사용)
+// 채널은 해시로 shards 개의 발행 스레드 중 하나에 고정되고, 호출 스레드(STOMP inbound)는 그 스레드의 버퍼에 넣기만 한다.
+// 발행 스레드는 batch-size 개씩 꺼내 채널별로 묶어서 AMQP 채널 하나로 연달아 보내므로, 바쁜 채널이 다른 샤드의 채널을 막지 않는다.
+// broker 확인(ack)을 기다리는 메시지는 max-in-flight 개까지만 두고, nack/반송(unroutable)/시간 초과/연결 오류는
+// retry-delay-ms 후 버퍼 앞쪽에 다시 넣는다. 재시도 중에는 같은 채널 메시지끼리 순서가 바뀔 수 있으므로 클라이언트는 seq 로 정렬한다.
+// 시간 초과 후 재시도한 메시지는 broker 에 두 번 들어갈 수 있으므로, AMQP messageId 를 chatId 로 두고
+// 채널 큐를 소비하는 쪽에서 Redis(chat:publish:consumed:{chatId})로 노드와 상관없이 한 번만 처리한다.
+// AMQP_LOCAL_FANOUT 의 채널 큐(chat.channel.{id}) 선언과 리스너도 여기서 관리한다.
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "chat.broker.mode", havingValue = "RELAY", matchIfMissing = true)
+public class AmqpChatPublisher implements ChatMessagePublisher {
+
+    private static final String ROUTING_KEY_PREFIX = "chat.channel.";
+    private static final String CONSUMED_KEY_PREFIX = "chat:publish:consumed:";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RabbitConfig rabbitConfig;
+    private final RabbitAdmin rabbitAdmin;
+    private final ChatMessageCodecRegistry codecRegistry;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Map<String, SimpleMessageListenerContainer> channelListeners = new ConcurrentHashMap<>();
+    private final int maxInFlight;
+    // 샤드별 발행 버퍼 (채널은 항상 같은 샤드로 가므로 채널 안의 순서가 유지된다)
+    private final List<BlockingDeque<PendingPublish>> buffers;
+    private final Semaphore inFlight;
+
+    @Value("${rabbitmq.chat-exchange.name}")
+    private String exchangeName;
+
+    @Value("${chat.publish.batch-size:100}")
+    private int batchSize;
+
+    @Value("${chat.publish.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${chat.publish.retry-delay-ms:500}")
+    private long retryDelayMs;
+
+    @Value("${chat.publish.max-attempts:5}")
+    private int maxAttempts;
+
+    // 소비 쪽 중복 확인 기록 보관 시간 (재시도가 끝날 때까지는 남아 있어야 한다)
+    @Value("${chat.publish.dedup-ttl-ms:600000}")
+    private long dedupTtlMs;
+
+    private final Timer confirmLatency;
+    private final Counter confirmed;
+    private final Counter retried;
+    private final Counter dropped;
+    private final Counter returned;
+    private final Counter duplicates;
+
+    private final ExecutorService publishExecutor;
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "amqp-chat-publish-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean running = true;
+
+    private record PendingPublish(String routingKey, MessageDto message, int attempt) {
+    }
+
+    public AmqpChatPublisher(RabbitTemplate rabbitTemplate,
+                             RabbitConfig rabbitConfig,
+                             RabbitAdmin rabbitAdmin,
+                             ChatMessageCodecRegistry codecRegistry,
+                             @Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
+                             @Value("${chat.publish.buffer-size:10000}") int bufferSize,
+                             @Value("${chat.publish.max-in-flight:1000}") int maxInFlight,
+                             @Value("${chat.publish.shards:4}") int shards,
+                             MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.rabbitConfig = rabbitConfig;
+        this.rabbitAdmin = rabbitAdmin;
+        this.codecRegistry = codecRegistry;
+        this.redisTemplate = redisTemplate;
+        this.maxInFlight = maxInFlight;
+        this.buffers = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            buffers.add(new LinkedBlockingDeque<>(Math.max(1, bufferSize / shards)));
+        }
+        this.inFlight = new Semaphore(maxInFlight);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.publishExecutor = Executors.newFixedThreadPool(shards, runnable -> {
+            Thread thread = new Thread(runnable, "amqp-chat-publisher-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.confirmLatency = Timer.builder("chat.publish.confirm.latency")
+                .description("Time from publish to broker confirm")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.confirmed = meterRegistry.counter("chat.publish.messages", "outcome", "confirmed");
+        this.retried = meterRegistry.counter("chat.publish.messages", "outcome", "retried");
+        this.dropped = meterRegistry.counter("chat.publish.messages", "outcome", "dropped");
+        this.returned = meterRegistry.counter("chat.publish.messages", "outcome", "returned");
+        this.duplicates = meterRegistry.counter("chat.publish.consumed.duplicates");
+        Gauge.builder("chat.publish.in-flight", this, publisher -> publisher.maxInFlight - publisher.inFlight.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("chat.publish.buffered", this, AmqpChatPublisher::buffered).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        // 배치 전체의 허가를 한 번에 얻으므로 배치가 max-in-flight 보다 크면 발행 스레드가 영원히 기다린다.
+        if (batchSize < 1 || batchSize > maxInFlight) {
+            throw new IllegalStateException("chat.publish.batch-size (" + batchSize
+                    + ") must be between 1 and chat.publish.max-in-flight (" + maxInFlight + ")");
+        }
+        buffers.forEach(buffer -> publishExecutor.execute(() -> drainLoop(buffer)));
+        log.info("AMQP chat publisher started (shards: {}, in-flight: {}, batch: {}, buffer: {} per shard)",
+                buffers.size(), maxInFlight, batchSize, buffers.get(0).remainingCapacity());
+    }
+
+    private double buffered() {
+        return buffers.stream().mapToInt(BlockingDeque::size).sum();
+    }
+
+    private BlockingDeque<PendingPublish> bufferOf(String routingKey) {
+        return buffers.get(Math.floorMod(routingKey.hashCode(), buffers.size()));
+    }
+
+    // 버퍼가 가득 차면 false (메시지는 이미 저장되어 있어 재접속 복구로 받을 수 있다)
+    @Override
+    public boolean publish(String channelId, MessageDto message) {
+        String routingKey = ROUTING_KEY_PREFIX + channelId;
+        if (bufferOf(routingKey).offerLast(new PendingPublish(routingKey, message, 1))) {
+            return true;
+        }
+        dropped.increment();
+        log.error("Publish buffer full, dropped message {} for {}", message.getChatId(), routingKey);
+        return false;
+    }
+
+    private void drainLoop(BlockingDeque<PendingPublish> buffer) {
+        List<PendingPublish> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingPublish first = buffer.pollFirst(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                // 확인을 기다리는 메시지가 max-in-flight 에 닿으면 여기서(발행 스레드만) 기다린다.
+                inFlight.acquire(batch.size());
+                send(groupByChannel(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Publish loop error: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // 같은 채널 메시지가 이어서 나가도록 채널별로 묶는다. (채널 안의 순서는 유지)
+    private static List<PendingPublish> groupByChannel(List<PendingPublish> batch) {
+        Map<String, List<PendingPublish>> byChannel = new LinkedHashMap<>();
+        for (PendingPublish pending : batch) {
+            byChannel.computeIfAbsent(pending.routingKey(), key -> new ArrayList<>()).add(pending);
+        }
+        List<PendingPublish> grouped = new ArrayList<>(batch.size());
+        byChannel.values().forEach(grouped::addAll);
+        return grouped;
+    }
+
+    // 배치 전체를 AMQP 채널 하나로 연달아 보내고 confirm 은 비동기로 받는다.
+    // mandatory 로 보내므로 바인딩된 큐가 없으면 ack 전에 반송되고, 반송된 메시지는 실패로 보고 재시도한다.
+    private void send(List<PendingPublish> batch) {
+        AtomicInteger sent = new AtomicInteger();
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (PendingPublish pending : batch) {
+                    CorrelationData correlation = new CorrelationData(pending.message().getChatId());
+                    long startedAt = System.nanoTime();
+                    operations.convertAndSend(exchangeName, pending.routingKey(), pending.message(),
+                            withMessageId(pending.message().getChatId()), correlation);
+                    sent.incrementAndGet();
+                    // 보낸 뒤에 연결해야 전송 실패한 메시지가 아래 finally 와 confirm 양쪽에서 처리되지 않는다.
+                    correlation.getFuture()
+                            .orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS)
+                            .whenComplete((confirm, error) -> {
+                                inFlight.release();
+                                ReturnedMessage unroutable = correlation.getReturned();
+                                if (error == null && confirm.isAck() && unroutable == null) {
+                                    confirmLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                                    confirmed.increment();
+                                } else if (unroutable != null) {
+                                    returned.increment();
+                                    retry(pending, "returned: " + unroutable.getReplyText());
+                                } else {
+                                    retry(pending, error != null ? error.toString() : confirm.getReason());
+                                }
+                            });
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // 보내지 못한 나머지 (보낸 메시지는 confirm 결과로 처리된다)
+            log.warn("Publish batch failed after {} of {} messages: {}", sent.get(), batch.size(), e.getMessage());
+        } finally {
+            for (int i = sent.get(); i < batch.size(); i++) {
+                inFlight.release();
+                retry(batch.get(i), "send failed");
+            }
+        }
+    }
+
+    private void retry(PendingPublish pending, String reason) {
+        if (pending.attempt() >= maxAttempts || !running) {
+            dropped.increment();
+            log.error("Giving up publishing message {} to {} after {} attempts: {}",
+                    pending.message().getChatId(), pending.routingKey(), pending.attempt(), reason);
+            return;
+        }
+        retried.increment();
+        PendingPublish next = new PendingPublish(pending.routingKey(), pending.message(), pending.attempt() + 1);
+        retryScheduler.schedule(() -> {
+            // 재시도는 새 메시지보다 먼저 보낸다.
+            if (!bufferOf(next.routingKey()).offerFirst(next)) {
+                dropped.increment();
+                log.error("Publish buffer full, dropped retried message {}", next.message().getChatId());
+            }
+        }, retryDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static MessagePostProcessor withMessageId(String chatId) {
+        return message -> {
+            message.getMessageProperties().setMessageId(chatId);
+            return message;
+        };
+    }
+
+    // 재시도로 두 번 발행된 메시지는 어느 노드가 소비하든 한 번만 처리한다. (Redis 오류 시에는 처리)
+    private boolean firstConsume(String chatId) {
+        if (chatId == null) {
+            return true;
+        }
+        try {
+            Boolean first = redisTemplate.opsForValue()
+                    .setIfAbsent(CONSUMED_KEY_PREFIX + chatId, "1", Duration.ofMillis(dedupTtlMs));
+            if (Boolean.FALSE.equals(first)) {
+                duplicates.increment();
+                return false;
+            }
+        } catch (Exception e) {
+            log.warn("Failed to check consumed message {}: {}", chatId, e.getMessage());
+        }
+        return true;
+    }
+
+    @Override
+    public void declareChannel(String channelId) {
+        Queue queue = rabbitConfig.createChatQueue(channelId);
+        rabbitAdmin.declareQueue(queue);
+        rabbitAdmin.declareBinding(rabbitConfig.createChatChannelBinding(queue, channelId));
+    }
+
+    @Override
+    public void startConsumer(String channelId, Consumer<MessageDto> handler) {
+        if (channelListeners.containsKey(channelId)) {
+            return;
+        }
+        synchronized (channelListeners) {
+            if (!channelListeners.containsKey(channelId)) {
+                channelListeners.put(channelId, createChannelListener(channelId, handler));
+            }
+        }
+    }
+
+    private SimpleMessageListenerContainer createChannelListener(String channelId, Consumer<MessageDto> handler) {
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
+        container.setConnectionFactory(rabbitConfig.connectionFactory());
+        container.setQueueNames(ROUTING_KEY_PREFIX + channelId);
+        container.setConcurrentConsumers(20);
+        container.setMaxConcurrentConsumers(50);
+        container.setPrefetchCount(500);
+
+        container.setMessageListener((ChannelAwareMessageListener) (message, channel) -> {
+            try {
+                // content-type(CBOR/JSON)에 맞는 코덱으로 디코딩
+                MessageDto chatMessage = codecRegistry.resolve(message.getMessageProperties().getContentType())
+                        .decode(message.getBody(), MessageDto.class);
+                if (firstConsume(chatMessage.getChatId())) {
+                    handler.accept(chatMessage);
+                }
+            } catch (Exception e) {
+                log.error("Error processing message for channel {}: {}", channelId, e.getMessage());
+            }
+        });
+
+        container.start();
+        return container;
+    }
+
+    @Override
+    public void stopConsumer(String channelId) {
+        SimpleMessageListenerContainer container = channelListeners.remove(channelId);
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Override
+    public Set<String> consumingChannels() {
+        return Set.copyOf(channelListeners.keySet());
+    }
+
+    @Override
+    public void deleteChannel(String channelId) {
+        stopConsumer(channelId);
+        rabbitAdmin.deleteQueue(ROUTING_KEY_PREFIX + channelId);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        channelListeners.values().forEach(SimpleMessageListenerContainer::stop);
+        running = false;
+        publishExecutor.shutdown();
+        retryScheduler.shutdownNow();
+        try {
+            publishExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int remaining = (int) buffered();
+        if (remaining > 0) {
+            log.warn("{} buffered messages were not published before shutdown", remaining);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.dto.MessageBatchDto;
+import com.homeless.chatservice.dto.MessageDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 바쁜 채널의 브로드캐스트를 짧은 구간 동안 모아서 한 프레임(MessageBatchDto)으로 보내는 단계
+// 채널별 초당 메시지 수가 threshold 를 넘으면 묶음 전송으로 바꾸고, 절반 아래로 내려가면 즉시 전송으로 돌아간다.
+// 묶는 구간은 채널이 바쁠수록 min-window-ms ~ max-window-ms 사이에서 길어진다.
+@Slf4j
+@Component
+public class BroadcastCoalescer {
+
+    private static final long RATE_WINDOW_MS = 1000;
+    private static final long IDLE_EVICTION_MS = 60_000;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final DistributionSummary batchSize;
+    private final Map<String, ChannelState> channels = new ConcurrentHashMap<>();
+
+    @Value("${chat.fanout.coalescing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.fanout.coalescing.threshold-per-second:20}")
+    private int thresholdPerSecond;
+
+    @Value("${chat.fanout.coalescing.min-window-ms:10}")
+    private long minWindowMs;
+
+    @Value("${chat.fanout.coalescing.max-window-ms:25}")
+    private long maxWindowMs;
+
+    @Value("${chat.fanout.coalescing.max-batch-size:100}")
+    private int maxBatchSize;
+
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "broadcast-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BroadcastCoalescer(SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.batchSize = DistributionSummary.builder("chat.fanout.batch.size")
+                .description("Messages per coalesced broadcast frame")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("chat.fanout.coalescing.channels", channels,
+                        map -> map.values().stream().filter(state -> state.coalescing).count())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            flushScheduler.scheduleWithFixedDelay(this::evictIdle, IDLE_EVICTION_MS, IDLE_EVICTION_MS, TimeUnit.MILLISECONDS);
+            log.info("Broadcast coalescing enabled (threshold: {}/s, window: {}-{}ms)", thresholdPerSecond, minWindowMs, maxWindowMs);
+        }
+    }
+
+    // 채널이 바쁘면 묶음에 넣고 true, 아니면 false (호출자가 바로 전송)
+    public boolean offer(String destination, MessageDto message) {
+        if (!enabled) {
+            return false;
+        }
+        ChannelState state = channels.computeIfAbsent(message.getChannelId(), key -> new ChannelState(destination));
+        boolean full;
+        synchronized (state) {
+            long now = System.currentTimeMillis();
+            state.record(now);
+            // 즉시 전송으로 돌아가도 남은 묶음이나 전송 중인 묶음보다 먼저 나가지 않도록 그 동안은 뒤에 붙인다.
+            if (!state.coalescing && state.pending.isEmpty() && !state.inFlight) {
+                return false;
+            }
+            state.pending.add(message);
+            full = state.pending.size() >= maxBatchSize;
+            if (!full && state.pending.size() == 1) {
+                long generation = state.generation;
+                flushScheduler.schedule(() -> flush(state, generation), state.windowMs(), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full) {
+            flush(state, -1);
+        }
+        return true;
+    }
+
+    // 꺼내기와 전송을 채널별 sendLock 안에서 해서 묶음이 꺼낸 순서대로 나가게 한다.
+    // generation 이 -1 이면 가득 찬 묶음이라 예약 여부와 상관없이 보낸다.
+    private void flush(ChannelState state, long generation) {
+        state.sendLock.lock();
+        try {
+            List<MessageDto> batch;
+            synchronized (state) {
+                // 그 사이 가득 차서 이미 보낸 묶음이면 무시
+                if ((generation >= 0 && state.generation != generation) || state.pending.isEmpty()) {
+                    return;
+                }
+                batch = state.drain();
+                state.inFlight = true;
+            }
+            try {
+                send(state, batch);
+            } finally {
+                synchronized (state) {
+                    state.inFlight = false;
+                }
+            }
+        } finally {
+            state.sendLock.unlock();
+        }
+    }
+
+    private void send(ChannelState state, List<MessageDto> batch) {
+        batchSize.record(batch.size());
+        try {
+            if (batch.size() == 1) {
+                messagingTemplate.convertAndSend(state.destination, batch.get(0));
+            } else {
+                messagingTemplate.convertAndSend(state.destination, MessageBatchDto.of(batch.get(0).getChannelId(), batch));
+            }
+        } catch (Exception e) {
+            log.error("Failed to send coalesced batch to {}: {}", state.destination, e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        channels.values().removeIf(state -> {
+            synchronized (state) {
+                return !state.coalescing && state.pending.isEmpty() && !state.inFlight
+                        && now - state.windowStart > IDLE_EVICTION_MS;
+            }
+        });
+    }
+
+    private class ChannelState {
+
+        private final String destination;
+        private final List<MessageDto> pending = new ArrayList<>();
+        private final ReentrantLock sendLock = new ReentrantLock();
+        private long windowStart = System.currentTimeMillis();
+        private int count;
+        private double rate;
+        private volatile boolean coalescing;
+        private long generation;
+        // 꺼낸 묶음을 전송하는 중
+        private boolean inFlight;
+
+        ChannelState(String destination) {
+            this.destination = destination;
+        }
+
+        // 1초 단위로 속도를 갱신하되, 구간 중간에도 threshold 를 넘으면 바로 묶음 전송으로 전환
+        void record(long now) {
+            long elapsed = now - windowStart;
+            if (elapsed >= RATE_WINDOW_MS) {
+                rate = count * 1000.0 / elapsed;
+                count = 0;
+                windowStart = now;
+                if (coalescing && rate < thresholdPerSecond / 2.0) {
+                    coalescing = false;
+                    log.debug("Channel {} back to immediate delivery ({}/s)", destination, (int) rate);
+                }
+            }
+            count++;
+            if (!coalescing && (count >= thresholdPerSecond || rate >= thresholdPerSecond)) {
+                coalescing = true;
+                log.debug("Channel {} switched to coalesced delivery", destination);
+            }
+        }
+
+        // 속도가 threshold 의 4배에 가까울수록 구간을 max-window-ms 쪽으로 늘린다.
+        long windowMs() {
+            double load = Math.min(1.0, Math.max(rate, count) / (thresholdPerSecond * 4.0));
+            return minWindowMs + Math.round((maxWindowMs - minWindowMs) * load);
+        }
+
+        List<MessageDto> drain() {
+            List<MessageDto> batch = new ArrayList<>(pending);
+            pending.clear();
+            generation++;
+            return batch;
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        flushScheduler.shutdownNow();
+    }
+}
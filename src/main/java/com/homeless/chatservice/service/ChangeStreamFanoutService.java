@@ -0,0 +1,351 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.dto.CommonResDto;
+import com.homeless.chatservice.dto.MessageDto;
+import com.homeless.chatservice.entity.ChatMessage;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// chat.fanout.mode=CHANGE_STREAM 일 때 chatMessages 컬렉션의 change stream을 구독해서
+// 저장된 삽입/수정/삭제를 이 노드가 담당하는 채널의 구독자에게 전송한다.
+// resume token은 주기적으로 chatFanoutCheckpoints 컬렉션에 저장해서 재시작 시 이어서 읽는다.
+// 다른 노드가 담당하는 채널의 이벤트는 파이프라인의 $match 에서 걸러서 서버 쪽에서 보내지 않게 한다.
+// 담당 채널은 알려진 채널 목록(chat:cluster:channels) 중 이 노드가 맡은 것이고, 목록에 아직 없는 새 채널은 통과시켜서
+// 여기서 담당 여부를 확인한다. 담당 채널이 바뀌면 마지막 resume token 에서 새 파이프라인으로 다시 연다.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ChangeStreamFanoutService implements SmartLifecycle {
+
+    private static final String COLLECTION = "chatMessages";
+    private static final String CHECKPOINT_COLLECTION = "chatFanoutCheckpoints";
+    private static final String CHAT_DESTINATION = "/topic/chat.channel.";
+    // resume token이 oplog 범위를 벗어난 경우
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final MongoTemplate mongoTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ChannelOwnership channelOwnership;
+    private final DtoBuilder dtoBuilder;
+    private final FanoutDeliveryTracker deliveryTracker;
+    private final BroadcastCoalescer broadcastCoalescer;
+    private final ChannelReplayBuffer replayBuffer;
+
+    @Qualifier("redisTemplate")
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${chat.fanout.mode:DIRECT_RELAY}")
+    private FanoutMode fanoutMode;
+
+    @Value("${chat.cluster.node-id:${HOSTNAME:local}}")
+    private String nodeId;
+
+    @Value("${chat.fanout.change-stream.checkpoint-interval-ms:1000}")
+    private long checkpointIntervalMs;
+
+    // 알려진 채널이 이보다 많으면 파이프라인이 너무 커지므로 서버 쪽 필터 없이 여기서만 거른다.
+    @Value("${chat.fanout.change-stream.max-filter-channels:10000}")
+    private int maxFilterChannels;
+
+    private volatile boolean running;
+    private Thread worker;
+    private volatile BsonDocument lastToken;
+    private long lastCheckpointAt;
+    // 현재 스트림의 채널 필터 (null 이면 필터 없음). 바뀌면 watch 루프가 빠져나와 스트림을 다시 연다.
+    private volatile ChannelFilter channelFilter;
+    // 알려진 채널 목록에 이미 등록한 채널
+    private final Set<String> registeredChannels = ConcurrentHashMap.newKeySet();
+
+    private record ChannelFilter(Set<String> owned, Set<String> known) {
+    }
+
+    @Override
+    public void start() {
+        if (fanoutMode != FanoutMode.CHANGE_STREAM) {
+            return;
+        }
+        enablePreImages();
+        running = true;
+        worker = new Thread(this::run, "change-stream-fanout");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Change stream fan-out started (node: {})", nodeId);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        checkpoint(true);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        lastToken = loadCheckpoint();
+        channelFilter = loadChannelFilter();
+        while (running) {
+            try {
+                watch();
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    log.warn("Resume token is no longer in the oplog, restarting change stream from now");
+                    lastToken = null;
+                } else {
+                    log.error("Change stream failed: {}", e.getMessage(), e);
+                    sleepQuietly();
+                }
+            } catch (Exception e) {
+                log.error("Change stream failed: {}", e.getMessage(), e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void watch() {
+        ChannelFilter filter = channelFilter;
+        MongoCollection<Document> collection = mongoTemplate.getCollection(COLLECTION);
+        ChangeStreamIterable<Document> stream = collection
+                .watch(pipeline(filter))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (lastToken != null) {
+            stream = stream.resumeAfter(lastToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            while (running && filter == channelFilter) {
+                ChangeStreamDocument<Document> event = cursor.tryNext();
+                if (event != null) {
+                    dispatch(event);
+                }
+                // 이벤트가 없어도 post-batch resume token은 전진하므로 함께 저장
+                BsonDocument token = cursor.getResumeToken();
+                if (token != null) {
+                    lastToken = token;
+                }
+                checkpoint(false);
+            }
+        }
+    }
+
+    private List<Bson> pipeline(ChannelFilter filter) {
+        List<Bson> pipeline = new ArrayList<>();
+        pipeline.add(Aggregates.match(Filters.in("operationType", "insert", "update", "replace", "delete")));
+        if (filter != null) {
+            // 삭제 이벤트는 pre-image 에서 채널을 찾는다. 둘 다 없는 이벤트(pre-image 없는 삭제 등)는 통과시킨다.
+            pipeline.add(Aggregates.match(Filters.or(
+                    Filters.in("fullDocument.channelId", filter.owned()),
+                    Filters.in("fullDocumentBeforeChange.channelId", filter.owned()),
+                    Filters.and(
+                            Filters.nin("fullDocument.channelId", filter.known()),
+                            Filters.nin("fullDocumentBeforeChange.channelId", filter.known())))));
+        }
+        return pipeline;
+    }
+
+    // 알려진 채널 중 이 노드가 담당하는 채널. 모두 담당하거나 목록이 너무 크면 필터를 쓰지 않는다.
+    private ChannelFilter loadChannelFilter() {
+        try {
+            Set<String> known = redisTemplate.opsForSet().members(StompMessageService.KNOWN_CHANNELS_KEY);
+            if (known == null || known.isEmpty()) {
+                return null;
+            }
+            if (known.size() > maxFilterChannels) {
+                log.warn("{} known channels exceed the change stream filter limit ({}), filtering on this node",
+                        known.size(), maxFilterChannels);
+                return null;
+            }
+            Set<String> owned = known.stream().filter(channelOwnership::isOwner).collect(Collectors.toSet());
+            return owned.size() == known.size() ? null : new ChannelFilter(owned, known);
+        } catch (Exception e) {
+            log.warn("Failed to load channels for the change stream filter: {}", e.getMessage());
+            return channelFilter;
+        }
+    }
+
+    // 멤버 변경과 주기적인 동기화 신호마다 필터를 다시 계산하고, 바뀌었으면 스트림을 다시 연다.
+    @EventListener
+    public void onOwnershipChanged(ChannelOwnershipChangedEvent event) {
+        if (!running) {
+            return;
+        }
+        ChannelFilter next = loadChannelFilter();
+        if (!Objects.equals(next, channelFilter)) {
+            channelFilter = next;
+            log.info("Rebuilding change stream for {} owned channels",
+                    next != null ? next.owned().size() : "all");
+        }
+    }
+
+    // 새 채널을 알려진 채널 목록에 올려서 다음 동기화부터 담당하지 않는 노드가 서버 쪽에서 거르도록 한다.
+    private void registerChannel(String channelId) {
+        if (channelId == null || registeredChannels.contains(channelId)) {
+            return;
+        }
+        try {
+            redisTemplate.opsForSet().add(StompMessageService.KNOWN_CHANNELS_KEY, channelId);
+            registeredChannels.add(channelId);
+        } catch (Exception e) {
+            log.warn("Failed to register channel {}: {}", channelId, e.getMessage());
+        }
+    }
+
+    private void dispatch(ChangeStreamDocument<Document> event) {
+        OperationType operationType = event.getOperationType();
+        if (operationType == OperationType.DELETE) {
+            Document before = event.getFullDocumentBeforeChange();
+            if (before == null) {
+                log.debug("Delete event without pre-image, cannot resolve channel: {}", event.getDocumentKey());
+                return;
+            }
+            String channelId = before.getString("channelId");
+            if (channelOwnership.isOwner(channelId)) {
+                broadcastDelete(channelId, event.getDocumentKey().getObjectId("_id").getValue().toHexString());
+            }
+            return;
+        }
+
+        Document document = event.getFullDocument();
+        if (document == null) {
+            return;
+        }
+        ChatMessage chatMessage = mongoTemplate.getConverter().read(ChatMessage.class, document);
+        if (operationType == OperationType.INSERT) {
+            registerChannel(chatMessage.getChannelId());
+        }
+        if (!channelOwnership.isOwner(chatMessage.getChannelId())) {
+            return;
+        }
+
+        if (operationType == OperationType.INSERT) {
+            // 재시작 후 resume 구간이 겹쳐 같은 삽입 이벤트를 다시 받을 수 있음
+            String destination = CHAT_DESTINATION + chatMessage.getChannelId();
+            if (deliveryTracker.firstDelivery(destination, chatMessage.getId())) {
+                MessageDto messageDto = dtoBuilder.toMessageDto(chatMessage);
+                replayBuffer.record(messageDto);
+                if (!broadcastCoalescer.offer(destination, messageDto)) {
+                    messagingTemplate.convertAndSend(destination, messageDto);
+                }
+            }
+        } else if (operationType == OperationType.REPLACE || isContentUpdate(event)) {
+            broadcastUpdate(chatMessage);
+        }
+    }
+
+    // 썸네일 채우기 같은 부가 필드 변경은 전송하지 않음
+    private boolean isContentUpdate(ChangeStreamDocument<Document> event) {
+        return event.getUpdateDescription() != null
+                && event.getUpdateDescription().getUpdatedFields() != null
+                && event.getUpdateDescription().getUpdatedFields().containsKey("content");
+    }
+
+    // WebSocketController의 수정/삭제 응답과 같은 형태로 전송
+    private void broadcastUpdate(ChatMessage chatMessage) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("chatId", chatMessage.getId());
+        result.put("reqMessage", chatMessage.getContent());
+        CommonResDto<Object> commonResDto = new CommonResDto<>(HttpStatus.OK, "Message updated successfully", result);
+        messagingTemplate.convertAndSend(CHAT_DESTINATION + chatMessage.getChannelId(), commonResDto);
+    }
+
+    private void broadcastDelete(String channelId, String chatId) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "success");
+        result.put("message", "Message deleted: 메시지 삭제됨.");
+        result.put("deletedChatId", chatId);
+        messagingTemplate.convertAndSend(CHAT_DESTINATION + channelId, result);
+    }
+
+    // 삭제 이벤트에서 채널을 알기 위해 pre-image 활성화 (MongoDB 6.0 이상, 권한이 없으면 경고만 남김)
+    private void enablePreImages() {
+        try {
+            mongoTemplate.executeCommand(new Document("collMod", COLLECTION)
+                    .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+        } catch (Exception e) {
+            log.warn("Could not enable change stream pre-images on {}: {}", COLLECTION, e.getMessage());
+        }
+    }
+
+    private BsonDocument loadCheckpoint() {
+        Document checkpoint = mongoTemplate.getCollection(CHECKPOINT_COLLECTION)
+                .find(Filters.eq("_id", nodeId))
+                .first();
+        if (checkpoint == null || checkpoint.getString("resumeToken") == null) {
+            return null;
+        }
+        log.info("Resuming change stream from checkpoint saved at {}", checkpoint.getDate("updatedAt"));
+        return new BsonDocument("_data", new BsonString(checkpoint.getString("resumeToken")));
+    }
+
+    private void checkpoint(boolean force) {
+        long now = System.currentTimeMillis();
+        if (lastToken == null || (!force && now - lastCheckpointAt < checkpointIntervalMs)) {
+            return;
+        }
+        try {
+            Document checkpoint = new Document("_id", nodeId)
+                    .append("resumeToken", lastToken.getString("_data").getValue())
+                    .append("updatedAt", new Date(now));
+            mongoTemplate.getCollection(CHECKPOINT_COLLECTION)
+                    .replaceOne(Filters.eq("_id", nodeId), checkpoint, new ReplaceOptions().upsert(true));
+            lastCheckpointAt = now;
+        } catch (Exception e) {
+            log.warn("Failed to checkpoint change stream resume token: {}", e.getMessage());
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
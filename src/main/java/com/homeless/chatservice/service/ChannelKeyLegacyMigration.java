@@ -0,0 +1,72 @@
+package com.homeless.chatservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// 채널 키 목록(chat:channel:{id}:keys) 도입 전에 만들어진 채널 키를 목록에 등록하는 일회성 작업
+// chat.channel-keys.legacy-migration.enabled=true 로 한 인스턴스에서 한 번 실행하면, 이후 채널 삭제는 SCAN 없이 목록만 본다.
+// SADD 라서 여러 번 실행해도 결과는 같다.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.channel-keys.legacy-migration.enabled", havingValue = "true")
+public class ChannelKeyLegacyMigration implements ApplicationRunner {
+
+    private static final int REGISTER_BATCH = 500;
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public ChannelKeyLegacyMigration(@Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long registered = 0;
+        List<String> batch = new ArrayList<>(REGISTER_BATCH);
+        // 커서 기반이라 KEYS 처럼 Redis 를 오래 붙잡지 않는다.
+        ScanOptions options = ScanOptions.scanOptions().match("chat:channel:*").count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                String channelId = ChannelKeyRegistry.channelIdOf(key);
+                if (channelId == null || key.equals(ChannelKeyRegistry.registryKey(channelId))) {
+                    continue;
+                }
+                batch.add(key);
+                if (batch.size() >= REGISTER_BATCH) {
+                    registered += register(batch);
+                    batch.clear();
+                }
+            }
+        }
+        registered += register(batch);
+        log.info("Registered {} legacy channel keys", registered);
+    }
+
+    private int register(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                String registryKey = ChannelKeyRegistry.registryKey(ChannelKeyRegistry.channelIdOf(key));
+                connection.setCommands().sAdd(registryKey.getBytes(StandardCharsets.UTF_8),
+                        key.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        return keys.size();
+    }
+}
@@ -0,0 +1,107 @@
+package com.homeless.chatservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 채널별 Redis 키 목록 (chat:channel:{id}:keys SET)
+// 채널 키를 쓰는 곳에서 register 해 두면 채널 삭제 시 KEYS 없이 등록된 키만 지울 수 있다.
+// 같은 키를 매번 SADD 하지 않도록 노드별로 등록 시각을 기억하고 refresh-ms 가 지나면 다시 등록한다.
+// 채널 키를 지우면 chat:channel-keys:invalidate 로 알려서 다른 노드도 그 채널의 등록 기억을 버린다. (다시 만들어진 키를 바로 등록)
+// 레지스트리 도입 전 키는 ChannelKeyLegacyMigration 으로 한 번 등록해 둔다.
+@Slf4j
+@Service
+public class ChannelKeyRegistry {
+
+    public static final String INVALIDATE_TOPIC = "chat:channel-keys:invalidate";
+    private static final int DELETE_BATCH = 500;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    // 채널 키 -> 이 노드에서 마지막으로 등록한 시각
+    private final Map<String, Long> registered = new ConcurrentHashMap<>();
+
+    @Value("${chat.channel-keys.refresh-ms:600000}")
+    private long refreshMs;
+
+    @Value("${chat.channel-keys.max-cached:100000}")
+    private int maxCached;
+
+    public ChannelKeyRegistry(@Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public static String registryKey(String channelId) {
+        return "chat:channel:" + channelId + ":keys";
+    }
+
+    // "chat:channel:{id}:{name}" 형식의 채널 키에서 채널 id (아니면 null)
+    public static String channelIdOf(String key) {
+        String prefix = "chat:channel:";
+        int end = key.lastIndexOf(':');
+        return key.startsWith(prefix) && end > prefix.length() ? key.substring(prefix.length(), end) : null;
+    }
+
+    public void register(String channelId, String key) {
+        long now = System.currentTimeMillis();
+        Long last = registered.get(key);
+        if (last != null && now - last < refreshMs) {
+            return;
+        }
+        if (registered.size() >= maxCached) {
+            registered.clear();
+        }
+        redisTemplate.opsForSet().add(registryKey(channelId), key);
+        registered.put(key, now);
+    }
+
+    // 등록된 키와 레지스트리를 지우고, 지운 키 수를 반환
+    public long deleteChannelKeys(String channelId) {
+        String registryKey = registryKey(channelId);
+        Set<String> keys = new LinkedHashSet<>();
+        Set<String> members = redisTemplate.opsForSet().members(registryKey);
+        if (members != null) {
+            keys.addAll(members);
+        }
+        keys.remove(registryKey);
+        List<String> targets = new ArrayList<>(keys);
+        targets.add(registryKey);
+        unlink(targets);
+        invalidate(channelId);
+        try {
+            redisTemplate.convertAndSend(INVALIDATE_TOPIC, channelId);
+        } catch (Exception e) {
+            log.warn("Failed to notify channel key invalidation of {}: {}", channelId, e.getMessage());
+        }
+        return keys.size();
+    }
+
+    // 채널 키의 등록 기억을 버린다. (다른 노드에서 채널 키를 지웠을 때도 호출)
+    public void invalidate(String channelId) {
+        registered.keySet().removeIf(key -> channelId.equals(channelIdOf(key)));
+    }
+
+    // UNLINK 는 값 해제를 백그라운드로 넘기므로 큰 키도 Redis 를 막지 않는다.
+    // 키마다 따로 보내서 클러스터에서 슬롯이 달라도 동작한다.
+    private void unlink(List<String> keys) {
+        for (int from = 0; from < keys.size(); from += DELETE_BATCH) {
+            List<String> batch = keys.subList(from, Math.min(from + DELETE_BATCH, keys.size()));
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : batch) {
+                    connection.keyCommands().unlink(key.getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        }
+    }
+}
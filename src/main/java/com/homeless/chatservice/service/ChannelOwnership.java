@@ -0,0 +1,10 @@
+package com.homeless.chatservice.service;
+
+// 채널별로 어느 노드가 fan-out 을 담당할지 결정하는 전략
+// 적용 범위: AMQP_LOCAL_FANOUT 채널 큐 리스너, CHANGE_STREAM 모드의 /topic 전송.
+// 채널 순번(ChannelSequenceService)은 Redis INCR 로 모든 노드가 공유하므로 나누지 않고,
+// 재전송 버퍼(ChannelReplayBuffer)와 broadcast 묶음(BroadcastCoalescer)은 그 노드를 거친 메시지만 담는 로컬 캐시라 나누지 않는다.
+public interface ChannelOwnership {
+
+    boolean isOwner(String channelId);
+}
@@ -0,0 +1,8 @@
+package com.homeless.chatservice.service;
+
+import java.util.Set;
+
+// 채널 담당 노드가 바뀌었을 수 있음을 알리는 이벤트
+// membershipChanged=false 인 경우는 새로 생긴 채널을 담당 노드가 가져가도록 하는 주기적인 동기화 신호다.
+public record ChannelOwnershipChangedEvent(Set<String> members, boolean membershipChanged) {
+}
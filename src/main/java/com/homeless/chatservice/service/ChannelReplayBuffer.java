@@ -0,0 +1,71 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.dto.MessageDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// 채널별 최근 메시지를 순번 기준으로 보관하는 재전송 버퍼 (노드 로컬)
+// 이 노드를 거치지 않은 메시지는 빠져 있을 수 있으므로 요청 구간이 빠짐없이 있을 때만 사용하고,
+// 아니면 호출자가 Mongo 에서 조회한다.
+@Component
+public class ChannelReplayBuffer {
+
+    private final int capacityPerChannel;
+    private final Map<String, NavigableMap<Long, MessageDto>> channels;
+
+    public ChannelReplayBuffer(@Value("${chat.replay.capacity-per-channel:256}") int capacityPerChannel,
+                               @Value("${chat.replay.max-channels:10000}") int maxChannels) {
+        this.capacityPerChannel = capacityPerChannel;
+        // 오래 조용한 채널부터 버림
+        this.channels = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NavigableMap<Long, MessageDto>> eldest) {
+                return size() > maxChannels;
+            }
+        });
+    }
+
+    public void record(MessageDto message) {
+        if (message.getSeq() == null) {
+            return;
+        }
+        NavigableMap<Long, MessageDto> ring = channels.computeIfAbsent(message.getChannelId(), key -> new TreeMap<>());
+        synchronized (ring) {
+            ring.put(message.getSeq(), message);
+            while (ring.size() > capacityPerChannel) {
+                ring.pollFirstEntry();
+            }
+        }
+    }
+
+    // (afterSeq, upToSeq] 구간이 모두 있으면 순번 순으로 반환
+    public Optional<List<MessageDto>> range(String channelId, long afterSeq, long upToSeq) {
+        if (upToSeq <= afterSeq) {
+            return Optional.of(List.of());
+        }
+        NavigableMap<Long, MessageDto> ring = channels.get(channelId);
+        if (ring == null) {
+            return Optional.empty();
+        }
+        synchronized (ring) {
+            NavigableMap<Long, MessageDto> window = ring.subMap(afterSeq, false, upToSeq, true);
+            if (window.size() != upToSeq - afterSeq) {
+                return Optional.empty();
+            }
+            return Optional.of(new ArrayList<>(window.values()));
+        }
+    }
+
+    public void remove(String channelId) {
+        channels.remove(channelId);
+    }
+}
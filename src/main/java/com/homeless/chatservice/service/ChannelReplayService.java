@@ -0,0 +1,260 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.dto.HistoryFrameDto;
+import com.homeless.chatservice.dto.MessageDto;
+import com.homeless.chatservice.entity.ChatMessage;
+import com.homeless.chatservice.repository.ChatMessageStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// 구독 시점에 이력을 한 번에 보내는 서비스
+// SUBSCRIBE /topic/chat.channel.{id} 에 last-seq 헤더가 있으면 그 이후 메시지를 REPLAY 프레임으로,
+// snapshot: N 헤더가 있으면 최근 N개를 SNAPSHOT 프레임으로 해당 구독에만 보낸다.
+// 노드 로컬 재전송 버퍼에 구간이 모두 있으면 버퍼에서, 아니면 Mongo 에서 읽는다. (모두 replay 스레드에서)
+//
+// 경계 처리: 이력은 SUBSCRIBE 가 브로커 핸들러에서 처리된 뒤(afterMessageHandled)에 만든다.
+// simple broker 는 이 시점에 구독이 등록되어 있으므로 이후 저장된 메시지는 라이브로, 이전 메시지는 이력으로 받는다.
+// RabbitMQ relay 는 SUBSCRIBE 를 비동기로 처리하므로 gap-fill-delay-ms 뒤에 이력의 lastSeq 이후를 REPLAY 로 한 번 더 보낸다.
+// 그래서 이력 프레임보다 라이브 메시지가 먼저 오거나 같은 메시지를 두 번 받을 수 있다.
+// 클라이언트는 seq 로 합치고 중복을 버린다. (HistoryFrameDto 참고)
+@Service
+@Slf4j
+public class ChannelReplayService {
+
+    public static final String LAST_SEQ_HEADER = "last-seq";
+    public static final String SNAPSHOT_HEADER = "snapshot";
+    private static final String CHAT_DESTINATION = "/topic/chat.channel.";
+
+    private final ChannelReplayBuffer replayBuffer;
+    private final ChannelSequenceService sequenceService;
+    private final ChatMessageStore chatMessageStore;
+    private final DtoBuilder dtoBuilder;
+    // 브로커를 거치지 않고 특정 세션/구독으로 직접 보내는 템플릿 (@SubscribeMapping 응답과 같은 경로)
+    private final SimpMessagingTemplate clientTemplate;
+
+    @Value("${chat.replay.max-messages:500}")
+    private int maxReplayMessages;
+
+    @Value("${chat.replay.max-snapshot:100}")
+    private int maxSnapshotMessages;
+
+    @Value("${chat.replay.gap-fill-delay-ms:1000}")
+    private long gapFillDelayMs;
+
+    // 대기열이 가득 차면 RejectedExecutionException 으로 그 구독의 이력 전송을 건너뛴다.
+    private final ThreadPoolExecutor replayExecutor;
+    private final ScheduledExecutorService gapFillScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "channel-replay-gap-fill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ChannelReplayService(ChannelReplayBuffer replayBuffer,
+                                ChannelSequenceService sequenceService,
+                                ChatMessageStore chatMessageStore,
+                                DtoBuilder dtoBuilder,
+                                @Qualifier("clientInboundChannel") AbstractSubscribableChannel clientInboundChannel,
+                                @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                                @Qualifier("brokerMessageConverter") MessageConverter brokerMessageConverter,
+                                @Value("${chat.replay.threads:4}") int replayThreads,
+                                @Value("${chat.replay.queue-capacity:1000}") int replayQueueCapacity) {
+        this.replayBuffer = replayBuffer;
+        this.sequenceService = sequenceService;
+        this.chatMessageStore = chatMessageStore;
+        this.dtoBuilder = dtoBuilder;
+        this.clientTemplate = new SimpMessagingTemplate(clientOutboundChannel);
+        this.clientTemplate.setMessageConverter(brokerMessageConverter);
+        this.replayExecutor = new ThreadPoolExecutor(replayThreads, replayThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(replayQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "channel-replay");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        clientInboundChannel.addInterceptor(new SubscribeHandledInterceptor());
+    }
+
+    // lastSeq 이후 메시지 (최대 max-messages 개)
+    public HistoryFrameDto replaySince(String channelId, long lastSeq) {
+        long currentSeq = sequenceService.current(channelId);
+        long upToSeq = Math.min(currentSeq, lastSeq + maxReplayMessages);
+        boolean truncated = upToSeq < currentSeq;
+
+        Optional<List<MessageDto>> buffered = replayBuffer.range(channelId, lastSeq, upToSeq);
+        List<MessageDto> messages = buffered.orElseGet(() -> chatMessageStore
+                .findAfterSeq(channelId, lastSeq, (int) (upToSeq - lastSeq))
+                .stream()
+                .map(dtoBuilder::toMessageDto)
+                .toList());
+        long last = messages.isEmpty() ? lastSeq : messages.get(messages.size() - 1).getSeq();
+        return new HistoryFrameDto(HistoryFrameDto.REPLAY, channelId, last, truncated, messages);
+    }
+
+    // 최근 limit 개 메시지. 순번 이하만 담고, lastSeq 는 실제로 담긴 마지막 순번으로 한다.
+    // (순번은 발급됐지만 아직 저장되지 않은 메시지가 있으면 그 메시지는 라이브로 받아야 하므로)
+    public HistoryFrameDto snapshot(String channelId, int limit) {
+        int size = Math.max(1, Math.min(limit, maxSnapshotMessages));
+        long currentSeq = sequenceService.current(channelId);
+
+        List<MessageDto> messages;
+        if (currentSeq == 0) {
+            // 순번이 도입되기 전 메시지만 있는 채널
+            messages = ascending(chatMessageStore.findLatestByChannelId(channelId, size));
+        } else {
+            messages = replayBuffer.range(channelId, Math.max(0, currentSeq - size), currentSeq)
+                    .orElseGet(() -> ascending(chatMessageStore.findUpToSeq(channelId, currentSeq, size)));
+        }
+        long last = messages.stream()
+                .map(MessageDto::getSeq)
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0L);
+        return new HistoryFrameDto(HistoryFrameDto.SNAPSHOT, channelId, last, false, messages);
+    }
+
+    // 최신순으로 조회한 메시지를 오름차순 DTO 목록으로
+    private List<MessageDto> ascending(List<ChatMessage> latestFirst) {
+        List<MessageDto> messages = new ArrayList<>(latestFirst.size());
+        for (int i = latestFirst.size() - 1; i >= 0; i--) {
+            messages.add(dtoBuilder.toMessageDto(latestFirst.get(i)));
+        }
+        return messages;
+    }
+
+    // SUBSCRIBE 가 브로커 핸들러에서 처리된 뒤 호출된다.
+    private void onSubscribed(Message<?> message, boolean brokerRegistersSynchronously) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(CHAT_DESTINATION)) {
+            return;
+        }
+        String lastSeqHeader = accessor.getFirstNativeHeader(LAST_SEQ_HEADER);
+        String snapshotHeader = accessor.getFirstNativeHeader(SNAPSHOT_HEADER);
+        if (lastSeqHeader == null && snapshotHeader == null) {
+            return;
+        }
+
+        String channelId = destination.substring(CHAT_DESTINATION.length());
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        try {
+            // 재접속(last-seq)이 있으면 놓친 메시지만, 처음 여는 경우에는 최근 N개 스냅샷
+            // Mongo 조회가 있을 수 있으므로 inbound 스레드에서 분리
+            if (lastSeqHeader != null) {
+                long lastSeq = Long.parseLong(lastSeqHeader.trim());
+                replayExecutor.execute(() -> pushHistory(sessionId, subscriptionId, destination,
+                        () -> replaySince(channelId, lastSeq), brokerRegistersSynchronously));
+            } else {
+                int limit = Integer.parseInt(snapshotHeader.trim());
+                replayExecutor.execute(() -> pushHistory(sessionId, subscriptionId, destination,
+                        () -> snapshot(channelId, limit), brokerRegistersSynchronously));
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Invalid history header on subscribe to {}: last-seq={}, snapshot={}",
+                    destination, lastSeqHeader, snapshotHeader);
+        } catch (RejectedExecutionException e) {
+            log.warn("Replay executor is busy, skipping history for session {}", sessionId);
+        }
+    }
+
+    private void pushHistory(String sessionId, String subscriptionId, String destination,
+                             Supplier<HistoryFrameDto> history, boolean brokerRegistersSynchronously) {
+        HistoryFrameDto frame;
+        try {
+            frame = history.get();
+        } catch (RuntimeException e) {
+            log.error("Failed to load history for session {}: {}", sessionId, e.getMessage());
+            return;
+        }
+        pushToSubscription(sessionId, subscriptionId, destination, frame);
+        if (!brokerRegistersSynchronously) {
+            scheduleGapFill(sessionId, subscriptionId, destination, frame.channelId(), frame.lastSeq());
+        }
+    }
+
+    // 구독이 relay 에 등록되기 전에 저장된 메시지를 다시 보낸다. (없으면 보내지 않음)
+    private void scheduleGapFill(String sessionId, String subscriptionId, String destination,
+                                 String channelId, long lastSeq) {
+        try {
+            gapFillScheduler.schedule(() -> {
+                try {
+                    replayExecutor.execute(() -> {
+                        HistoryFrameDto gap = replaySince(channelId, lastSeq);
+                        if (!gap.messages().isEmpty()) {
+                            pushToSubscription(sessionId, subscriptionId, destination, gap);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    log.warn("Replay executor is busy, skipping gap fill for session {}", sessionId);
+                }
+            }, gapFillDelayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Gap fill scheduler is shut down");
+        }
+    }
+
+    // clientInboundChannel 의 SUBSCRIBE 처리가 브로커 핸들러에서 끝난 시점을 알려 준다.
+    private class SubscribeHandledInterceptor implements ExecutorChannelInterceptor {
+        @Override
+        public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                        Exception ex) {
+            if (ex == null && handler instanceof AbstractBrokerMessageHandler
+                    && SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.SUBSCRIBE) {
+                onSubscribed(message, handler instanceof SimpleBrokerMessageHandler);
+            }
+        }
+    }
+
+    void pushToSubscription(String sessionId, String subscriptionId, String destination, Object payload) {
+        try {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId(sessionId);
+            headers.setSubscriptionId(subscriptionId);
+            headers.setLeaveMutable(true);
+            clientTemplate.convertAndSend(destination, payload, headers.getMessageHeaders());
+        } catch (Exception e) {
+            log.error("Failed to push history to session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        gapFillScheduler.shutdownNow();
+        replayExecutor.shutdown();
+        try {
+            if (!replayExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                replayExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            replayExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.repository.ChatMessageStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// 채널별 메시지 순번 (Redis INCR 이므로 모든 노드에서 단조 증가)
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ChannelSequenceService {
+
+    // 키가 있을 때만 INCR, 없으면 0 (발급되는 순번은 1부터이므로 0 은 키가 없다는 뜻)
+    private static final DefaultRedisScript<Long> INCR_IF_EXISTS_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end
+            return redis.call('INCR', KEYS[1])
+            """, Long.class);
+
+    // 저장된 마지막 순번으로 키를 만든 뒤(이미 있으면 그대로) INCR
+    private static final DefaultRedisScript<Long> SEED_AND_INCR_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('SET', KEYS[1], ARGV[1], 'NX')
+            return redis.call('INCR', KEYS[1])
+            """, Long.class);
+
+    private final ChatMessageStore chatMessageStore;
+    private final ChannelKeyRegistry channelKeyRegistry;
+
+    @Qualifier("redisTemplate")
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public static String sequenceKey(String channelId) {
+        return "chat:channel:" + channelId + ":seq";
+    }
+
+    public long next(String channelId) {
+        String key = sequenceKey(channelId);
+        channelKeyRegistry.register(channelId, key);
+        Long seq = redisTemplate.execute(INCR_IF_EXISTS_SCRIPT, List.of(key));
+        if (seq != null && seq == 0) {
+            // 키가 처음 생겼거나 Redis 데이터가 사라진 경우: 저장된 마지막 순번 이후부터 이어서 발급
+            // 여러 노드가 동시에 여기로 와도 SET NX 는 하나만 성공하므로 순번이 겹치지 않는다.
+            long stored = chatMessageStore.findMaxSeq(channelId).orElse(0L);
+            seq = redisTemplate.execute(SEED_AND_INCR_SCRIPT, List.of(key), String.valueOf(stored));
+            if (seq != null && stored > 0 && seq == stored + 1) {
+                log.warn("Sequence for channel {} restarted, continuing after stored seq {}", channelId, stored);
+            }
+        }
+        if (seq == null) {
+            throw new IllegalStateException("Failed to assign sequence for channel " + channelId);
+        }
+        return seq;
+    }
+
+    // 지금까지 발급된 마지막 순번 (메시지가 없으면 0)
+    public long current(String channelId) {
+        String value = redisTemplate.opsForValue().get(sequenceKey(channelId));
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+}
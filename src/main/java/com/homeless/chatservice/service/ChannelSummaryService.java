@@ -0,0 +1,423 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.dto.ChannelSummaryResponse;
+import com.homeless.chatservice.dto.MessageDto;
+import com.homeless.chatservice.dto.MessageType;
+import com.homeless.chatservice.entity.ChannelReadMarker;
+import com.homeless.chatservice.entity.ChannelSummary;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 채널 목록용 요약(마지막 메시지, 안 읽은 메시지 수)
+// 메시지마다 Redis 의 채널 요약 해시를 순번이 더 클 때만 갱신하고, 변경된 채널/사용자는 dirty 집합에 모았다가
+// flush-interval-ms 마다 Mongo 에 일괄 저장한다. 채널 목록을 열 때 채널마다 메시지를 조회하지 않는다.
+// 안 읽은 수는 채널 마지막 순번 - 사용자가 마지막으로 읽은 순번.
+// Redis 의 요약/읽음 해시는 쓸 때마다 cache-ttl-ms 로 만료를 늘리고, Mongo 에서 채웠다는 표시(:loaded)는
+// 채운 해시들과 같은 스크립트에서 같은 만료로 설정한다. 표시가 해시보다 오래 남아 빈 목록을 돌려주는 일이 없다.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ChannelSummaryService {
+
+    private static final String SUMMARY_DIRTY_KEY = "chat:summary:dirty";
+    private static final String READ_DIRTY_KEY = "chat:read:dirty";
+    private static final int PREVIEW_LENGTH = 100;
+    private static final int FLUSH_BATCH = 500;
+    private static final int DUPLICATE_KEY_CODE = 11000;
+
+    // 순번이 더 클 때만 요약을 덮어쓴다. 노드 간 전송 순서가 뒤바뀌어도 오래된 메시지가 마지막 메시지가 되지 않는다.
+    private static final DefaultRedisScript<Long> UPDATE_SUMMARY_SCRIPT = new DefaultRedisScript<>("""
+            local current = tonumber(redis.call('HGET', KEYS[1], 'lastSeq') or '0')
+            if tonumber(ARGV[1]) <= current then
+              redis.call('PEXPIRE', KEYS[1], ARGV[11])
+              return 0
+            end
+            redis.call('HSET', KEYS[1], 'lastSeq', ARGV[1], 'serverId', ARGV[3], 'lastChatId', ARGV[4],
+              'writer', ARGV[5], 'email', ARGV[6], 'preview', ARGV[7], 'messageType', ARGV[8], 'timestamp', ARGV[9])
+            redis.call('PEXPIRE', KEYS[1], ARGV[11])
+            redis.call('SADD', KEYS[2], ARGV[2])
+            redis.call('PEXPIRE', KEYS[2], ARGV[11])
+            if ARGV[10] == '1' then redis.call('SADD', KEYS[3], ARGV[2]) end
+            return 1
+            """, Long.class);
+
+    // 읽음 위치는 앞으로만 이동
+    private static final DefaultRedisScript<Long> MARK_READ_SCRIPT = new DefaultRedisScript<>("""
+            local current = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0')
+            if tonumber(ARGV[2]) <= current then
+              redis.call('PEXPIRE', KEYS[1], ARGV[5])
+              return 0
+            end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[5])
+            if ARGV[3] == '1' then redis.call('SADD', KEYS[2], ARGV[4]) end
+            return 1
+            """, Long.class);
+
+    // KEYS[1] 의 채웠다는 표시와 나머지 키(채운 해시/집합)의 만료를 한 번에 맞춘다.
+    private static final DefaultRedisScript<Long> MARK_LOADED_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('SET', KEYS[1], '1', 'PX', ARGV[1])
+            for i = 2, #KEYS do redis.call('PEXPIRE', KEYS[i], ARGV[1]) end
+            return 1
+            """, Long.class);
+
+    @Qualifier("redisTemplate")
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final ChannelSequenceService sequenceService;
+    private final ChannelKeyRegistry channelKeyRegistry;
+
+    @Value("${chat.summary.flush-interval-ms:5000}")
+    private long flushIntervalMs;
+
+    // 마지막으로 쓴 뒤 이 시간이 지나면 Redis 에서 지우고 다음 조회 때 Mongo 에서 다시 채운다. (flush 간격보다 충분히 길게)
+    @Value("${chat.summary.cache-ttl-ms:86400000}")
+    private long cacheTtlMs;
+
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "channel-summary-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static String summaryKey(String channelId) {
+        return "chat:channel:" + channelId + ":summary";
+    }
+
+    private static String serverChannelsKey(String serverId) {
+        return "chat:server:" + serverId + ":channels";
+    }
+
+    private static String readKey(String email) {
+        return "chat:read:" + email;
+    }
+
+    // Mongo 에서 한 번 채웠다는 표시. 요약/읽음 키는 onMessage 가 먼저 다시 만들 수 있으므로 키 존재로 판단하지 않는다.
+    private static String serverLoadedKey(String serverId) {
+        return "chat:server:" + serverId + ":loaded";
+    }
+
+    private static String readLoadedKey(String email) {
+        return "chat:read:" + email + ":loaded";
+    }
+
+    @PostConstruct
+    public void init() {
+        flushScheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // 메시지 저장 직후 호출. 보낸 사람은 자기 메시지까지 읽은 것으로 처리한다.
+    public void onMessage(String serverId, MessageDto message) {
+        if (serverId == null || message.getSeq() == null) {
+            return;
+        }
+        try {
+            writeSummary(serverId, message.getChannelId(), message.getSeq(), message.getChatId(), message.getWriter(),
+                    message.getEmail(), preview(message), message.getMessageType(), System.currentTimeMillis(), true);
+            if (message.getEmail() != null) {
+                writeReadMarker(message.getEmail(), message.getChannelId(), message.getSeq(), true);
+            }
+        } catch (Exception e) {
+            // 요약은 부가 정보이므로 실패해도 메시지 전송은 계속한다.
+            log.warn("Failed to update summary for channel {}: {}", message.getChannelId(), e.getMessage());
+        }
+    }
+
+    // seq 가 없으면 채널의 현재 순번까지 읽음 처리
+    public long markRead(String email, String channelId, Long seq) {
+        long readSeq = seq != null ? seq : sequenceService.current(channelId);
+        loadReadMarkersIfAbsent(email);
+        writeReadMarker(email, channelId, readSeq, true);
+        return readSeq;
+    }
+
+    // 서버의 채널 요약 목록 (최근 메시지 순)
+    public List<ChannelSummaryResponse> getSummaries(String serverId, String email) {
+        loadSummariesIfAbsent(serverId);
+        Set<String> channelIds = redisTemplate.opsForSet().members(serverChannelsKey(serverId));
+        if (channelIds == null || channelIds.isEmpty()) {
+            return List.of();
+        }
+        List<String> channels = new ArrayList<>(channelIds);
+        List<Object> hashes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String channelId : channels) {
+                connection.hashCommands().hGetAll(bytes(summaryKey(channelId)));
+            }
+            return null;
+        });
+
+        Map<Object, Object> readMarkers = email != null ? loadReadMarkersIfAbsent(email) : Map.of();
+        List<ChannelSummaryResponse> summaries = new ArrayList<>(channels.size());
+        for (int i = 0; i < channels.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> hash = (Map<String, String>) hashes.get(i);
+            if (hash == null || hash.isEmpty()) {
+                // 삭제된 채널
+                continue;
+            }
+            String channelId = channels.get(i);
+            long lastSeq = parseLong(hash.get("lastSeq"));
+            long lastReadSeq = parseLong((String) readMarkers.get(channelId));
+            summaries.add(ChannelSummaryResponse.builder()
+                    .channelId(channelId)
+                    .lastChatId(emptyToNull(hash.get("lastChatId")))
+                    .lastSeq(lastSeq)
+                    .writer(emptyToNull(hash.get("writer")))
+                    .preview(emptyToNull(hash.get("preview")))
+                    .messageType(parseMessageType(hash.get("messageType")))
+                    .timestamp(parseLong(hash.get("timestamp")))
+                    .lastReadSeq(lastReadSeq)
+                    .unreadCount(Math.max(0, lastSeq - lastReadSeq))
+                    .build());
+        }
+        summaries.sort(Comparator.comparing(ChannelSummaryResponse::timestamp, Comparator.nullsLast(Comparator.reverseOrder())));
+        return summaries;
+    }
+
+    // 채널 삭제 시 Redis/Mongo 요약 정리 (사용자 읽음 위치는 목록에 나오지 않으므로 그대로 둔다)
+    public void removeChannel(String channelId) {
+        String key = summaryKey(channelId);
+        Object serverId = redisTemplate.opsForHash().get(key, "serverId");
+        if (serverId != null) {
+            redisTemplate.opsForSet().remove(serverChannelsKey(serverId.toString()), channelId);
+        }
+        redisTemplate.delete(key);
+        redisTemplate.opsForSet().remove(SUMMARY_DIRTY_KEY, channelId);
+        ChannelSummary stored = mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(channelId)), ChannelSummary.class);
+        if (serverId == null && stored != null && stored.getServerId() != null) {
+            redisTemplate.opsForSet().remove(serverChannelsKey(stored.getServerId()), channelId);
+        }
+    }
+
+    private void writeSummary(String serverId, String channelId, long seq, String chatId, String writer, String email,
+                              String preview, MessageType messageType, Long timestamp, boolean markDirty) {
+        channelKeyRegistry.register(channelId, summaryKey(channelId));
+        redisTemplate.execute(UPDATE_SUMMARY_SCRIPT,
+                List.of(summaryKey(channelId), serverChannelsKey(serverId), SUMMARY_DIRTY_KEY),
+                String.valueOf(seq), channelId, serverId, nullToEmpty(chatId), nullToEmpty(writer), nullToEmpty(email),
+                nullToEmpty(preview), messageType != null ? messageType.name() : "",
+                timestamp != null ? String.valueOf(timestamp) : "", markDirty ? "1" : "0", String.valueOf(cacheTtlMs));
+    }
+
+    private void writeReadMarker(String email, String channelId, long seq, boolean markDirty) {
+        redisTemplate.execute(MARK_READ_SCRIPT, List.of(readKey(email), READ_DIRTY_KEY),
+                channelId, String.valueOf(seq), markDirty ? "1" : "0", email, String.valueOf(cacheTtlMs));
+    }
+
+    // Redis 가 비어 있으면(재시작, 만료) Mongo 에 저장된 요약으로 채운다.
+    // 그 사이 onMessage 로 들어온 요약은 순번이 더 크면 그대로 남으므로 여러 노드가 같이 채워도 된다.
+    private void loadSummariesIfAbsent(String serverId) {
+        Boolean loaded = redisTemplate.hasKey(serverLoadedKey(serverId));
+        if (Boolean.TRUE.equals(loaded)) {
+            return;
+        }
+        List<ChannelSummary> stored = mongoTemplate.find(Query.query(Criteria.where("serverId").is(serverId)), ChannelSummary.class);
+        for (ChannelSummary summary : stored) {
+            if (summary.getLastSeq() == null) {
+                continue;
+            }
+            writeSummary(serverId, summary.getChannelId(), summary.getLastSeq(), summary.getLastChatId(), summary.getWriter(),
+                    summary.getEmail(), summary.getPreview(), summary.getMessageType(), summary.getTimestamp(), false);
+        }
+        // 채운 요약과 onMessage 로 먼저 들어온 요약 모두 표시와 같은 시점에 만료되도록 맞춘다.
+        Set<String> channelIds = redisTemplate.opsForSet().members(serverChannelsKey(serverId));
+        List<String> keys = new ArrayList<>();
+        keys.add(serverLoadedKey(serverId));
+        keys.add(serverChannelsKey(serverId));
+        if (channelIds != null) {
+            channelIds.forEach(channelId -> keys.add(summaryKey(channelId)));
+        }
+        redisTemplate.execute(MARK_LOADED_SCRIPT, keys, String.valueOf(cacheTtlMs));
+        log.debug("Loaded {} channel summaries for server {} from MongoDB", stored.size(), serverId);
+    }
+
+    // 읽음 위치는 앞으로만 이동하므로 Redis 에 먼저 기록된 위치와 합쳐도 된다.
+    private Map<Object, Object> loadReadMarkersIfAbsent(String email) {
+        Boolean loaded = redisTemplate.hasKey(readLoadedKey(email));
+        if (!Boolean.TRUE.equals(loaded)) {
+            ChannelReadMarker stored = mongoTemplate.findById(email, ChannelReadMarker.class);
+            if (stored != null && stored.getMarkers() != null) {
+                stored.getMarkers().forEach((channelId, seq) -> {
+                    if (seq != null) {
+                        writeReadMarker(email, channelId, seq, false);
+                    }
+                });
+            }
+            redisTemplate.execute(MARK_LOADED_SCRIPT, List.of(readLoadedKey(email), readKey(email)), String.valueOf(cacheTtlMs));
+        }
+        return redisTemplate.opsForHash().entries(readKey(email));
+    }
+
+    // dirty 집합을 SPOP 으로 꺼내므로 여러 노드가 동시에 flush 해도 같은 항목을 두 번 저장하지 않는다.
+    void flush() {
+        try {
+            flushSummaries();
+        } catch (Exception e) {
+            log.error("Failed to flush channel summaries: {}", e.getMessage(), e);
+        }
+        try {
+            flushReadMarkers();
+        } catch (Exception e) {
+            log.error("Failed to flush read markers: {}", e.getMessage(), e);
+        }
+    }
+
+    private void flushSummaries() {
+        List<String> channelIds;
+        while (!(channelIds = pop(SUMMARY_DIRTY_KEY)).isEmpty()) {
+            List<String> channels = channelIds;
+            List<Object> hashes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String channelId : channels) {
+                    connection.hashCommands().hGetAll(bytes(summaryKey(channelId)));
+                }
+                return null;
+            });
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChannelSummary.class);
+            int operations = 0;
+            for (int i = 0; i < channels.size(); i++) {
+                @SuppressWarnings("unchecked")
+                Map<String, String> hash = (Map<String, String>) hashes.get(i);
+                if (hash == null || hash.isEmpty()) {
+                    continue;
+                }
+                long lastSeq = parseLong(hash.get("lastSeq"));
+                // 저장된 순번보다 클 때만 덮어쓴다.
+                Query query = Query.query(Criteria.where("_id").is(channels.get(i))
+                        .orOperator(Criteria.where("lastSeq").lt(lastSeq), Criteria.where("lastSeq").exists(false)));
+                Update update = new Update()
+                        .set("serverId", hash.get("serverId"))
+                        .set("lastChatId", emptyToNull(hash.get("lastChatId")))
+                        .set("lastSeq", lastSeq)
+                        .set("writer", emptyToNull(hash.get("writer")))
+                        .set("email", emptyToNull(hash.get("email")))
+                        .set("preview", emptyToNull(hash.get("preview")))
+                        .set("messageType", emptyToNull(hash.get("messageType")))
+                        .set("timestamp", parseLong(hash.get("timestamp")));
+                bulk.upsert(query, update);
+                operations++;
+            }
+            if (operations > 0) {
+                executeIgnoringStale(bulk);
+            }
+        }
+    }
+
+    private void flushReadMarkers() {
+        List<String> emails;
+        while (!(emails = pop(READ_DIRTY_KEY)).isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChannelReadMarker.class);
+            int operations = 0;
+            for (String email : emails) {
+                Map<Object, Object> markers = redisTemplate.opsForHash().entries(readKey(email));
+                if (markers.isEmpty()) {
+                    continue;
+                }
+                Update update = new Update();
+                // $max 로 저장해서 늦게 도착한 flush 가 읽음 위치를 되돌리지 않는다.
+                markers.forEach((channelId, seq) -> update.max("markers." + channelId, parseLong((String) seq)));
+                bulk.upsert(Query.query(Criteria.where("_id").is(email)), update);
+                operations++;
+            }
+            if (operations > 0) {
+                bulk.execute();
+            }
+        }
+    }
+
+    // 다른 노드가 더 최신 요약을 먼저 저장한 채널은 _id 중복으로 실패한다. UNORDERED 라 나머지는 그대로 저장된다.
+    // 일괄 쓰기 실패는 BulkOperationException 으로 오므로 모든 오류가 중복 키일 때만 무시한다.
+    private void executeIgnoringStale(BulkOperations bulk) {
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            boolean onlyStale = !e.getErrors().isEmpty()
+                    && e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY_CODE);
+            if (!onlyStale) {
+                throw e;
+            }
+            log.debug("Skipped {} stale channel summaries", e.getErrors().size());
+        } catch (DuplicateKeyException e) {
+            log.debug("Skipped stale channel summaries: {}", e.getMessage());
+        }
+    }
+
+    private List<String> pop(String key) {
+        List<String> popped = redisTemplate.opsForSet().pop(key, FLUSH_BATCH);
+        return popped != null ? popped : List.of();
+    }
+
+    private static String preview(MessageDto message) {
+        String text = message.getContent() != null ? message.getContent() : message.getFileName();
+        if (text == null) {
+            return null;
+        }
+        return text.length() > PREVIEW_LENGTH ? text.substring(0, PREVIEW_LENGTH) : text;
+    }
+
+    private static MessageType parseMessageType(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return MessageType.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long parseLong(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        flushScheduler.shutdown();
+        // 종료 전에 남은 변경을 저장
+        flush();
+    }
+}
@@ -4,12 +4,16 @@ import com.homeless.chatservice.common.config.AwsS3Config;
 import com.homeless.chatservice.dto.ChatMessageCreateCommand;
 import com.homeless.chatservice.dto.ChatMessageResponse;
 import com.homeless.chatservice.dto.CommonResDto;
+import com.homeless.chatservice.dto.LatestMessagesResponse;
 import com.homeless.chatservice.entity.ChatMessage;
-import com.homeless.chatservice.repository.ChatMessageRepository;
+import com.homeless.chatservice.repository.ChatMessageStore;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -17,9 +21,17 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @Transactional
@@ -27,12 +39,47 @@ import java.util.Optional;
 @Slf4j
 public class ChatHttpService {
 
-    private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageStore chatMessageStore;
     private final AwsS3Config awsS3Config;
     private final FileService fileService;
+    private final ThumbnailService thumbnailService;
+
+    @Value("${chat.history.bulk.max-channels:100}")
+    private int bulkMaxChannels;
+
+    @Value("${chat.history.bulk.max-per-channel:50}")
+    private int bulkMaxPerChannel;
+
+    @Value("${chat.history.bulk.threads:8}")
+    private int bulkThreads;
+
+    @Value("${chat.history.bulk.queue-capacity:200}")
+    private int bulkQueueCapacity;
+
+    // 여러 채널 최신 메시지 조회용 (Mongo 커넥션 풀을 요청들이 다 쓰지 않도록 동시 실행 수 제한)
+    private ThreadPoolExecutor bulkHistoryExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // 큐가 가득 차면 요청 스레드에서 직접 조회해서, 대기열이 끝없이 쌓이는 대신 요청이 느려지도록 한다.
+        bulkHistoryExecutor = new ThreadPoolExecutor(
+                bulkThreads, bulkThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(bulkQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-history-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
 
     // 채팅 메시지 생성 및 저장
     public String createChatMessage(ChatMessageCreateCommand command) {
+        // 썸네일이 이미 만들어졌다면 함께 저장 (아직이면 생성 완료 시점에 채워짐)
+        Optional<ThumbnailService.ImageDerivatives> derivatives = thumbnailService.findDerivatives(command.fileUrl());
+
         // 채팅 메시지 생성
         ChatMessage chatMessage = ChatMessage.builder()
                 .serverId(command.serverId())
@@ -42,13 +89,24 @@ public class ChatHttpService {
                 .email(command.email())
                 .messageType(command.messageType())
                 .timestamp(System.currentTimeMillis())
+                .seq(command.seq())
+                .channelType(command.channelType())
                 .fileUrl(command.fileUrl())
                 .fileName(command.fileName())
+                .thumbnail(derivatives.map(ThumbnailService.ImageDerivatives::thumbnail).orElse(null))
+                .preview(derivatives.map(ThumbnailService.ImageDerivatives::preview).orElse(null))
                 .build();
 
         // MongoDB에 저장
-        ChatMessage savedMessage = chatMessageRepository.save(chatMessage);
-        return savedMessage.getId();
+        String chatId = chatMessageStore.save(chatMessage);
+
+        // 조회와 저장 사이에 썸네일 생성이 끝났다면 생성 쪽 갱신은 아직 없던 이 메시지를 놓쳤을 수 있으므로 다시 확인한다.
+        // 생성 쪽은 캐시를 먼저 쓰고 메시지를 갱신하므로, 여기서 캐시가 비어 있으면 그 갱신은 저장 이후에 실행되어 이 메시지도 채운다.
+        if (derivatives.isEmpty() && command.fileUrl() != null) {
+            thumbnailService.findDerivatives(command.fileUrl()).ifPresent(ready ->
+                    chatMessageStore.updateImageVariants(command.fileUrl(), ready.thumbnail(), ready.preview()));
+        }
+        return chatId;
     }
 
     public Page<ChatMessageResponse> getMessagesByChannel(String channelId, int page, int size) {
@@ -61,18 +119,45 @@ public class ChatHttpService {
         Pageable pageable = PageRequest.of(page, size);
 
         // lastId가 있는 경우 이후 메시지 조회, 없는 경우 전체 조회
-        Page<ChatMessage> messages = chatMessageRepository.findByChannelIdOrderByTimestampDesc(channelId, pageable);
+        Page<ChatMessage> messages = chatMessageStore.findPageByChannelId(channelId, pageable);
 
         // 결과를 ChatMessageResponse로 변환하여 반환
-        return messages.map(msg -> new ChatMessageResponse(
-                msg.getId(), // ObjectId를 문자열로 변환
-                msg.getEmail(),
-                msg.getContent(),
-                msg.getWriter(),
-                msg.getTimestamp(),
-                msg.getFileUrl(),
-                msg.getFileName()
-        ));
+        return messages.map(this::toResponse);
+    }
+
+    // 여러 채널의 최신 메시지를 한 번에 조회 (채널마다 limit 개, 최신순)
+    // 채널은 bulkMaxChannels 개씩 나눠서 page 번째 묶음만 조회한다.
+    public LatestMessagesResponse getLatestMessages(Collection<String> channelIds, int limit, int page) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit은 1 이상의 값이어야 합니다.");
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("페이지 번호는 0 이상이어야 합니다.");
+        }
+        List<String> distinct = channelIds.stream().distinct().toList();
+        int from = (int) Math.min((long) page * bulkMaxChannels, distinct.size());
+        int to = Math.min(from + bulkMaxChannels, distinct.size());
+        List<String> channels = distinct.subList(from, to);
+        int size = Math.min(limit, bulkMaxPerChannel);
+
+        Map<String, CompletableFuture<List<ChatMessageResponse>>> futures = new LinkedHashMap<>();
+        for (String channelId : channels) {
+            futures.put(channelId, CompletableFuture.supplyAsync(() -> chatMessageStore
+                    .findLatestByChannelId(channelId, size)
+                    .stream()
+                    .map(this::toResponse)
+                    .toList(), bulkHistoryExecutor));
+        }
+
+        Map<String, List<ChatMessageResponse>> result = new LinkedHashMap<>();
+        futures.forEach((channelId, future) -> result.put(channelId, future.join()));
+        return new LatestMessagesResponse(result, to < distinct.size() ? page + 1 : null);
+    }
+
+    // 서버(serverId)에 속한 모든 채널의 최신 메시지 (페이지가 요청마다 같은 채널을 가리키도록 정렬)
+    public LatestMessagesResponse getLatestMessagesByServer(String serverId, int limit, int page) {
+        List<String> channelIds = chatMessageStore.findChannelIdsByServerId(serverId).stream().sorted().toList();
+        return getLatestMessages(channelIds, limit, page);
     }
 
     public Page<ChatMessageResponse> searchMessagesByChannel(String channelId, String keyword, int page, int size) {
@@ -85,18 +170,10 @@ public class ChatHttpService {
         Pageable pageable = PageRequest.of(page, size);
 
         // MongoDB에서 채널 내 메시지 검색 (content에 keyword가 포함된 메시지)
-        Page<ChatMessage> messages = chatMessageRepository
-                .findByChannelIdAndContentContainingOrderByTimestampDesc(channelId, keyword, pageable);
+        Page<ChatMessage> messages = chatMessageStore.searchByContent(channelId, keyword, pageable);
 
         // 검색된 메시지를 ChatMessageResponse로 변환하여 반환
-        return messages.map(msg -> new ChatMessageResponse(
-                msg.getId(), // ObjectId를 문자열로 변환
-                msg.getEmail(),
-                msg.getContent(),
-                msg.getWriter(),
-                msg.getTimestamp(),
-                msg.getFileUrl(),
-                msg.getFileName()));
+        return messages.map(this::toResponse);
     }
 
     public Page<ChatMessageResponse> searchMessagesByWriter(String channelId, String keyword, int page, int size) {
@@ -108,34 +185,26 @@ public class ChatHttpService {
         Pageable pageable = PageRequest.of(page, size);
 
         // MongoDB에서 채널 내 메시지 검색 (content에 keyword가 포함된 메시지)
-        Page<ChatMessage> messages = chatMessageRepository
-                .findByChannelIdAndWriterContainingOrderByTimestampDesc(channelId, keyword, pageable);
+        Page<ChatMessage> messages = chatMessageStore.searchByWriter(channelId, keyword, pageable);
 
         // 검색된 메시지를 ChatMessageResponse로 변환하여 반환
-        return messages.map(msg -> new ChatMessageResponse(
-                msg.getId(), // ObjectId를 문자열로 변환
-                msg.getEmail(),
-                msg.getContent(),
-                msg.getWriter(),
-                msg.getTimestamp(),
-                msg.getFileUrl(),
-                msg.getFileName()));
+        return messages.map(this::toResponse);
     }
 
 
     // 메시지 삭제
     public void deleteMessage(String chatId) throws Exception {
-        ChatMessage chatMessage = chatMessageRepository.findById(chatId).orElseThrow();
+        ChatMessage chatMessage = chatMessageStore.findById(chatId).orElseThrow();
 
-        chatMessageRepository.deleteById(chatId);
+        chatMessageStore.deleteById(chatId);
     }
 
     // 메시지 컨텐츠 업데이트
     public void updateMessage(String chatId, String reqMessage) throws Exception {
-        ChatMessage chatMessage = chatMessageRepository.findById(chatId).orElseThrow();
+        ChatMessage chatMessage = chatMessageStore.findById(chatId).orElseThrow();
 
         if (!chatMessage.getContent().equals(reqMessage)) {
-            chatMessageRepository.updateContent(chatId, reqMessage); // 변경된 내용만 저장
+            chatMessageStore.updateContent(chatId, reqMessage); // 변경된 내용만 저장
         }
 
     }
@@ -143,7 +212,7 @@ public class ChatHttpService {
     // 메시지 조
     public Optional<ChatMessage> getChatMessage(String chatId) {
         try {
-            return chatMessageRepository.findById(chatId);
+            return chatMessageStore.findById(chatId);
         } catch (IllegalArgumentException e) {
             log.error("Invalid chatId format", e);
             return Optional.empty();
@@ -154,13 +223,35 @@ public class ChatHttpService {
     @Transactional
     public void deleteChatMessageByChannelId(String channelId) throws Exception {
         fileService.deleteChatMessagesWithFileByChannelId(channelId);
-        chatMessageRepository.deleteChatMessageByChannelId(channelId);
+        chatMessageStore.deleteByChannelId(channelId);
     }
 
     public boolean isInvalidSize(int size) {
         return size <= 0;
     }
 
+    @PreDestroy
+    public void cleanup() {
+        if (bulkHistoryExecutor != null) {
+            bulkHistoryExecutor.shutdownNow();
+        }
+    }
+
+    // 엔티티 -> 응답 DTO 변환
+    private ChatMessageResponse toResponse(ChatMessage msg) {
+        return new ChatMessageResponse(
+                msg.getId(), // ObjectId를 문자열로 변환
+                msg.getEmail(),
+                msg.getContent(),
+                msg.getWriter(),
+                msg.getTimestamp(),
+                msg.getSeq(),
+                msg.getFileUrl(),
+                msg.getFileName(),
+                msg.getThumbnail(),
+                msg.getPreview());
+    }
+
 
 
 
@@ -0,0 +1,185 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.entity.ChatMessage;
+import com.homeless.chatservice.entity.ChatMessageBucket;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+// chatMessages(메시지당 문서) -> chatMessageBuckets(채널별 묶음) 이전 도구
+// chat.storage.migration.enabled=true 로 한 인스턴스에서 실행한다. 채널마다 마지막으로 옮긴 메시지 위치(timestamp, id)를
+// chatMessageMigrationCursors 에 따로 저장하고 그 이후 원본만 옮기므로, 중간에 멈춰도 다시 실행하면 이어서 진행되고
+// 전환 후(BUCKETED 로 새 메시지가 묶음에 쌓이는 중)에 한 번 더 돌려서 그 사이 원본에 남은 메시지를 옮길 수 있다.
+// 묶음 id 는 묶음의 첫 메시지 id 로 정하고 upsert 하므로, 저장 후 위치 기록 전에 멈춰서 다시 옮겨도 묶음이 중복되지 않는다.
+// delete-source 는 조회가 묶음에서 이뤄질 때(chat.storage.layout=BUCKETED)만 허용한다.
+// 메시지 id 를 그대로 유지하므로 클라이언트가 가진 chatId 는 전환 후에도 유효하다.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "chat.storage.migration.enabled", havingValue = "true")
+public class ChatMessageBucketMigration implements ApplicationRunner {
+
+    private static final int INSERT_BATCH = 50;
+    private static final String CURSOR_COLLECTION = "chatMessageMigrationCursors";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${chat.storage.bucket.max-messages:200}")
+    private int maxMessages;
+
+    @Value("${chat.storage.bucket.max-span-ms:3600000}")
+    private long maxSpanMs;
+
+    // 옮긴 메시지의 원본 문서 삭제 여부
+    @Value("${chat.storage.migration.delete-source:false}")
+    private boolean deleteSource;
+
+    @Value("${chat.storage.layout:DOCUMENT}")
+    private String layout;
+
+    private record Cursor(long timestamp, String chatId) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (deleteSource && !"BUCKETED".equalsIgnoreCase(layout)) {
+            // DOCUMENT 로 읽는 중에 원본을 지우면 아직 조회 중인 이력이 사라진다.
+            throw new IllegalStateException(
+                    "chat.storage.migration.delete-source requires chat.storage.layout=BUCKETED (current: " + layout + ")");
+        }
+        List<String> channelIds = mongoTemplate.findDistinct(new Query(), "channelId", ChatMessage.class, String.class);
+        log.info("Migrating {} channels to bucketed storage", channelIds.size());
+        long migrated = 0;
+        for (String channelId : channelIds) {
+            try {
+                migrated += migrateChannel(channelId);
+            } catch (Exception e) {
+                log.error("Failed to migrate channel {}: {}", channelId, e.getMessage(), e);
+            }
+        }
+        log.info("Bucket migration finished: {} messages in {} channels", migrated, channelIds.size());
+    }
+
+    private long migrateChannel(String channelId) {
+        Criteria criteria = Criteria.where("channelId").is(channelId);
+        Cursor cursor = loadCursor(channelId);
+        if (cursor != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("timestamp").gt(cursor.timestamp()),
+                    Criteria.where("timestamp").is(cursor.timestamp()).and("_id").gt(new ObjectId(cursor.chatId())));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "timestamp").and(Sort.by(Sort.Direction.ASC, "_id")));
+
+        List<ChatMessageBucket> pending = new ArrayList<>();
+        List<ChatMessage> current = new ArrayList<>();
+        long count = 0;
+        try (Stream<ChatMessage> messages = mongoTemplate.stream(query, ChatMessage.class)) {
+            var iterator = messages.iterator();
+            while (iterator.hasNext()) {
+                ChatMessage message = iterator.next();
+                if (!current.isEmpty() && (current.size() >= maxMessages
+                        || message.getTimestamp() - current.get(0).getTimestamp() >= maxSpanMs)) {
+                    pending.add(toBucket(current));
+                    current = new ArrayList<>();
+                    if (pending.size() >= INSERT_BATCH) {
+                        insert(channelId, pending);
+                        pending.clear();
+                    }
+                }
+                current.add(message);
+                count++;
+            }
+        }
+        if (!current.isEmpty()) {
+            pending.add(toBucket(current));
+        }
+        if (!pending.isEmpty()) {
+            insert(channelId, pending);
+        }
+        log.debug("Migrated {} messages of channel {}", count, channelId);
+        return count;
+    }
+
+    // 묶음 저장 -> 옮긴 위치 기록 -> 그 묶음에 들어간 원본 삭제 순서로 진행한다. (조회 이후 들어온 메시지는 다음 실행에서 옮긴다)
+    private void insert(String channelId, List<ChatMessageBucket> buckets) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatMessageBucket.class);
+        for (ChatMessageBucket bucket : buckets) {
+            operations.replaceOne(new Query(Criteria.where("id").is(bucket.getId())), bucket,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        operations.execute();
+
+        List<ChatMessage> last = buckets.get(buckets.size() - 1).getMessages();
+        ChatMessage lastMessage = last.get(last.size() - 1);
+        saveCursor(channelId, new Cursor(lastMessage.getTimestamp(), lastMessage.getId()));
+
+        if (!deleteSource) {
+            return;
+        }
+        List<String> migratedIds = buckets.stream()
+                .flatMap(bucket -> bucket.getMessages().stream())
+                .map(ChatMessage::getId)
+                .toList();
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(migratedIds)), ChatMessage.class);
+    }
+
+    private Cursor loadCursor(String channelId) {
+        Document cursor = mongoTemplate.getCollection(CURSOR_COLLECTION).find(Filters.eq("_id", channelId)).first();
+        if (cursor == null) {
+            return null;
+        }
+        return new Cursor(cursor.getLong("timestamp"), cursor.getString("chatId"));
+    }
+
+    private void saveCursor(String channelId, Cursor cursor) {
+        Document document = new Document("_id", channelId)
+                .append("timestamp", cursor.timestamp())
+                .append("chatId", cursor.chatId())
+                .append("updatedAt", new Date());
+        mongoTemplate.getCollection(CURSOR_COLLECTION)
+                .replaceOne(Filters.eq("_id", channelId), document, new ReplaceOptions().upsert(true));
+    }
+
+    private static ChatMessageBucket toBucket(List<ChatMessage> messages) {
+        ChatMessage first = messages.get(0);
+        Long firstSeq = null;
+        Long lastSeq = null;
+        for (ChatMessage message : messages) {
+            if (message.getSeq() != null) {
+                firstSeq = firstSeq == null ? message.getSeq() : Math.min(firstSeq, message.getSeq());
+                lastSeq = lastSeq == null ? message.getSeq() : Math.max(lastSeq, message.getSeq());
+            }
+        }
+        return ChatMessageBucket.builder()
+                .id(first.getId())
+                .serverId(first.getServerId())
+                .channelId(first.getChannelId())
+                .startTimestamp(first.getTimestamp())
+                .endTimestamp(messages.get(messages.size() - 1).getTimestamp())
+                .firstSeq(firstSeq)
+                .lastSeq(lastSeq)
+                .count(messages.size())
+                .messages(List.copyOf(messages))
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.dto.MessageDto;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+// 채널 메시지를 채널을 담당하는 노드로 전달하는 경로
+// chat.broker.mode=RELAY 면 RabbitMQ(chat.exchange, 채널 큐)를 쓰는 AmqpChatPublisher,
+// EMBEDDED 면 같은 JVM 안에서만 전달하는 InMemoryChatPublisher 가 사용된다.
+public interface ChatMessagePublisher {
+
+    // 발행 버퍼에 넣고 바로 반환. 받아들이지 못하면 false
+    boolean publish(String channelId, MessageDto message);
+
+    // 채널 메시지를 받을 수 있도록 준비 (AMQP_LOCAL_FANOUT: 채널 큐와 바인딩 선언)
+    void declareChannel(String channelId);
+
+    // 이 노드에서 채널 메시지 소비 시작. 이미 소비 중이면 무시
+    void startConsumer(String channelId, Consumer<MessageDto> handler);
+
+    void stopConsumer(String channelId);
+
+    Set<String> consumingChannels();
+
+    // 소비를 멈추고 채널 큐 등 채널 자원 삭제
+    void deleteChannel(String channelId);
+}
@@ -0,0 +1,237 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.common.lane.MessageLane;
+import com.homeless.chatservice.common.websocket.SessionOutboundQueueDecoratorFactory;
+import com.homeless.chatservice.dto.ChatSignalDto;
+import com.homeless.chatservice.dto.SignalType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 타이핑/접속 신호 처리 (Mongo 저장, 중복 확인, RabbitMQ 발행을 거치지 않는 경로)
+// 신호는 메모리에서 채널/사용자별 마지막 값만 남겼다가 tick 마다 채널당 한 프레임으로 보낸다.
+// 접속 상태는 Redis ZSET(chat:channel:{id}:presence)에 만료 시각을 점수로 저장해서 노드 간에 공유한다.
+// 같은 사용자가 여러 탭/기기로 접속할 수 있으므로 채널별 사용자 세션 수를 Redis HASH(chat:channel:{id}:sessions)에 세고,
+// 모든 노드를 합쳐 마지막 세션이 빠질 때만 OFFLINE 을 보낸다. (노드가 죽어서 줄지 못한 수는 session-ttl-ms 뒤에 사라진다)
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ChatSignalService {
+
+    private static final String SIGNAL_DESTINATION = "/topic/chat.signal.";
+
+    // 세션 수를 줄이고 남은 수 반환 (0 이하가 되면 필드 삭제)
+    private static final DefaultRedisScript<Long> LEAVE_SCRIPT = new DefaultRedisScript<>("""
+            local remaining = redis.call('HINCRBY', KEYS[1], ARGV[1], -1)
+            if remaining <= 0 then
+                redis.call('HDEL', KEYS[1], ARGV[1])
+                return 0
+            end
+            return remaining
+            """, Long.class);
+
+    private final StompMessageService messageService;
+    private final ChannelKeyRegistry channelKeyRegistry;
+
+    @Qualifier("redisTemplate")
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${chat.signal.tick-ms:250}")
+    private long tickMs;
+
+    @Value("${chat.signal.presence-ttl-ms:60000}")
+    private long presenceTtlMs;
+
+    @Value("${chat.signal.session-ttl-ms:86400000}")
+    private long sessionTtlMs;
+
+    // channelId -> (email -> 마지막 신호)
+    private final ConcurrentHashMap<String, Map<String, ChatSignalDto.UserSignal>> pending = new ConcurrentHashMap<>();
+    // 이 노드에 연결된 세션이 접속 신호를 보낸 채널 (연결 종료 시 OFFLINE 처리)
+    private final Map<String, SessionPresence> sessions = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService tickScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chat-signal-tick");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private record SessionPresence(String email, String writer, Set<String> channels) {
+    }
+
+    public static String presenceKey(String channelId) {
+        return "chat:channel:" + channelId + ":presence";
+    }
+
+    public static String sessionsKey(String channelId) {
+        return "chat:channel:" + channelId + ":sessions";
+    }
+
+    @PostConstruct
+    public void init() {
+        tickScheduler.scheduleAtFixedRate(this::flush, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void submit(String sessionId, String channelId, String email, String writer, SignalType type) {
+        if (sessionId != null && (type == SignalType.ONLINE || type == SignalType.OFFLINE)) {
+            SessionPresence presence = sessions.computeIfAbsent(sessionId,
+                    key -> new SessionPresence(email, writer, ConcurrentHashMap.newKeySet()));
+            if (type == SignalType.ONLINE) {
+                if (presence.channels().add(channelId)) {
+                    join(channelId, email);
+                }
+            } else if (!presence.channels().remove(channelId) || leave(channelId, email) > 0) {
+                // 이 세션이 들어와 있지 않았거나 같은 사용자의 다른 세션이 남아 있음
+                return;
+            }
+        }
+        record(channelId, email, writer, type);
+    }
+
+    private void record(String channelId, String email, String writer, SignalType type) {
+        // flush 의 remove 와 겹쳐도 신호가 사라지지 않도록 compute 안에서 기록
+        pending.compute(channelId, (key, signals) -> {
+            Map<String, ChatSignalDto.UserSignal> target = signals != null ? signals : new LinkedHashMap<>();
+            target.put(email, new ChatSignalDto.UserSignal(email, writer, type));
+            return target;
+        });
+    }
+
+    // 만료되지 않은 접속 사용자 목록
+    public Set<String> onlineUsers(String channelId) {
+        String key = presenceKey(channelId);
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().removeRangeByScore(key, 0, now);
+        Set<String> users = redisTemplate.opsForZSet().rangeByScore(key, now, Double.MAX_VALUE);
+        return users != null ? users : Set.of();
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        SessionPresence presence = sessions.remove(event.getSessionId());
+        if (presence == null) {
+            return;
+        }
+        for (String channelId : presence.channels()) {
+            if (leave(channelId, presence.email()) == 0) {
+                record(channelId, presence.email(), presence.writer(), SignalType.OFFLINE);
+            }
+        }
+    }
+
+    private void join(String channelId, String email) {
+        String key = sessionsKey(channelId);
+        try {
+            channelKeyRegistry.register(channelId, key);
+            redisTemplate.opsForHash().increment(key, email, 1);
+            redisTemplate.expire(key, Duration.ofMillis(sessionTtlMs));
+        } catch (Exception e) {
+            log.warn("Failed to count session of {} in channel {}: {}", email, channelId, e.getMessage());
+        }
+    }
+
+    // 모든 노드를 합쳐 남은 세션 수. Redis 오류 시에는 0 으로 보고 OFFLINE 을 보낸다.
+    private long leave(String channelId, String email) {
+        try {
+            Long remaining = redisTemplate.execute(LEAVE_SCRIPT, List.of(sessionsKey(channelId)), email);
+            return remaining != null ? remaining : 0;
+        } catch (Exception e) {
+            log.warn("Failed to release session of {} in channel {}: {}", email, channelId, e.getMessage());
+            return 0;
+        }
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> onlineKeys = new ArrayList<>();
+        List<String> online = new ArrayList<>();
+        List<String> offlineKeys = new ArrayList<>();
+        List<String> offline = new ArrayList<>();
+
+        for (String channelId : pending.keySet()) {
+            Map<String, ChatSignalDto.UserSignal> signals = pending.remove(channelId);
+            if (signals == null || signals.isEmpty()) {
+                continue;
+            }
+            boolean presenceChanged = false;
+            for (ChatSignalDto.UserSignal signal : signals.values()) {
+                presenceChanged |= signal.type() == SignalType.ONLINE || signal.type() == SignalType.OFFLINE;
+                if (signal.type() == SignalType.ONLINE) {
+                    channelKeyRegistry.register(channelId, presenceKey(channelId));
+                    onlineKeys.add(presenceKey(channelId));
+                    online.add(signal.email());
+                } else if (signal.type() == SignalType.OFFLINE) {
+                    offlineKeys.add(presenceKey(channelId));
+                    offline.add(signal.email());
+                }
+            }
+            try {
+                // 큐가 밀린 세션에서는 같은 채널의 이전 신호 프레임을 이 프레임으로 교체할 수 있다.
+                // 접속 상태가 바뀐 프레임은 CONTROL, 입력 중 신호만 있는 프레임은 BULK 레인으로 보낸다.
+                messageService.sendOnLane(presenceChanged ? MessageLane.CONTROL : MessageLane.BULK,
+                        SIGNAL_DESTINATION + channelId,
+                        new ChatSignalDto(channelId, List.copyOf(signals.values())),
+                        Map.of(SessionOutboundQueueDecoratorFactory.COALESCE_KEY_HEADER, "signal:" + channelId));
+            } catch (Exception e) {
+                log.warn("Failed to send signals for channel {}: {}", channelId, e.getMessage());
+            }
+        }
+
+        if (!online.isEmpty() || !offline.isEmpty()) {
+            writePresence(onlineKeys, online, offlineKeys, offline);
+        }
+    }
+
+    // 한 tick 의 접속 상태 변경을 파이프라인 한 번으로 기록
+    private void writePresence(List<String> onlineKeys, List<String> online, List<String> offlineKeys, List<String> offline) {
+        long expiresAt = System.currentTimeMillis() + presenceTtlMs;
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < online.size(); i++) {
+                    byte[] key = bytes(onlineKeys.get(i));
+                    connection.zSetCommands().zAdd(key, expiresAt, bytes(online.get(i)));
+                    // 아무도 갱신하지 않는 채널의 키는 통째로 만료
+                    connection.keyCommands().pExpire(key, presenceTtlMs);
+                }
+                for (int i = 0; i < offline.size(); i++) {
+                    connection.zSetCommands().zRem(bytes(offlineKeys.get(i)), bytes(offline.get(i)));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to update presence: {}", e.getMessage());
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        tickScheduler.shutdownNow();
+    }
+}
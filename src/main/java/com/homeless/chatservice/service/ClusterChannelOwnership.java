@@ -0,0 +1,121 @@
+package com.homeless.chatservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 여러 인스턴스가 채널을 나눠 맡도록 하는 consistent hash 기반 소유권
+// 각 노드는 Redis ZSET(chat:cluster:nodes)에 하트비트 시각을 점수로 기록하고,
+// 제한 시간 안에 하트비트가 있는 노드들로 링을 만든다. 노드가 죽으면 timeout 뒤에 링에서 빠진다.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "chat.cluster.enabled", havingValue = "true")
+public class ClusterChannelOwnership implements ChannelOwnership, SmartLifecycle {
+
+    private static final String MEMBERS_KEY = "chat:cluster:nodes";
+
+    @Qualifier("redisTemplate")
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${chat.cluster.node-id:${HOSTNAME:local}}")
+    private String nodeId;
+
+    @Value("${chat.cluster.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Value("${chat.cluster.heartbeat-interval-ms:2000}")
+    private long heartbeatIntervalMs;
+
+    @Value("${chat.cluster.member-timeout-ms:10000}")
+    private long memberTimeoutMs;
+
+    // 새로 생긴 채널을 담당 노드가 가져가도록 주기적으로 보내는 동기화 신호 간격
+    @Value("${chat.cluster.channel-sync-interval-ms:5000}")
+    private long channelSyncIntervalMs;
+
+    private final ScheduledExecutorService heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile ConsistentHashRing ring;
+    private volatile boolean running;
+    private long lastSyncAt;
+
+    @Override
+    public boolean isOwner(String channelId) {
+        ConsistentHashRing current = ring;
+        // 첫 하트비트 전에는 자기 자신만 있는 링으로 간주
+        return current == null || nodeId.equals(current.ownerOf(channelId));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        heartbeat();
+        heartbeatScheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Joined chat cluster as {}", nodeId);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        heartbeatScheduler.shutdownNow();
+        try {
+            // 바로 빠져서 다른 노드가 timeout을 기다리지 않고 채널을 가져가게 한다.
+            redisTemplate.opsForZSet().remove(MEMBERS_KEY, nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to leave chat cluster: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // 웹소켓/리스너보다 먼저 시작해서 소유권이 정해진 뒤에 채널 리스너가 뜨도록 한다.
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE + 1000;
+    }
+
+    private void heartbeat() {
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().add(MEMBERS_KEY, nodeId, now);
+            redisTemplate.opsForZSet().removeRangeByScore(MEMBERS_KEY, 0, now - memberTimeoutMs);
+            Set<String> members = redisTemplate.opsForZSet().range(MEMBERS_KEY, 0, -1);
+            if (members == null || members.isEmpty()) {
+                members = Set.of(nodeId);
+            }
+
+            ConsistentHashRing current = ring;
+            if (current == null || !current.nodes().equals(members)) {
+                ring = new ConsistentHashRing(members, virtualNodes);
+                lastSyncAt = now;
+                log.info("Chat cluster membership changed: {}", ring.nodes());
+                eventPublisher.publishEvent(new ChannelOwnershipChangedEvent(ring.nodes(), true));
+            } else if (now - lastSyncAt >= channelSyncIntervalMs) {
+                lastSyncAt = now;
+                eventPublisher.publishEvent(new ChannelOwnershipChangedEvent(current.nodes(), false));
+            }
+        } catch (Exception e) {
+            log.error("Cluster heartbeat failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -3,18 +3,34 @@ package com.homeless.chatservice.service;
 import com.homeless.chatservice.dto.ChatMessageCreateCommand;
 import com.homeless.chatservice.dto.ChatMessageRequest;
 import com.homeless.chatservice.dto.MessageDto;
+import com.homeless.chatservice.entity.ChatMessage;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class DtoBuilder {
     private final ChatHttpService chatHttpService;
+    private final ThumbnailService thumbnailService;
+    private final ChannelSequenceService sequenceService;
 
+    // 채널 순번을 발급해서 저장하고, 같은 순번을 담은 브로드캐스트용 DTO 반환
+    public MessageDto saveAndBuildMessageDto(String channelId, ChatMessageRequest chatReqDto) {
+        long seq = sequenceService.next(channelId);
+        String chatId = chatHttpService.createChatMessage(toCreateCommand(channelId, chatReqDto, seq));
+        return toBuilder(chatId, channelId, chatReqDto).seq(seq).build();
+    }
 
     public MessageDto buildMessageDto(String chatId, String channelId, ChatMessageRequest chatReqDto) {
+        return toBuilder(chatId, channelId, chatReqDto).build();
+    }
+
+    private MessageDto.MessageDtoBuilder toBuilder(String chatId, String channelId, ChatMessageRequest chatReqDto) {
+        Optional<ThumbnailService.ImageDerivatives> derivatives = thumbnailService.findDerivatives(chatReqDto.fileUrl());
         return MessageDto.builder()
                 .chatId(chatId)
                 .channelId(channelId)
@@ -22,13 +38,37 @@ public class DtoBuilder {
                 .writer(chatReqDto.writer())
                 .content(chatReqDto.content())
                 .messageType(chatReqDto.messageType())
+                .channelType(chatReqDto.channelType())
                 .fileUrl(chatReqDto.fileUrl())
                 .fileName(chatReqDto.fileName())
+                .thumbnail(derivatives.map(ThumbnailService.ImageDerivatives::thumbnail).orElse(null))
+                .preview(derivatives.map(ThumbnailService.ImageDerivatives::preview).orElse(null));
+    }
+
+    // 저장된 메시지(엔티티) -> 브로드캐스트용 DTO
+    public MessageDto toMessageDto(ChatMessage chatMessage) {
+        return MessageDto.builder()
+                .chatId(chatMessage.getId())
+                .channelId(chatMessage.getChannelId())
+                .email(chatMessage.getEmail())
+                .writer(chatMessage.getWriter())
+                .content(chatMessage.getContent())
+                .messageType(chatMessage.getMessageType())
+                .seq(chatMessage.getSeq())
+                .channelType(chatMessage.getChannelType())
+                .fileUrl(chatMessage.getFileUrl())
+                .fileName(chatMessage.getFileName())
+                .thumbnail(chatMessage.getThumbnail())
+                .preview(chatMessage.getPreview())
                 .build();
     }
 
     public String saveChatMessage(String channelId, ChatMessageRequest chatReqDto) {
-        ChatMessageCreateCommand chatMessageCreateCommand = ChatMessageCreateCommand.builder()
+        return chatHttpService.createChatMessage(toCreateCommand(channelId, chatReqDto, null));
+    }
+
+    private ChatMessageCreateCommand toCreateCommand(String channelId, ChatMessageRequest chatReqDto, Long seq) {
+        return ChatMessageCreateCommand.builder()
                 .serverId(chatReqDto.serverId())
                 .channelId(channelId)
                 .email(chatReqDto.email())
@@ -37,7 +77,8 @@ public class DtoBuilder {
                 .messageType(chatReqDto.messageType())
                 .fileUrl(chatReqDto.fileUrl())
                 .fileName(chatReqDto.fileName())
+                .seq(seq)
+                .channelType(chatReqDto.channelType())
                 .build();
-        return chatHttpService.createChatMessage(chatMessageCreateCommand);
     }
 }
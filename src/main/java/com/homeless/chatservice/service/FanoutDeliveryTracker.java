@@ -0,0 +1,45 @@
+package com.homeless.chatservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 최근 전송한 (경로, 메시지 id)를 기억해서 같은 경로로 같은 메시지가 두 번 나가는 것을 막는다.
+// 막힌 중복 전송은 chat.fanout.duplicates 로 집계한다.
+@Component
+public class FanoutDeliveryTracker {
+
+    private final Map<String, Boolean> recentDeliveries;
+    private final Counter deliveries;
+    private final Counter duplicates;
+
+    public FanoutDeliveryTracker(MeterRegistry meterRegistry,
+                                 @Value("${chat.fanout.dedup-capacity:10000}") int capacity) {
+        this.recentDeliveries = Collections.synchronizedMap(new LinkedHashMap<>(capacity, 0.75f) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        });
+        this.deliveries = meterRegistry.counter("chat.fanout.deliveries");
+        this.duplicates = meterRegistry.counter("chat.fanout.duplicates");
+    }
+
+    // 처음 전송하는 경우에만 true. id가 없는 메시지(에러 응답 등)는 항상 전송
+    public boolean firstDelivery(String route, String messageId) {
+        if (messageId == null) {
+            return true;
+        }
+        if (recentDeliveries.putIfAbsent(route + '|' + messageId, Boolean.TRUE) == null) {
+            deliveries.increment();
+            return true;
+        }
+        duplicates.increment();
+        return false;
+    }
+}
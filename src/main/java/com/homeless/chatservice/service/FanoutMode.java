@@ -0,0 +1,11 @@
+package com.homeless.chatservice.service;
+
+// 채널 메시지를 구독자에게 퍼뜨리는 방식 (chat.fanout.mode)
+// 어떤 방식이든 한 메시지는 구독 경로(route)마다 한 번만 전달된다.
+// (chat.cluster.enabled=true 이면 /topic 전송 직전에 Redis 로 노드 간 중복도 확인한다)
+public enum FanoutMode {
+    DIRECT_RELAY,       // STOMP 브로커 릴레이로 /topic 에 한 번만 전송, AMQP 발행 없음
+    AMQP_LOCAL_FANOUT,  // chat.exchange 로 한 번 발행하고, 채널 큐를 소비하는 담당 노드가 /topic 으로 전송
+    HYBRID,             // /topic 으로 직접 전송 + chat.exchange 발행 (exchange 구독자/외부 소비자용, 재전송 리스너 없음)
+    CHANGE_STREAM       // MongoDB change stream을 구독해서 저장된 변경만 전송 (저장소가 유일한 순서 기준)
+}
@@ -1,8 +1,9 @@
 package com.homeless.chatservice.service;
 
 import com.homeless.chatservice.common.config.AwsS3Config;
+import com.homeless.chatservice.dto.ImageVariant;
 import com.homeless.chatservice.entity.ChatMessage;
-import com.homeless.chatservice.repository.ChatMessageRepository;
+import com.homeless.chatservice.repository.ChatMessageStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,7 +18,8 @@ import java.util.List;
 @Slf4j
 public class FileService {
     private final AwsS3Config awsS3Config;
-    private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageStore chatMessageStore;
+    private final ThumbnailService thumbnailService;
 
 
     @Transactional
@@ -27,8 +29,14 @@ public class FileService {
 
         // 파일을 S3에 업로드하고 URL을 반환
         byte[] fileBytes = file.getBytes();
+        String fileUrl = awsS3Config.uploadToS3Bucket(fileBytes, fileName);
 
-        return awsS3Config.uploadToS3Bucket(fileBytes, fileName); // 업로드된 파일의 URL 반환
+        // 이미지라면 썸네일/미리보기 생성을 워커 풀에 맡기고 바로 응답
+        if (ThumbnailService.isImage(file.getContentType())) {
+            thumbnailService.generateAsync(fileBytes, fileName, fileUrl);
+        }
+
+        return fileUrl; // 업로드된 파일의 URL 반환
     }
 
     // 파일 삭제 처리 메서드 (파일 URL을 이용해 삭제)
@@ -37,15 +45,37 @@ public class FileService {
     }
 
     public void deleteChatMessagesWithFileByChannelId(String channelId) throws Exception {
-        List<ChatMessage> deletingChatMessagesWithFile = chatMessageRepository.findByChannelIdAndFileUrlIsNotNull(channelId);
+        List<ChatMessage> deletingChatMessagesWithFile = chatMessageStore.findWithFileByChannelId(channelId);
         log.debug("Deleting chat messages {}", deletingChatMessagesWithFile);
-        for (ChatMessage chat : deletingChatMessagesWithFile) {
+        deleteMessageFiles(deletingChatMessagesWithFile);
+    }
+
+    // 메시지 첨부파일과 파생 이미지 삭제 (첨부가 없는 메시지는 건너뜀)
+    public void deleteMessageFiles(List<ChatMessage> messages) {
+        for (ChatMessage chat : messages) {
+            if (chat.getFileUrl() == null) {
+                continue;
+            }
             try {
                 awsS3Config.deleteFromS3Bucket(chat.getFileUrl());
                 log.info("Successfully deleted file: {}", chat.getFileUrl());
             } catch (Exception e) {
                 log.error("Failed to delete file: {}", chat.getFileUrl(), e);
             }
+            deleteVariant(chat.getThumbnail());
+            deleteVariant(chat.getPreview());
+        }
+    }
+
+    // 원본과 함께 저장된 파생 이미지 삭제
+    private void deleteVariant(ImageVariant variant) {
+        if (variant == null) {
+            return;
+        }
+        try {
+            awsS3Config.deleteFromS3Bucket(variant.url());
+        } catch (Exception e) {
+            log.error("Failed to delete derivative: {}", variant.url(), e);
         }
     }
 }
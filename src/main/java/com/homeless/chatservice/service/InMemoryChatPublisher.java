@@ -0,0 +1,52 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.dto.MessageDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// 단일 JVM 배포(embedded 프로필)용 발행 경로. 브로커 없이 이 노드의 채널 소비자에게 바로 넘긴다.
+// 소비자가 없는 채널의 메시지는 바인딩 없는 exchange 로 보낸 것처럼 버려진다.
+@Service
+@ConditionalOnProperty(name = "chat.broker.mode", havingValue = "EMBEDDED")
+public class InMemoryChatPublisher implements ChatMessagePublisher {
+
+    private final Map<String, Consumer<MessageDto>> consumers = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean publish(String channelId, MessageDto message) {
+        Consumer<MessageDto> consumer = consumers.get(channelId);
+        if (consumer != null) {
+            consumer.accept(message);
+        }
+        return true;
+    }
+
+    @Override
+    public void declareChannel(String channelId) {
+    }
+
+    @Override
+    public void startConsumer(String channelId, Consumer<MessageDto> handler) {
+        consumers.putIfAbsent(channelId, handler);
+    }
+
+    @Override
+    public void stopConsumer(String channelId) {
+        consumers.remove(channelId);
+    }
+
+    @Override
+    public Set<String> consumingChannels() {
+        return Set.copyOf(consumers.keySet());
+    }
+
+    @Override
+    public void deleteChannel(String channelId) {
+        consumers.remove(channelId);
+    }
+}
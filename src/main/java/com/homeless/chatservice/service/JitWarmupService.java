@@ -0,0 +1,235 @@
+package com.homeless.chatservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeless.chatservice.common.codec.ChatMessageCodec;
+import com.homeless.chatservice.common.codec.ChatMessageCodecRegistry;
+import com.homeless.chatservice.common.interceptor.StompCodecInterceptor;
+import com.homeless.chatservice.dto.ChannelType;
+import com.homeless.chatservice.dto.ChatMessageRequest;
+import com.homeless.chatservice.dto.ChatSignalRequest;
+import com.homeless.chatservice.dto.MessageDto;
+import com.homeless.chatservice.dto.MessageType;
+import com.homeless.chatservice.dto.SignalType;
+import com.homeless.chatservice.entity.ChatMessage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// 기동 직후 JIT 워밍업
+// 메시지 전송(WebSocketController.sendMessage -> 속도 제한, 저장, 요약, StompMessageService broadcast)과
+// 이력 조회(ChatHttpController.getMessages -> ChatHttpService 조회/매핑, 응답 직렬화)를 WarmupSandbox 의 실제 클래스로,
+// STOMP 디스패치, 코덱 변환(StompCodecInterceptor)은 실제 빈으로 합성 메시지를 반복 실행하고,
+// 라운드당 JIT 컴파일 시간이 settle-compile-ms 이하로 settle-rounds 번 이어지면 끝낸다.
+// 저장/발행/브로커/Redis 는 WarmupSandbox 의 싱크로 가므로 부수 효과가 없다 (signal 은 principal 이 없으면 인자 변환 뒤 바로 반환).
+// 반복 중에는 워밍업 스레드의 WARN 미만 로그를 WarmupLogFilter 로 버려서 전송 경로의 INFO 로그가 쌓이지 않게 한다.
+// 끝나기 전까지 WarmupHealthIndicator 가 OUT_OF_SERVICE 를 보고해서 readiness 그룹이 트래픽을 받지 않게 한다.
+@Slf4j
+@Service
+public class JitWarmupService {
+
+    private static final String WARMUP_SESSION = "warmup";
+    private static final String WARMUP_CHANNEL = "__warmup__";
+    private static final String SIGNAL_DESTINATION = "/pub/chat.signal." + WARMUP_CHANNEL;
+    private static final String TOPIC_DESTINATION = "/topic/chat.channel." + WARMUP_CHANNEL;
+    private static final String WARMUP_TOKEN = "Bearer warmup";
+    // 속도 제한 판정에 돌려 쓰는 사용자 수
+    private static final int WARMUP_USERS = 64;
+
+    private final SimpAnnotationMethodMessageHandler annotationMethodMessageHandler;
+    private final StompCodecInterceptor stompCodecInterceptor;
+    private final ChatMessageCodecRegistry codecRegistry;
+    private final DtoBuilder dtoBuilder;
+    private final ObjectMapper objectMapper;
+    private final ApplicationContext applicationContext;
+
+    @Value("${chat.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.warmup.iterations-per-round:500}")
+    private int iterationsPerRound;
+
+    @Value("${chat.warmup.settle-rounds:3}")
+    private int settleRounds;
+
+    @Value("${chat.warmup.settle-compile-ms:20}")
+    private long settleCompileMs;
+
+    @Value("${chat.warmup.max-duration-ms:60000}")
+    private long maxDurationMs;
+
+    private final ExecutorService warmupExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jit-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean completed;
+    private volatile int rounds;
+    private volatile long elapsedMs;
+
+    public JitWarmupService(SimpAnnotationMethodMessageHandler annotationMethodMessageHandler,
+                            StompCodecInterceptor stompCodecInterceptor,
+                            ChatMessageCodecRegistry codecRegistry,
+                            DtoBuilder dtoBuilder,
+                            ObjectMapper objectMapper,
+                            ApplicationContext applicationContext) {
+        this.annotationMethodMessageHandler = annotationMethodMessageHandler;
+        this.stompCodecInterceptor = stompCodecInterceptor;
+        this.codecRegistry = codecRegistry;
+        this.dtoBuilder = dtoBuilder;
+        this.objectMapper = objectMapper;
+        this.applicationContext = applicationContext;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public int rounds() {
+        return rounds;
+    }
+
+    public long elapsedMs() {
+        return elapsedMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            completed = true;
+            return;
+        }
+        warmupExecutor.execute(this::warmUp);
+    }
+
+    private void warmUp() {
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        // 컴파일 시간을 알 수 없는 JVM 이면 settle-rounds 만큼만 돌린다.
+        boolean monitored = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        long startedAt = System.currentTimeMillis();
+        long deadline = startedAt + maxDurationMs;
+        long compileTime = monitored ? compiler.getTotalCompilationTime() : 0;
+        int quietRounds = 0;
+        try (WarmupSandbox sandbox = new WarmupSandbox(applicationContext.getAutowireCapableBeanFactory())) {
+            try (WarmupLogFilter ignored = WarmupLogFilter.forCurrentThread()) {
+                while (quietRounds < settleRounds && System.currentTimeMillis() < deadline) {
+                    for (int i = 0; i < iterationsPerRound; i++) {
+                        exercise(sandbox, i);
+                    }
+                    rounds++;
+                    long current = monitored ? compiler.getTotalCompilationTime() : compileTime;
+                    quietRounds = current - compileTime <= settleCompileMs ? quietRounds + 1 : 0;
+                    compileTime = current;
+                }
+            }
+            elapsedMs = System.currentTimeMillis() - startedAt;
+            if (quietRounds < settleRounds) {
+                log.warn("JIT warm-up stopped after {}ms ({} rounds) before compilation settled", elapsedMs, rounds);
+            } else {
+                log.info("JIT warm-up finished in {}ms ({} rounds, total compile time {}ms)", elapsedMs, rounds, compileTime);
+            }
+        } catch (Exception e) {
+            // 워밍업 실패로 서비스가 계속 준비 안 됨 상태에 머물지 않도록 그대로 완료 처리
+            elapsedMs = System.currentTimeMillis() - startedAt;
+            log.error("JIT warm-up failed after {}ms: {}", elapsedMs, e.getMessage(), e);
+        } finally {
+            completed = true;
+        }
+    }
+
+    private void exercise(WarmupSandbox sandbox, int iteration) throws Exception {
+        MessageDto message = dtoBuilder.toMessageDto(sampleMessage(iteration));
+        ChatMessageCodec json = codecRegistry.json();
+        ChatMessageCodec cbor = codecRegistry.cbor();
+
+        // 1. AMQP/Redis 경로의 코덱 인코딩/디코딩
+        byte[] jsonPayload = json.encode(message);
+        byte[] cborPayload = cbor.encode(message);
+        json.decode(jsonPayload, MessageDto.class);
+        cbor.decode(cborPayload, MessageDto.class);
+
+        // 2. 송신 MESSAGE 프레임 변환 (세션 코덱이 없으면 CBOR -> JSON)
+        stompCodecInterceptor.preSend(outboundMessage(cborPayload), null);
+
+        // 3. @MessageMapping 디스패치와 페이로드 변환
+        SignalType type = SignalType.values()[iteration % SignalType.values().length];
+        ChatSignalRequest signal = new ChatSignalRequest(type, message.getWriter());
+        annotationMethodMessageHandler.handleMessage(inboundMessage(json.encode(signal), MimeTypeUtils.APPLICATION_JSON));
+        annotationMethodMessageHandler.handleMessage(inboundMessage(cbor.encode(signal), ChatMessageCodecRegistry.APPLICATION_CBOR));
+
+        // 4. 메시지 전송 (토큰 확인, 저장, 채널 요약, broadcast)과 여러 사용자의 속도 제한 판정
+        sandbox.webSocketController.sendMessage(WARMUP_CHANNEL, sendRequest(iteration), WARMUP_TOKEN);
+        sandbox.rateLimiter.tryAcquire("warmup-" + iteration % WARMUP_USERS, WARMUP_CHANNEL);
+
+        // 5. HTTP 이력 조회와 응답 직렬화
+        ResponseEntity<?> history = sandbox.chatHttpController.getMessages(WARMUP_CHANNEL, 0, 20);
+        objectMapper.writeValueAsBytes(history.getBody());
+    }
+
+    private ChatMessageRequest sendRequest(int iteration) {
+        return ChatMessageRequest.builder()
+                .serverId(WARMUP_CHANNEL)
+                .email("warmup@localhost")
+                .writer("warmup")
+                .content("warm-up message " + iteration)
+                .messageType(MessageType.TALK)
+                .channelType(ChannelType.PUBLIC)
+                .build();
+    }
+
+    private ChatMessage sampleMessage(int iteration) {
+        return ChatMessage.builder()
+                .id("warmup-" + iteration)
+                .serverId(WARMUP_CHANNEL)
+                .channelId(WARMUP_CHANNEL)
+                .email("warmup@localhost")
+                .writer("warmup")
+                .content("warm-up message " + iteration)
+                .messageType(MessageType.TALK)
+                .channelType(ChannelType.PUBLIC)
+                .seq((long) iteration)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    private Message<byte[]> inboundMessage(byte[] payload, MimeType contentType) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(SIGNAL_DESTINATION);
+        accessor.setSessionId(WARMUP_SESSION);
+        accessor.setContentType(contentType);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    private Message<byte[]> outboundMessage(byte[] payload) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        accessor.setDestination(TOPIC_DESTINATION);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        accessor.setNativeHeader(StompCodecInterceptor.CODEC_HEADER, ChatMessageCodecRegistry.APPLICATION_CBOR.toString());
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        warmupExecutor.shutdownNow();
+    }
+}
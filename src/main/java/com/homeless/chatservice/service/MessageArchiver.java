@@ -0,0 +1,159 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.entity.ArchiveManifest;
+import com.homeless.chatservice.entity.ChatMessage;
+import com.homeless.chatservice.repository.ChatMessageStore;
+import com.homeless.chatservice.repository.archive.MessageArchive;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// hot-retention-days 보다 오래된 메시지를 Mongo 에서 보관 세그먼트로 옮기는 작업
+// 묶음마다 archiveManifests 에 (세그먼트 이름, 원본 id) 를 먼저 남기고, 세그먼트 기록 -> 원본 삭제 -> 기록 완료 순으로 진행한다.
+// 중간에 멈추면 다음 실행이 남은 기록을 보고 이어서 마무리하므로, 메시지가 사라지거나 두 번 보관되지 않는다.
+// 여러 노드 중 Redis 잠금을 얻은 노드 하나만 실행한다.
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "chat.archive.enabled", havingValue = "true")
+public class MessageArchiver {
+
+    private static final String LOCK_KEY = "chat:archive:lock";
+
+    private final ChatMessageStore hotStore;
+    private final MessageArchive archive;
+    private final MongoTemplate mongoTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Counter archivedMessages;
+
+    @Value("${chat.archive.hot-retention-days:30}")
+    private int hotRetentionDays;
+
+    @Value("${chat.archive.interval-ms:3600000}")
+    private long intervalMs;
+
+    @Value("${chat.archive.segment-max-messages:10000}")
+    private int segmentMaxMessages;
+
+    @Value("${chat.cluster.node-id:${HOSTNAME:local}}")
+    private String nodeId;
+
+    private final ScheduledExecutorService archiveScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "message-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MessageArchiver(@Qualifier(ChatMessageStore.HOT) ChatMessageStore hotStore,
+                           MessageArchive archive,
+                           MongoTemplate mongoTemplate,
+                           @Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
+                           MeterRegistry meterRegistry) {
+        this.hotStore = hotStore;
+        this.archive = archive;
+        this.mongoTemplate = mongoTemplate;
+        this.redisTemplate = redisTemplate;
+        this.archivedMessages = meterRegistry.counter("chat.archive.messages");
+    }
+
+    @PostConstruct
+    public void init() {
+        archiveScheduler.scheduleWithFixedDelay(this::runOnce, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Message archiver enabled (hot retention: {} days)", hotRetentionDays);
+    }
+
+    public void runOnce() {
+        // 실행 간격 동안 잠금을 유지해서 다른 노드가 같은 주기에 다시 실행하지 않게 한다.
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, nodeId, Duration.ofMillis(intervalMs));
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        long before = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(hotRetentionDays);
+        long total = 0;
+        try {
+            recoverPending();
+            for (String channelId : hotStore.findChannelIdsWithMessagesBefore(before)) {
+                total += archiveChannel(channelId, before);
+            }
+            if (total > 0) {
+                log.info("Archived {} messages older than {} days", total, hotRetentionDays);
+            }
+        } catch (Exception e) {
+            log.error("Message archiving failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private long archiveChannel(String channelId, long before) {
+        long archived = 0;
+        try {
+            ChatMessageStore.MessageBatch batch;
+            while (!(batch = hotStore.findOldest(channelId, before, segmentMaxMessages)).isEmpty()) {
+                List<ChatMessage> messages = new ArrayList<>(batch.messages());
+                String segment = archive.newSegmentName(messages);
+                mongoTemplate.insert(new ArchiveManifest(ArchiveManifest.idOf(channelId, segment), channelId, segment,
+                        ArchiveManifest.State.PENDING, batch.sourceIds(), messages.size(), System.currentTimeMillis()));
+                archive.write(channelId, segment, messages);
+                hotStore.deleteBatch(batch);
+                markArchived(ArchiveManifest.idOf(channelId, segment));
+                archived += messages.size();
+                archivedMessages.increment(messages.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to archive channel {}: {}", channelId, e.getMessage(), e);
+        }
+        return archived;
+    }
+
+    // 지난 실행에서 마무리하지 못한 묶음 처리
+    // 세그먼트가 끝까지 기록되었으면 원본 삭제를 마저 하고(이미 지워졌어도 같은 결과), 아니면 쓰다 만 파일과 기록을 지운다.
+    private void recoverPending() {
+        Query pendingQuery = new Query(Criteria.where("state").is(ArchiveManifest.State.PENDING));
+        for (ArchiveManifest manifest : mongoTemplate.find(pendingQuery, ArchiveManifest.class)) {
+            try {
+                if (archive.hasSegment(manifest.getChannelId(), manifest.getSegment())) {
+                    hotStore.deleteBatch(new ChatMessageStore.MessageBatch(manifest.getChannelId(), List.of(),
+                            manifest.getSourceIds()));
+                    markArchived(manifest.getId());
+                    log.info("Completed interrupted archive of {} messages to segment {}",
+                            manifest.getCount(), manifest.getId());
+                } else {
+                    archive.discardSegment(manifest.getChannelId(), manifest.getSegment());
+                    mongoTemplate.remove(new Query(Criteria.where("id").is(manifest.getId())), ArchiveManifest.class);
+                    log.info("Discarded incomplete archive segment {}", manifest.getId());
+                }
+            } catch (Exception e) {
+                log.error("Failed to recover archive segment {}: {}", manifest.getId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private void markArchived(String manifestId) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(manifestId)),
+                new Update().set("state", ArchiveManifest.State.ARCHIVED)
+                        .unset("sourceIds")
+                        .set("updatedAt", System.currentTimeMillis()),
+                ArchiveManifest.class);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        archiveScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,211 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.repository.ChatMessageStore;
+import com.homeless.chatservice.repository.archive.MessageArchive;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 보관 기간이 지난 메시지를 조금씩 지우는 백그라운드 작업
+// 채널마다 가장 오래된 메시지부터 batch-size 개씩 지우고, 초당 max-deletes-per-second 개를 넘지 않도록 쉬어 가면서 진행한다.
+// 첨부파일은 FileService 로 S3 에서 먼저 지우고, 보관 세그먼트는 통째로 기간이 지난 것만 지운다.
+// 한 번에 channels-per-run 개 채널만 channelId 순으로 보고, 다음 실행은 Redis 에 저장한 위치부터 이어서 본다.
+// 여러 노드 중 Redis 잠금을 얻은 노드 하나만 실행한다.
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "chat.retention.enabled", havingValue = "true")
+public class MessageRetentionService {
+
+    private static final String LOCK_KEY = "chat:retention:lock";
+    // 지난 실행에서 마지막으로 본 channelId (없으면 처음부터)
+    private static final String CURSOR_KEY = "chat:retention:cursor";
+
+    private final ChatMessageStore hotStore;
+    private final ObjectProvider<MessageArchive> archiveProvider;
+    private final RetentionPolicyService policyService;
+    private final FileService fileService;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final Counter hotDeleted;
+    private final Counter archiveDeleted;
+    private final Timer batchTimer;
+    // 지난 정리 작업에서 본 가장 오래 밀린 메시지가 만료 시각을 넘긴 시간
+    private final AtomicLong lagMs = new AtomicLong();
+
+    @Value("${chat.retention.interval-ms:600000}")
+    private long intervalMs;
+
+    @Value("${chat.retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${chat.retention.max-deletes-per-second:1000}")
+    private int maxDeletesPerSecond;
+
+    @Value("${chat.retention.channels-per-run:1000}")
+    private int channelsPerRun;
+
+    @Value("${chat.cluster.node-id:${HOSTNAME:local}}")
+    private String nodeId;
+
+    private final ScheduledExecutorService retentionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "message-retention");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MessageRetentionService(@Qualifier(ChatMessageStore.HOT) ChatMessageStore hotStore,
+                                   ObjectProvider<MessageArchive> archiveProvider,
+                                   RetentionPolicyService policyService,
+                                   FileService fileService,
+                                   @Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
+                                   MeterRegistry meterRegistry) {
+        this.hotStore = hotStore;
+        this.archiveProvider = archiveProvider;
+        this.policyService = policyService;
+        this.fileService = fileService;
+        this.redisTemplate = redisTemplate;
+        this.hotDeleted = Counter.builder("chat.retention.deleted").tag("tier", "hot").register(meterRegistry);
+        this.archiveDeleted = Counter.builder("chat.retention.deleted").tag("tier", "archive").register(meterRegistry);
+        this.batchTimer = Timer.builder("chat.retention.batch")
+                .description("Time to delete one batch of expired messages including attachments")
+                .register(meterRegistry);
+        Gauge.builder("chat.retention.lag.seconds", lagMs, value -> value.get() / 1000.0).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        retentionScheduler.scheduleWithFixedDelay(this::runOnce, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Message retention enabled (batch: {}, max {} deletes/s)", batchSize, maxDeletesPerSecond);
+    }
+
+    public void runOnce() {
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, nodeId, Duration.ofMillis(intervalMs));
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        RetentionPolicyService.Resolver resolver = policyService.snapshot();
+        long now = System.currentTimeMillis();
+        long maxLag = 0;
+        long deleted = 0;
+        try {
+            String after = redisTemplate.opsForValue().get(CURSOR_KEY);
+            List<String> page = hotStore.findChannelIdsAfter(after, channelsPerRun);
+            // 마지막 페이지면 이번 실행에서 끝까지 보고 다음 실행은 처음부터
+            String upTo = page.size() < channelsPerRun ? null : page.get(page.size() - 1);
+            Set<String> channelIds = new LinkedHashSet<>(page);
+            MessageArchive archive = archiveProvider.getIfAvailable();
+            if (archive != null) {
+                // Mongo 에서 다 지워지고 보관 세그먼트에만 남은 채널도 같은 구간에서 함께 본다.
+                for (String channelId : archive.channelIds()) {
+                    if ((after == null || channelId.compareTo(after) > 0)
+                            && (upTo == null || channelId.compareTo(upTo) <= 0)) {
+                        channelIds.add(channelId);
+                    }
+                }
+            }
+            for (String channelId : channelIds) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                // 정리가 길어져도 다른 노드가 중간에 끼어들지 않도록 잠금 연장
+                redisTemplate.expire(LOCK_KEY, Duration.ofMillis(intervalMs));
+
+                int days = resolver.days(channelId);
+                if (days <= 0) {
+                    continue;
+                }
+                long cutoff = now - TimeUnit.DAYS.toMillis(days);
+                ChannelResult result = expireChannel(channelId, cutoff, archive);
+                deleted += result.deleted();
+                maxLag = Math.max(maxLag, result.lagMs());
+            }
+            if (upTo == null) {
+                redisTemplate.delete(CURSOR_KEY);
+            } else {
+                redisTemplate.opsForValue().set(CURSOR_KEY, upTo);
+            }
+            lagMs.set(maxLag);
+            if (deleted > 0) {
+                log.info("Retention removed {} expired messages (max lag {}s)", deleted, maxLag / 1000);
+            }
+        } catch (Exception e) {
+            log.error("Message retention failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private record ChannelResult(long deleted, long lagMs) {
+    }
+
+    private ChannelResult expireChannel(String channelId, long cutoff, MessageArchive archive) {
+        long deleted = 0;
+        long lag = 0;
+        try {
+            ChatMessageStore.MessageBatch batch;
+            while (!Thread.currentThread().isInterrupted()
+                    && !(batch = hotStore.findOldest(channelId, cutoff, batchSize)).isEmpty()) {
+                if (deleted == 0) {
+                    Long oldest = batch.messages().get(0).getTimestamp();
+                    lag = oldest != null ? cutoff - oldest : 0;
+                }
+                long started = System.nanoTime();
+                ChatMessageStore.MessageBatch expired = batch;
+                batchTimer.record(() -> {
+                    fileService.deleteMessageFiles(expired.messages());
+                    hotStore.deleteBatch(expired);
+                });
+                int size = batch.messages().size();
+                deleted += size;
+                hotDeleted.increment(size);
+                pace(size, System.nanoTime() - started);
+            }
+
+            if (archive != null) {
+                fileService.deleteMessageFiles(archive.readExpiredWithFiles(channelId, cutoff));
+                long removed = archive.deleteOlderThan(channelId, cutoff);
+                deleted += removed;
+                archiveDeleted.increment(removed);
+            }
+        } catch (Exception e) {
+            log.error("Failed to expire messages of channel {}: {}", channelId, e.getMessage(), e);
+        }
+        return new ChannelResult(deleted, lag);
+    }
+
+    // 지운 개수만큼의 시간(개수 / 초당 최대 삭제 수)이 지나기 전에는 다음 배치를 시작하지 않는다.
+    private void pace(int deleted, long elapsedNanos) {
+        long budgetNanos = TimeUnit.SECONDS.toNanos(deleted) / Math.max(1, maxDeletesPerSecond);
+        long sleepNanos = budgetNanos - elapsedNanos;
+        if (sleepNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        retentionScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,114 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.dto.ChannelType;
+import com.homeless.chatservice.entity.ChannelMetadata;
+import com.homeless.chatservice.entity.RetentionPolicy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 메시지 보관 기간 정책
+// 채널 지정 > 서버 지정 > 채널 종류 기본값 순으로 적용하고, 0 이하는 영구 보관이다.
+// 채널의 서버/종류는 channelMetadata 에 등록된 값만 쓴다 (메시지의 channelType 은 클라이언트가 보낸 값).
+@Service
+@RequiredArgsConstructor
+public class RetentionPolicyService {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${chat.retention.public-days:90}")
+    private int publicDays;
+
+    @Value("${chat.retention.private-days:0}")
+    private int privateDays;
+
+    @Value("${chat.retention.direct-days:0}")
+    private int directDays;
+
+    // 채널 종류가 등록되지 않은 채널
+    @Value("${chat.retention.default-days:0}")
+    private int defaultDays;
+
+    public List<RetentionPolicy> findAll() {
+        return mongoTemplate.findAll(RetentionPolicy.class);
+    }
+
+    public RetentionPolicy save(RetentionPolicy.Scope scope, String target, int days) {
+        RetentionPolicy policy = new RetentionPolicy(RetentionPolicy.idOf(scope, target), scope, target, days,
+                System.currentTimeMillis());
+        return mongoTemplate.save(policy);
+    }
+
+    public void delete(RetentionPolicy.Scope scope, String target) {
+        RetentionPolicy policy = mongoTemplate.findById(RetentionPolicy.idOf(scope, target), RetentionPolicy.class);
+        if (policy != null) {
+            mongoTemplate.remove(policy);
+        }
+    }
+
+    // 채널을 관리하는 서비스가 채널 생성/변경 시 등록
+    public ChannelMetadata saveChannel(String channelId, String serverId, ChannelType channelType) {
+        return mongoTemplate.save(new ChannelMetadata(channelId, serverId, channelType, System.currentTimeMillis()));
+    }
+
+    public void deleteChannel(String channelId) {
+        ChannelMetadata metadata = mongoTemplate.findById(channelId, ChannelMetadata.class);
+        if (metadata != null) {
+            mongoTemplate.remove(metadata);
+        }
+    }
+
+    // 한 번의 정리 작업 동안 쓸 정책 스냅샷
+    public Resolver snapshot() {
+        Map<String, Integer> overrides = new HashMap<>();
+        for (RetentionPolicy policy : findAll()) {
+            overrides.put(policy.getId(), policy.getDays());
+        }
+        return new Resolver(overrides);
+    }
+
+    public int defaultDays(ChannelType channelType) {
+        if (channelType == null) {
+            return defaultDays;
+        }
+        return switch (channelType) {
+            case PUBLIC -> publicDays;
+            case PRIVATE -> privateDays;
+            case DIRECT -> directDays;
+        };
+    }
+
+    public class Resolver {
+
+        private final Map<String, Integer> overrides;
+
+        private Resolver(Map<String, Integer> overrides) {
+            this.overrides = overrides;
+        }
+
+        // 등록되지 않은 채널은 채널 지정 정책이나 default-days 만 적용
+        public int days(String channelId) {
+            ChannelMetadata metadata = mongoTemplate.findById(channelId, ChannelMetadata.class);
+            String serverId = metadata != null ? metadata.getServerId() : null;
+            ChannelType channelType = metadata != null ? metadata.getChannelType() : null;
+
+            Integer channelDays = overrides.get(RetentionPolicy.idOf(RetentionPolicy.Scope.CHANNEL, channelId));
+            if (channelDays != null) {
+                return channelDays;
+            }
+            // 1:1 채널은 서버 정책을 따르지 않는다.
+            if (serverId != null && channelType != ChannelType.DIRECT) {
+                Integer serverDays = overrides.get(RetentionPolicy.idOf(RetentionPolicy.Scope.SERVER, serverId));
+                if (serverDays != null) {
+                    return serverDays;
+                }
+            }
+            return defaultDays(channelType);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.homeless.chatservice.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// 단일 노드 배포용 기본 구현. 모든 채널을 이 노드가 담당한다.
+// chat.cluster.enabled=true 이면 ClusterChannelOwnership이 대신 사용된다.
+@Component
+@ConditionalOnProperty(name = "chat.cluster.enabled", havingValue = "false", matchIfMissing = true)
+public class SingleNodeChannelOwnership implements ChannelOwnership {
+
+    @Override
+    public boolean isOwner(String channelId) {
+        return true;
+    }
+}
@@ -1,22 +1,20 @@
 package com.homeless.chatservice.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.homeless.chatservice.common.config.RabbitConfig;
+import com.homeless.chatservice.common.lane.MessageLane;
+import com.homeless.chatservice.common.lane.PriorityLaneQueue;
 import com.homeless.chatservice.dto.MessageDto;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.core.Message;
-import org.springframework.amqp.rabbit.core.RabbitAdmin;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
-import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -25,18 +23,27 @@ import java.time.Duration;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class StompMessageService {
-    private final RabbitTemplate rabbitTemplate;
+    private static final String CHAT_DESTINATION = "/topic/chat.channel.";
+    // 메시지가 오간 채널 목록 (담당 노드 계산용, 모든 노드가 공유)
+    public static final String KNOWN_CHANNELS_KEY = "chat:cluster:channels";
+    // 클러스터에서 /topic 으로 이미 내보낸 메시지 (노드와 상관없이 한 번만 전송)
+    private static final String RELAYED_KEY_PREFIX = "chat:fanout:relayed:";
+
     private final SimpMessagingTemplate messagingTemplate;
-    private final RabbitConfig rabbitConfig;
-    private final RabbitAdmin rabbitAdmin;
+    private final ChannelOwnership channelOwnership;
+    private final FanoutDeliveryTracker deliveryTracker;
+    private final BroadcastCoalescer broadcastCoalescer;
+    private final ChannelReplayBuffer replayBuffer;
+    private final ChannelKeyRegistry channelKeyRegistry;
+    private final ChatMessagePublisher chatMessagePublisher;
     
     @Qualifier("messageRedisTemplate")
     private final RedisTemplate<String, MessageDto> messageRedisTemplate;
@@ -44,13 +51,55 @@ public class StompMessageService {
     @Qualifier("redisTemplate")
     private final RedisTemplate<String, String> redisTemplate;
     
-    private final Map<String, SimpleMessageListenerContainer> channelListeners = new ConcurrentHashMap<>();
-    private final ExecutorService messageExecutor = Executors.newFixedThreadPool(100);
+    private final MeterRegistry meterRegistry;
+    
+    private final Set<String> declaredChannels = ConcurrentHashMap.newKeySet();
+    // WebSocket 전송 작업. 메시지 수정/삭제와 접속 상태는 CONTROL 레인으로 채팅 메시지(BULK)보다 먼저 처리
+    // 레인은 서버가 정한다. (클라이언트가 보낸 messageType 은 보지 않음)
+    private ThreadPoolExecutor messageExecutor;
     
-    @Value("${rabbitmq.chat-exchange.name}")
-    private String exchangeName;
+    @Value("${chat.fanout.mode:DIRECT_RELAY}")
+    private FanoutMode fanoutMode;
+
+    @Value("${chat.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${chat.fanout.cluster-dedup-ttl-ms:600000}")
+    private long clusterDedupTtlMs;
+
+    @Value("${chat.lanes.control-weight:4}")
+    private int controlWeight;
+
+    @Value("${chat.lanes.message.threads:100}")
+    private int messageThreads;
+
+    @Value("${chat.lanes.message.control-capacity:1000}")
+    private int messageControlCapacity;
+
+    @Value("${chat.lanes.message.bulk-capacity:10000}")
+    private int messageBulkCapacity;
+
+    @PostConstruct
+    public void init() {
+        PriorityLaneQueue queue = new PriorityLaneQueue(PriorityLaneQueue::laneOf,
+                messageControlCapacity, messageBulkCapacity, controlWeight)
+                .bindTo(meterRegistry, "message");
+        messageExecutor = new ThreadPoolExecutor(messageThreads, messageThreads, 0L, TimeUnit.MILLISECONDS, queue);
+    }
+
+    // change stream 모드에서는 저장 이후의 전송을 ChangeStreamFanoutService가 담당
+    public boolean broadcastsFromChangeStream() {
+        return fanoutMode == FanoutMode.CHANGE_STREAM;
+    }
 
     public void sendMessageFromRabbitMQ(MessageDto message) {
+        // 재접속 복구용 버퍼에 먼저 기록 (이후 중복 확인에서 걸러져도 저장은 되었으므로)
+        replayBuffer.record(message);
+        if (broadcastsFromChangeStream()) {
+            log.debug("Message {} will be fanned out from the change stream", message.getChatId());
+            return;
+        }
+
         try {
             log.info("Attempting to send message: {}", message);
             
@@ -65,30 +114,99 @@ public class StompMessageService {
                 return;
             }
 
-            // 3. 메시지 전송
-            String routingKey = "chat.channel." + message.getChannelId();
-            String destination = "/topic/chat.channel." + message.getChannelId();
-            
-            // RabbitMQ로 메시지 전송
-            rabbitTemplate.convertAndSend(
-                    exchangeName,
-                    routingKey,
-                    message
-            );
-            log.info("Message sent to RabbitMQ - exchange: {}, routingKey: {}", exchangeName, routingKey);
-
-            // WebSocket으로 직접 메시지 전송
-            messagingTemplate.convertAndSend(destination, message);
-            log.info("Message sent to WebSocket - destination: {}", destination);
-            
+            // 3. 설정된 fan-out 경로로 한 번씩만 전송
+            switch (fanoutMode) {
+                case DIRECT_RELAY -> broadcast(message);
+                case AMQP_LOCAL_FANOUT -> {
+                    ensureChannelListener(message.getChannelId());
+                    publish(message);
+                }
+                case HYBRID -> {
+                    broadcast(message);
+                    publish(message);
+                }
+                default -> throw new IllegalStateException("Unsupported fan-out mode: " + fanoutMode);
+            }
+
         } catch (Exception e) {
             log.error("Error sending message: {}", e.getMessage());
             throw new RuntimeException("Failed to send message", e);
         }
     }
 
+    // 채널 담당 노드로 전달 (RabbitMQ 면 confirm 을 기다리지 않고 발행 버퍼에 넣는다)
+    private void publish(MessageDto message) {
+        if (chatMessagePublisher.publish(message.getChannelId(), message)) {
+            log.info("Message queued for channel {}", message.getChannelId());
+        }
+    }
+
+    // WebSocket(/topic)으로 전송. 같은 메시지가 같은 경로로 두 번 나가지 않도록 확인
+    private void broadcast(MessageDto message) {
+        String destination = CHAT_DESTINATION + message.getChannelId();
+        if (!deliveryTracker.firstDelivery(destination, message.getChatId())) {
+            log.warn("Suppressed duplicate delivery of {} to {}", message.getChatId(), destination);
+            return;
+        }
+        // 위 확인은 이 노드에서만 유효하다. 여러 노드가 /topic 으로 보내는 경우 다른 노드가 먼저 보냈는지 Redis 로 확인
+        if (clusterEnabled && !firstClusterDelivery(message)) {
+            log.warn("Suppressed duplicate delivery of {} to {} (already relayed by another node)",
+                    message.getChatId(), destination);
+            return;
+        }
+        // 바쁜 채널은 짧은 구간 동안 모아서 한 프레임으로 전송
+        if (broadcastCoalescer.offer(destination, message)) {
+            return;
+        }
+        messagingTemplate.convertAndSend(destination, message);
+        log.info("Message sent to WebSocket - destination: {}", destination);
+    }
+
+    // 클러스터 전체에서 처음 전송하는 경우에만 true. Redis 오류 시에는 유실보다 중복이 낫기 때문에 전송한다.
+    private boolean firstClusterDelivery(MessageDto message) {
+        if (message.getChatId() == null) {
+            return true;
+        }
+        try {
+            Boolean first = redisTemplate.opsForValue()
+                    .setIfAbsent(RELAYED_KEY_PREFIX + message.getChatId(), "1", Duration.ofMillis(clusterDedupTtlMs));
+            if (Boolean.FALSE.equals(first)) {
+                meterRegistry.counter("chat.fanout.cluster.duplicates").increment();
+                return false;
+            }
+        } catch (Exception e) {
+            log.warn("Failed to check cluster delivery of {}: {}", message.getChatId(), e.getMessage());
+        }
+        return true;
+    }
+
+    // 메시지 수정/삭제 결과처럼 채팅 메시지보다 먼저 나가야 하는 전송
+    public void sendControl(String destination, Object payload) {
+        sendOnLane(MessageLane.CONTROL, destination, payload, null);
+    }
+
+    // 지정한 레인으로 전송. CONTROL 레인이 가득 차면 호출 스레드에서 바로 보내고, BULK 레인이 가득 차면 버린다.
+    public void sendOnLane(MessageLane lane, String destination, Object payload, Map<String, Object> headers) {
+        try {
+            messageExecutor.execute(lane.task(() -> {
+                try {
+                    messagingTemplate.convertAndSend(destination, payload, headers);
+                } catch (Exception e) {
+                    log.warn("Failed to send to {}: {}", destination, e.getMessage());
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            if (lane == MessageLane.CONTROL) {
+                messagingTemplate.convertAndSend(destination, payload, headers);
+            } else {
+                log.warn("Message lane full, dropped send to {}", destination);
+            }
+        }
+    }
+
     public boolean isDuplicateMessage(String channelId, String messageContentHash) {
         String redisKey = "chat:channel:" + channelId + ":messages";
+        channelKeyRegistry.register(channelId, redisKey);
         String existingMessageHash = redisTemplate.opsForValue().get(redisKey);
 
         if (existingMessageHash == null || !existingMessageHash.equals(messageContentHash)) {
@@ -116,58 +234,80 @@ public class StompMessageService {
         return hexString.toString();
     }
 
-    private void createChannelListener(String channelId) {
-        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
-        container.setConnectionFactory(rabbitConfig.connectionFactory());
-        container.setQueueNames("chat.channel." + channelId);
-        container.setConcurrentConsumers(20);
-        container.setMaxConcurrentConsumers(50);
-        container.setPrefetchCount(500);
-        
-        container.setMessageListener((ChannelAwareMessageListener) (message, channel) -> {
-            messageExecutor.submit(() -> {
+    // AMQP_LOCAL_FANOUT 모드: 채널 큐/바인딩은 발행하는 노드가 선언하고, 큐 리스너는 담당 노드에서만 띄운다.
+    private void ensureChannelListener(String channelId) {
+        if (declaredChannels.add(channelId)) {
+            chatMessagePublisher.declareChannel(channelId);
+            // 담당 노드가 다음 동기화 때 리스너를 띄울 수 있도록 채널 목록에 등록
+            redisTemplate.opsForSet().add(KNOWN_CHANNELS_KEY, channelId);
+        }
+        if (channelOwnership.isOwner(channelId)) {
+            startChannelListener(channelId);
+        }
+    }
+
+    private void startChannelListener(String channelId) {
+        chatMessagePublisher.startConsumer(channelId, message -> {
+            try {
+                messageExecutor.execute(MessageLane.BULK.task(() -> {
+                    try {
+                        replayBuffer.record(message);
+                        // WebSocket으로 메시지 전송.
+                        // chat.exchange 로 다시 보내면 이 큐로 되돌아오므로 반드시 /topic 경로로 보낸다.
+                        broadcast(message);
+                    } catch (Exception e) {
+                        log.error("Error processing message for channel {}: {}", channelId, e.getMessage());
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                // 레인이 가득 참 (저장된 메시지는 재접속 복구로 받을 수 있다)
+                log.warn("Message lane full, dropped broadcast of {} for channel {}", message.getChatId(), channelId);
+            }
+        });
+    }
+
+    // 클러스터 멤버가 바뀌면 담당하지 않게 된 채널의 리스너는 내리고, 새로 맡은 채널의 리스너를 띄운다.
+    // 큐는 durable 이므로 옮겨지는 동안 쌓인 메시지는 새 담당 노드가 이어서 소비한다.
+    @EventListener
+    public void onOwnershipChanged(ChannelOwnershipChangedEvent event) {
+        if (fanoutMode != FanoutMode.AMQP_LOCAL_FANOUT) {
+            return;
+        }
+        chatMessagePublisher.consumingChannels().stream()
+                .filter(channelId -> !channelOwnership.isOwner(channelId))
+                .toList()
+                .forEach(this::stopChannelListener);
+
+        Set<String> knownChannels = redisTemplate.opsForSet().members(KNOWN_CHANNELS_KEY);
+        if (knownChannels == null) {
+            return;
+        }
+        for (String channelId : knownChannels) {
+            if (channelOwnership.isOwner(channelId)) {
                 try {
-                    String jsonMessage = new String(message.getBody());
-                    ObjectMapper objectMapper = new ObjectMapper();
-                    MessageDto chatMessage = objectMapper.readValue(jsonMessage, MessageDto.class);
-                    
-                    // WebSocket으로 메시지 전송
-                    messagingTemplate.convertAndSend(
-                            "/exchange/chat.exchange/chat.channel." + channelId,
-                            chatMessage
-                    );
-                    log.info("Message forwarded to WebSocket for channel: {}", channelId);
+                    startChannelListener(channelId);
                 } catch (Exception e) {
-                    log.error("Error processing message for channel {}: {}", channelId, e.getMessage());
+                    log.error("Failed to start listener for channel {}: {}", channelId, e.getMessage());
                 }
-            });
-        });
-        
-        container.start();
-        channelListeners.put(channelId, container);
-    }
-    
-    private void handleMessageProcessingError(Message message, String channelId) {
-        try {
-            // 메시지 재처리 시도
-            rabbitTemplate.send("chat.channel." + channelId, message);
-        } catch (Exception e) {
-            log.error("Failed to retry message processing for channel {}", channelId, e);
+            }
+        }
+        if (event.membershipChanged()) {
+            log.info("Rebalanced channel listeners, now consuming {} channels", chatMessagePublisher.consumingChannels().size());
         }
     }
-    
+
+    private void stopChannelListener(String channelId) {
+        chatMessagePublisher.stopConsumer(channelId);
+        log.info("Stopped listener for channel {} (ownership moved)", channelId);
+    }
+
     public void removeChannel(String channelId) {
-        SimpleMessageListenerContainer container = channelListeners.remove(channelId);
-        if (container != null) {
-            container.stop();
-        }
-        rabbitAdmin.deleteQueue("chat.channel." + channelId);
-        // Redis 캐시 정리
-        String pattern = "chat:channel:" + channelId + ":*";
-        Set<String> keys = redisTemplate.keys(pattern);
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
-        }
+        chatMessagePublisher.deleteChannel(channelId);
+        declaredChannels.remove(channelId);
+        replayBuffer.remove(channelId);
+        redisTemplate.opsForSet().remove(KNOWN_CHANNELS_KEY, channelId);
+        // Redis 캐시 정리 (KEYS 는 전체 키 공간을 막으므로 채널 키 목록으로 지운다)
+        channelKeyRegistry.deleteChannelKeys(channelId);
     }
     
     @PreDestroy
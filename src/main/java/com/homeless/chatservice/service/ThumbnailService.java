@@ -0,0 +1,217 @@
+package com.homeless.chatservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeless.chatservice.common.config.AwsS3Config;
+import com.homeless.chatservice.dto.ImageVariant;
+import com.homeless.chatservice.repository.ChatMessageStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 이미지 첨부파일의 썸네일/미리보기를 비동기로 생성하는 서비스
+// 업로드 요청 스레드를 막지 않도록 전용 워커 풀에서 디코딩, 리사이즈, S3 업로드를 처리한다.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ThumbnailService {
+
+    private static final String VARIANT_KEY_PREFIX = "chat:file:variants:";
+    private static final String THUMBNAIL_FIELD = "thumbnail";
+    private static final String PREVIEW_FIELD = "preview";
+
+    private final AwsS3Config awsS3Config;
+    private final ChatMessageStore chatMessageStore;
+    private final ObjectMapper objectMapper;
+
+    @Qualifier("redisTemplate")
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${chat.thumbnail.thumbnail-max-edge:240}")
+    private int thumbnailMaxEdge;
+
+    @Value("${chat.thumbnail.preview-max-edge:960}")
+    private int previewMaxEdge;
+
+    @Value("${chat.thumbnail.max-source-pixels:40000000}")
+    private long maxSourcePixels;
+
+    @Value("${chat.thumbnail.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${chat.thumbnail.queue-capacity:200}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor thumbnailExecutor;
+
+    // 썸네일 생성 결과. 두 이미지 모두 같은 원본에서 만들어진다.
+    public record ImageDerivatives(ImageVariant thumbnail, ImageVariant preview) {
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // 큐가 가득 차면 썸네일은 포기한다 (원본은 이미 업로드 되어 있으므로 기능에는 문제 없음)
+        thumbnailExecutor = new ThreadPoolExecutor(
+                workerThreads, workerThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static boolean isImage(String contentType) {
+        return contentType != null && contentType.startsWith("image/");
+    }
+
+    // 업로드 된 원본에 대해 파생 이미지 생성을 예약
+    public void generateAsync(byte[] source, String fileName, String fileUrl) {
+        try {
+            thumbnailExecutor.execute(() -> generate(source, fileName, fileUrl));
+        } catch (RejectedExecutionException e) {
+            log.warn("Thumbnail queue is full, skipping derivatives for {}", fileName);
+        }
+    }
+
+    // 이미 생성된 파생 이미지 조회 (메시지 저장 시점에 썸네일이 먼저 완료된 경우)
+    public Optional<ImageDerivatives> findDerivatives(String fileUrl) {
+        if (fileUrl == null) {
+            return Optional.empty();
+        }
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(VARIANT_KEY_PREFIX + fileUrl);
+        if (entries.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new ImageDerivatives(
+                    readVariant(entries.get(THUMBNAIL_FIELD)),
+                    readVariant(entries.get(PREVIEW_FIELD))));
+        } catch (JsonProcessingException e) {
+            log.warn("Invalid derivative cache entry for {}", fileUrl, e);
+            return Optional.empty();
+        }
+    }
+
+    private void generate(byte[] source, String fileName, String fileUrl) {
+        long start = System.nanoTime();
+        try {
+            BufferedImage image = readScaled(source);
+            if (image == null) {
+                log.debug("Unsupported or oversized image, skipping derivatives for {}", fileName);
+                return;
+            }
+
+            ImageVariant preview = renderVariant(image, previewMaxEdge, fileName + ".preview.jpg");
+            ImageVariant thumbnail = renderVariant(image, thumbnailMaxEdge, fileName + ".thumb.jpg");
+
+            // 메시지가 아직 저장되지 않았을 수 있으므로 먼저 캐시에 기록하고, 이미 저장된 메시지는 바로 갱신
+            // (ChatHttpService.createChatMessage 가 저장 후 캐시를 다시 확인하므로 이 순서를 바꾸면 안 된다)
+            String key = VARIANT_KEY_PREFIX + fileUrl;
+            redisTemplate.opsForHash().put(key, THUMBNAIL_FIELD, objectMapper.writeValueAsString(thumbnail));
+            redisTemplate.opsForHash().put(key, PREVIEW_FIELD, objectMapper.writeValueAsString(preview));
+            redisTemplate.expire(key, Duration.ofHours(1));
+            long updated = chatMessageStore.updateImageVariants(fileUrl, thumbnail, preview);
+
+            log.info("Generated derivatives for {} in {}ms (updated {} messages)",
+                    fileName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), updated);
+        } catch (Exception e) {
+            log.error("Failed to generate derivatives for {}", fileName, e);
+        }
+    }
+
+    // 미리보기 크기보다 훨씬 큰 원본은 디코딩 단계에서 서브샘플링해서 메모리와 CPU를 아낀다.
+    private BufferedImage readScaled(byte[] source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(source))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    return null;
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (previewMaxEdge * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private ImageVariant renderVariant(BufferedImage source, int maxEdge, String key) throws IOException {
+        double scale = Math.min(1.0, maxEdge / (double) Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // JPEG은 알파 채널이 없으므로 흰 배경 위에 그린다.
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(target, "jpg", output);
+        String url = awsS3Config.uploadToS3Bucket(output.toByteArray(), key, "image/jpeg");
+        return new ImageVariant(url, width, height);
+    }
+
+    private ImageVariant readVariant(Object json) throws JsonProcessingException {
+        return json == null ? null : objectMapper.readValue(json.toString(), ImageVariant.class);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        thumbnailExecutor.shutdown();
+        try {
+            if (!thumbnailExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                thumbnailExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            thumbnailExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
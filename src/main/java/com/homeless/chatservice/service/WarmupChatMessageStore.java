@@ -0,0 +1,153 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.dto.ImageVariant;
+import com.homeless.chatservice.entity.ChatMessage;
+import com.homeless.chatservice.repository.ChatMessageStore;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+// JIT 워밍업 전용 저장소 (빈 아님)
+// 최근 메시지 몇 개만 메모리에 두고 조회/매핑 경로가 실제와 같은 모양의 결과를 받게 한다. Mongo 에는 쓰지 않는다.
+class WarmupChatMessageStore implements ChatMessageStore {
+
+    private final int capacity;
+    // 최신 메시지가 앞
+    private final Deque<ChatMessage> messages = new ArrayDeque<>();
+
+    WarmupChatMessageStore(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized String save(ChatMessage message) {
+        ChatMessage saved = message.getId() != null ? message : message.toBuilder().id(new ObjectId().toHexString()).build();
+        messages.addFirst(saved);
+        if (messages.size() > capacity) {
+            messages.removeLast();
+        }
+        return saved.getId();
+    }
+
+    @Override
+    public synchronized Optional<ChatMessage> findById(String chatId) {
+        return messages.stream().filter(message -> message.getId().equals(chatId)).findFirst();
+    }
+
+    @Override
+    public Page<ChatMessage> findPageByChannelId(String channelId, Pageable pageable) {
+        return page(message -> channelId.equals(message.getChannelId()), pageable);
+    }
+
+    @Override
+    public synchronized List<ChatMessage> findLatestByChannelId(String channelId, int limit) {
+        return messages.stream().filter(message -> channelId.equals(message.getChannelId())).limit(limit).toList();
+    }
+
+    @Override
+    public synchronized List<ChatMessage> findAfterSeq(String channelId, long afterSeq, int limit) {
+        return messages.stream()
+                .filter(message -> channelId.equals(message.getChannelId()) && message.getSeq() != null && message.getSeq() > afterSeq)
+                .sorted(Comparator.comparing(ChatMessage::getSeq))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public synchronized List<ChatMessage> findUpToSeq(String channelId, long seq, int limit) {
+        return messages.stream()
+                .filter(message -> channelId.equals(message.getChannelId()) && message.getSeq() != null && message.getSeq() <= seq)
+                .sorted(Comparator.comparing(ChatMessage::getSeq).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public synchronized Optional<Long> findMaxSeq(String channelId) {
+        return messages.stream()
+                .filter(message -> channelId.equals(message.getChannelId()) && message.getSeq() != null)
+                .map(ChatMessage::getSeq)
+                .max(Long::compare);
+    }
+
+    @Override
+    public Page<ChatMessage> searchByContent(String channelId, String keyword, Pageable pageable) {
+        return page(message -> channelId.equals(message.getChannelId())
+                && message.getContent() != null && message.getContent().contains(keyword), pageable);
+    }
+
+    @Override
+    public Page<ChatMessage> searchByWriter(String channelId, String keyword, Pageable pageable) {
+        return page(message -> channelId.equals(message.getChannelId())
+                && message.getWriter() != null && message.getWriter().contains(keyword), pageable);
+    }
+
+    @Override
+    public List<ChatMessage> findWithFileByChannelId(String channelId) {
+        return List.of();
+    }
+
+    @Override
+    public List<String> findChannelIdsByServerId(String serverId) {
+        return List.of();
+    }
+
+    @Override
+    public void updateContent(String chatId, String content) {
+    }
+
+    @Override
+    public long updateImageVariants(String fileUrl, ImageVariant thumbnail, ImageVariant preview) {
+        return 0;
+    }
+
+    @Override
+    public synchronized void deleteById(String chatId) {
+        messages.removeIf(message -> message.getId().equals(chatId));
+    }
+
+    @Override
+    public synchronized void deleteByChannelId(String channelId) {
+        messages.removeIf(message -> channelId.equals(message.getChannelId()));
+    }
+
+    @Override
+    public List<String> findChannelIdsWithMessagesBefore(long before) {
+        return List.of();
+    }
+
+    @Override
+    public List<String> findChannelIdsAfter(String afterChannelId, int limit) {
+        return List.of();
+    }
+
+    @Override
+    public MessageBatch findOldest(String channelId, long before, int limit) {
+        return new MessageBatch(channelId, List.of(), List.of());
+    }
+
+    @Override
+    public void deleteBatch(MessageBatch batch) {
+    }
+
+    private synchronized Page<ChatMessage> page(Predicate<ChatMessage> filter, Pageable pageable) {
+        List<ChatMessage> matched = new ArrayList<>();
+        for (ChatMessage message : messages) {
+            if (filter.test(message)) {
+                matched.add(message);
+            }
+        }
+        int from = (int) Math.min(pageable.getOffset(), matched.size());
+        int to = Math.min(from + pageable.getPageSize(), matched.size());
+        return new PageImpl<>(matched.subList(from, to), pageable, matched.size());
+    }
+}
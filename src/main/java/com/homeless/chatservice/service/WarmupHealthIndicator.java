@@ -0,0 +1,23 @@
+package com.homeless.chatservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// /actuator/health 의 warmup 항목. readiness 그룹에 포함되어 JIT 워밍업이 끝나야 UP 이 된다.
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final JitWarmupService jitWarmupService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = jitWarmupService.isCompleted() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("rounds", jitWarmupService.rounds())
+                .withDetail("elapsedMs", jitWarmupService.elapsedMs())
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.homeless.chatservice.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+
+// 워밍업 스레드에서 나오는 WARN 미만 로그를 버리는 필터
+// 전송 경로는 메시지마다 INFO 로그를 여러 줄 남기므로 워밍업 중에는 수만 줄이 쌓인다.
+// 로거 레벨을 바꾸면 같은 시각의 실제 요청 로그도 사라지므로 레벨 대신 스레드로 거른다.
+// 판정이 메시지 포맷 전에 끝나므로 버린 로그는 문자열도 만들지 않는다.
+class WarmupLogFilter extends TurboFilter implements AutoCloseable {
+
+    private final Thread thread;
+    private final LoggerContext context;
+
+    private WarmupLogFilter(Thread thread, LoggerContext context) {
+        this.thread = thread;
+        this.context = context;
+    }
+
+    // Logback 이 아닌 로깅 구현에서는 아무 것도 하지 않는다.
+    static WarmupLogFilter forCurrentThread() {
+        LoggerContext context = LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext
+                ? loggerContext : null;
+        WarmupLogFilter filter = new WarmupLogFilter(Thread.currentThread(), context);
+        if (context != null) {
+            filter.setContext(context);
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+        return filter;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level != null && !level.isGreaterOrEqual(Level.WARN) && Thread.currentThread() == thread) {
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    @Override
+    public void close() {
+        if (context != null) {
+            context.getTurboFilterList().remove(this);
+            stop();
+        }
+    }
+}
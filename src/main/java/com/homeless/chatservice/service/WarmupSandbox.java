@@ -0,0 +1,196 @@
+package com.homeless.chatservice.service;
+
+import com.homeless.chatservice.common.auth.JwtUtils;
+import com.homeless.chatservice.common.ratelimit.ChatRateLimiter;
+import com.homeless.chatservice.controller.ChatHttpController;
+import com.homeless.chatservice.controller.WebSocketController;
+import com.homeless.chatservice.dto.MessageDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// JIT 워밍업용 객체 묶음 (빈 아님)
+// 실제 WebSocketController/StompMessageService/ChatHttpService 등을 새로 만들어서
+// 저장(WarmupChatMessageStore), 발행(NO_OP_PUBLISHER), 브로커(버리는 채널), Redis(아무 것도 하지 않는 연결)에 연결한다.
+// JIT 은 인스턴스가 아니라 메서드 단위로 컴파일하므로 실제 빈이 타는 코드가 그대로 데워진다.
+// 컨텍스트에 등록하지 않으므로 이벤트 리스너/스케줄러는 붙지 않고, @Value 설정만 autowireBean 으로 주입한다.
+class WarmupSandbox implements AutoCloseable {
+
+    private static final int STORE_CAPACITY = 200;
+
+    private static final ChatMessagePublisher NO_OP_PUBLISHER = new ChatMessagePublisher() {
+        @Override
+        public boolean publish(String channelId, MessageDto message) {
+            return true;
+        }
+
+        @Override
+        public void declareChannel(String channelId) {
+        }
+
+        @Override
+        public void startConsumer(String channelId, Consumer<MessageDto> handler) {
+        }
+
+        @Override
+        public void stopConsumer(String channelId) {
+        }
+
+        @Override
+        public Set<String> consumingChannels() {
+            return Set.of();
+        }
+
+        @Override
+        public void deleteChannel(String channelId) {
+        }
+    };
+
+    private static final RedisConnectionFactory NO_OP_REDIS = noOp(RedisConnectionFactory.class);
+
+    final WebSocketController webSocketController;
+    final ChatHttpController chatHttpController;
+    // 설정값이 적용된 제한기. 컨트롤러에는 꺼진 제한기를 넣으므로 (워밍업 사용자가 하나뿐이라 켜면 대부분 거절 경로만 돈다)
+    // 판정 코드는 여러 사용자로 직접 호출해서 데운다.
+    final ChatRateLimiter rateLimiter;
+    private final ChatRateLimiter sendRateLimiter;
+    private final StompMessageService stompMessageService;
+    private final BroadcastCoalescer broadcastCoalescer;
+    private final ChatHttpService chatHttpService;
+
+    WarmupSandbox(AutowireCapableBeanFactory beanFactory) {
+        RedisTemplate<String, String> redis = redisSink(beanFactory.getBean("redisTemplate", RedisTemplate.class));
+        RedisTemplate<String, MessageDto> messageRedis = redisSink(beanFactory.getBean("messageRedisTemplate", RedisTemplate.class));
+        SimpMessagingTemplate broker = new SimpMessagingTemplate((message, timeout) -> true);
+        broker.setMessageConverter(beanFactory.getBean("brokerMessageConverter", MessageConverter.class));
+        MeterRegistry meters = new SimpleMeterRegistry();
+        ThumbnailService thumbnailService = beanFactory.getBean(ThumbnailService.class);
+        JwtUtils jwtUtils = beanFactory.getBean(JwtUtils.class);
+        ChatSignalService chatSignalService = beanFactory.getBean(ChatSignalService.class);
+
+        WarmupChatMessageStore store = new WarmupChatMessageStore(STORE_CAPACITY);
+        ChannelKeyRegistry channelKeyRegistry = configure(beanFactory, new ChannelKeyRegistry(redis));
+        ChannelSequenceService sequenceService = new ChannelSequenceService(store, channelKeyRegistry, redis);
+        // 첨부파일 정리(AwsS3Config, FileService)는 워밍업에서 타지 않는다.
+        chatHttpService = configure(beanFactory, new ChatHttpService(store, null, null, thumbnailService));
+        DtoBuilder dtoBuilder = new DtoBuilder(chatHttpService, thumbnailService, sequenceService);
+        broadcastCoalescer = configure(beanFactory, new BroadcastCoalescer(broker, meters));
+        stompMessageService = configure(beanFactory, new StompMessageService(broker,
+                beanFactory.getBean(ChannelOwnership.class), new FanoutDeliveryTracker(meters, STORE_CAPACITY),
+                broadcastCoalescer, new ChannelReplayBuffer(STORE_CAPACITY, 16), channelKeyRegistry,
+                NO_OP_PUBLISHER, messageRedis, redis, meters));
+        stompMessageService.init();
+        // onMessage 는 Redis 만 쓰고, Mongo 저장은 flush 스케줄러(init)에서만 하므로 MongoTemplate 없이 만든다.
+        ChannelSummaryService summaryService = new ChannelSummaryService(redis, null, sequenceService, channelKeyRegistry);
+        rateLimiter = configure(beanFactory, new ChatRateLimiter(redis, meters));
+        sendRateLimiter = new ChatRateLimiter(redis, meters);
+
+        webSocketController = new WebSocketController(stompMessageService, chatHttpService, broker, jwtUtils,
+                dtoBuilder, sendRateLimiter, chatSignalService, summaryService);
+        chatHttpController = new ChatHttpController(chatHttpService, beanFactory.getBean(ResponseService.class),
+                stompMessageService, chatSignalService, null, summaryService, jwtUtils);
+    }
+
+    private static <T> T configure(AutowireCapableBeanFactory beanFactory, T bean) {
+        beanFactory.autowireBean(bean);
+        return bean;
+    }
+
+    // 실제 템플릿과 같은 직렬화를 쓰되 명령은 아무 데도 보내지 않는 템플릿
+    @SuppressWarnings("unchecked")
+    private static <K, V> RedisTemplate<K, V> redisSink(RedisTemplate<?, ?> source) {
+        RedisTemplate<K, V> template = new RedisTemplate<>();
+        template.setConnectionFactory(NO_OP_REDIS);
+        template.setKeySerializer(source.getKeySerializer());
+        template.setValueSerializer(source.getValueSerializer());
+        template.setHashKeySerializer(source.getHashKeySerializer());
+        template.setHashValueSerializer(source.getHashValueSerializer());
+        template.setStringSerializer(source.getStringSerializer());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T noOp(Class<T> type) {
+        return (T) Proxy.newProxyInstance(WarmupSandbox.class.getClassLoader(), new Class<?>[]{type}, NoOpRedisHandler.INSTANCE);
+    }
+
+    // 연결 팩토리, 연결, 명령 인터페이스를 모두 같은 방식으로 흉내 낸다.
+    // 조회는 없음(null, 빈 컬렉션), 스크립트는 반환 형식의 기본값(INTEGER 는 1)을 돌려준다.
+    private enum NoOpRedisHandler implements InvocationHandler {
+        INSTANCE;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "WarmupRedis";
+                };
+            }
+            if (method.getName().equals("getConnection")) {
+                return noOp(RedisConnection.class);
+            }
+            if (method.getName().equals("eval") || method.getName().equals("evalSha")) {
+                return scriptResult(args);
+            }
+            Class<?> type = method.getReturnType();
+            if (type == void.class || type == Object.class) {
+                return null;
+            }
+            if (type.isPrimitive()) {
+                return Array.get(Array.newInstance(type, 1), 0);
+            }
+            if (type == List.class || type == Collection.class) {
+                return List.of();
+            }
+            if (type == Set.class) {
+                return Set.of();
+            }
+            if (type == Map.class) {
+                return Map.of();
+            }
+            return type.isInterface() ? noOp(type) : null;
+        }
+
+        private static Object scriptResult(Object[] args) {
+            for (Object arg : args) {
+                if (arg instanceof ReturnType returnType) {
+                    return switch (returnType) {
+                        case INTEGER -> 1L;
+                        case MULTI -> List.of();
+                        case BOOLEAN -> Boolean.TRUE;
+                        default -> null;
+                    };
+                }
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        stompMessageService.cleanup();
+        chatHttpService.cleanup();
+        broadcastCoalescer.cleanup();
+        rateLimiter.cleanup();
+        sendRateLimiter.cleanup();
+    }
+}
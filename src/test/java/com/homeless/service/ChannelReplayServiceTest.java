@@ -0,0 +1,158 @@
+package com.homeless.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeless.chatservice.dto.MessageDto;
+import com.homeless.chatservice.repository.ChatMessageStore;
+import com.homeless.chatservice.service.ChannelReplayBuffer;
+import com.homeless.chatservice.service.ChannelReplayService;
+import com.homeless.chatservice.service.ChannelSequenceService;
+import com.homeless.chatservice.service.DtoBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ChannelReplayServiceTest {
+
+    private static final String CHANNEL_ID = "c1";
+    private static final String DESTINATION = "/topic/chat.channel." + CHANNEL_ID;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ChannelReplayBuffer replayBuffer = new ChannelReplayBuffer(256, 100);
+    private final ChannelSequenceService sequenceService = mock(ChannelSequenceService.class);
+    private final AtomicLong currentSeq = new AtomicLong();
+    private final ExecutorSubscribableChannel clientInboundChannel = new ExecutorSubscribableChannel();
+    private final BlockingQueue<Message<?>> pushed = new LinkedBlockingQueue<>();
+    // 첫 이력 프레임이 나간 직후에 실행 (relay 가 구독을 등록하기 전에 저장된 메시지 흉내)
+    private Runnable afterFirstPush = () -> { };
+
+    private ChannelReplayService replayService;
+
+    @BeforeEach
+    void setUp() {
+        when(sequenceService.current(anyString())).thenAnswer(invocation -> currentSeq.get());
+        MessageChannel clientOutboundChannel = (message, timeout) -> {
+            pushed.add(message);
+            if (pushed.size() == 1) {
+                afterFirstPush.run();
+            }
+            return true;
+        };
+        replayService = new ChannelReplayService(replayBuffer, sequenceService, mock(ChatMessageStore.class),
+                mock(DtoBuilder.class), clientInboundChannel, clientOutboundChannel,
+                new MappingJackson2MessageConverter(), 1, 10);
+        ReflectionTestUtils.setField(replayService, "maxReplayMessages", 500);
+        ReflectionTestUtils.setField(replayService, "maxSnapshotMessages", 100);
+        ReflectionTestUtils.setField(replayService, "gapFillDelayMs", 10L);
+        for (long seq = 1; seq <= 3; seq++) {
+            save(seq);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        replayService.cleanup();
+    }
+
+    @Test
+    void 구독이_브로커에_등록되는_동안_저장된_메시지도_스냅샷에_담긴다() throws Exception {
+        SimpleBrokerMessageHandler broker = mock(SimpleBrokerMessageHandler.class);
+        // 브로커가 구독을 등록하는 사이에 메시지 4가 저장됨
+        doAnswer(invocation -> {
+            save(4);
+            return null;
+        }).when(broker).handleMessage(any());
+        clientInboundChannel.subscribe(broker);
+
+        clientInboundChannel.send(subscribe("snapshot", "10"));
+
+        JsonNode frame = nextFrame();
+        assertEquals("SNAPSHOT", frame.get("type").asText());
+        assertEquals(List.of(1L, 2L, 3L, 4L), seqs(frame));
+        assertEquals(4, frame.get("lastSeq").asLong());
+        // simple broker 는 구독이 바로 등록되므로 gap fill 을 보내지 않는다.
+        assertNull(pushed.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void relay_모드에서는_이력_이후_구독_등록_전에_저장된_메시지를_다시_보낸다() throws Exception {
+        clientInboundChannel.subscribe(mock(StompBrokerRelayMessageHandler.class));
+        afterFirstPush = () -> save(4);
+
+        clientInboundChannel.send(subscribe("last-seq", "1"));
+
+        JsonNode replay = nextFrame();
+        assertEquals("REPLAY", replay.get("type").asText());
+        assertEquals(List.of(2L, 3L), seqs(replay));
+        JsonNode gapFill = nextFrame();
+        assertEquals("REPLAY", gapFill.get("type").asText());
+        assertEquals(List.of(4L), seqs(gapFill));
+        assertEquals(4, gapFill.get("lastSeq").asLong());
+    }
+
+    @Test
+    void 브로커가_아닌_핸들러의_처리에는_이력을_보내지_않는다() throws Exception {
+        clientInboundChannel.subscribe(mock(MessageHandler.class));
+
+        clientInboundChannel.send(subscribe("snapshot", "10"));
+
+        assertNull(pushed.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    private void save(long seq) {
+        replayBuffer.record(MessageDto.builder()
+                .chatId("chat-" + seq)
+                .channelId(CHANNEL_ID)
+                .content("message " + seq)
+                .seq(seq)
+                .build());
+        currentSeq.set(seq);
+    }
+
+    private Message<byte[]> subscribe(String header, String value) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(DESTINATION);
+        accessor.setSessionId("session-1");
+        accessor.setSubscriptionId("sub-1");
+        accessor.setNativeHeader(header, value);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private JsonNode nextFrame() throws Exception {
+        Message<?> message = pushed.poll(2, TimeUnit.SECONDS);
+        assertNotNull(message, "history frame was not pushed");
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        assertEquals("session-1", accessor.getSessionId());
+        assertEquals("sub-1", accessor.getSubscriptionId());
+        return objectMapper.readTree((byte[]) message.getPayload());
+    }
+
+    private List<Long> seqs(JsonNode frame) {
+        List<Long> seqs = new ArrayList<>();
+        frame.get("messages").forEach(message -> seqs.add(message.get("seq").asLong()));
+        return seqs;
+    }
+}
@@ -0,0 +1,140 @@
+package com.homeless.service;
+
+import com.homeless.chatservice.dto.ChatMessageCreateCommand;
+import com.homeless.chatservice.dto.ImageVariant;
+import com.homeless.chatservice.dto.LatestMessagesResponse;
+import com.homeless.chatservice.dto.MessageType;
+import com.homeless.chatservice.entity.ChatMessage;
+import com.homeless.chatservice.repository.ChatMessageStore;
+import com.homeless.chatservice.service.ChatHttpService;
+import com.homeless.chatservice.service.ThumbnailService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ChatHttpServiceTest {
+
+    private static final String FILE_URL = "https://bucket/photo.png";
+
+    private final ChatMessageStore chatMessageStore = mock(ChatMessageStore.class);
+    private final ThumbnailService thumbnailService = mock(ThumbnailService.class);
+    private final ThumbnailService.ImageDerivatives derivatives = new ThumbnailService.ImageDerivatives(
+            new ImageVariant("https://bucket/photo.png.thumb.jpg", 240, 180),
+            new ImageVariant("https://bucket/photo.png.preview.jpg", 960, 720));
+
+    private ChatHttpService chatHttpService;
+
+    @BeforeEach
+    void setUp() {
+        when(chatMessageStore.save(any())).thenReturn("chat-1");
+        chatHttpService = new ChatHttpService(chatMessageStore, null, null, thumbnailService);
+        ReflectionTestUtils.setField(chatHttpService, "bulkMaxChannels", 2);
+        ReflectionTestUtils.setField(chatHttpService, "bulkMaxPerChannel", 50);
+        ReflectionTestUtils.setField(chatHttpService, "bulkThreads", 2);
+        ReflectionTestUtils.setField(chatHttpService, "bulkQueueCapacity", 1);
+        chatHttpService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        chatHttpService.cleanup();
+    }
+
+    @Test
+    void 썸네일이_먼저_완료되면_메시지와_함께_저장한다() {
+        when(thumbnailService.findDerivatives(FILE_URL)).thenReturn(Optional.of(derivatives));
+
+        assertEquals("chat-1", chatHttpService.createChatMessage(fileCommand()));
+
+        ArgumentCaptor<ChatMessage> saved = ArgumentCaptor.forClass(ChatMessage.class);
+        verify(chatMessageStore).save(saved.capture());
+        assertEquals(derivatives.thumbnail(), saved.getValue().getThumbnail());
+        assertEquals(derivatives.preview(), saved.getValue().getPreview());
+        verify(chatMessageStore, never()).updateImageVariants(any(), any(), any());
+    }
+
+    @Test
+    void 조회와_저장_사이에_썸네일이_완료되면_저장_후에_채운다() {
+        // 저장 전 조회에서는 비어 있고, 그 사이 생성 쪽 갱신은 아직 없는 메시지를 대상으로 끝난 상황
+        when(thumbnailService.findDerivatives(FILE_URL))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(derivatives));
+
+        chatHttpService.createChatMessage(fileCommand());
+
+        InOrder inOrder = inOrder(chatMessageStore);
+        inOrder.verify(chatMessageStore).save(any());
+        inOrder.verify(chatMessageStore).updateImageVariants(FILE_URL, derivatives.thumbnail(), derivatives.preview());
+    }
+
+    @Test
+    void 썸네일이_아직_없으면_생성_쪽_갱신에_맡긴다() {
+        when(thumbnailService.findDerivatives(FILE_URL)).thenReturn(Optional.empty());
+
+        chatHttpService.createChatMessage(fileCommand());
+
+        verify(thumbnailService, times(2)).findDerivatives(FILE_URL);
+        verify(chatMessageStore, never()).updateImageVariants(any(), any(), any());
+    }
+
+    @Test
+    void 파일이_없는_메시지는_썸네일을_다시_확인하지_않는다() {
+        when(thumbnailService.findDerivatives(null)).thenReturn(Optional.empty());
+
+        chatHttpService.createChatMessage(new ChatMessageCreateCommand(
+                "s1", "c1", "user@test.com", "user", "hello", MessageType.TALK, null, null));
+
+        verify(thumbnailService, times(1)).findDerivatives(null);
+        verify(chatMessageStore, never()).updateImageVariants(any(), any(), any());
+    }
+
+    @Test
+    void 채널이_한_페이지보다_많으면_나눠서_조회한다() {
+        when(chatMessageStore.findLatestByChannelId(anyString(), anyInt())).thenReturn(List.of());
+        List<String> channelIds = List.of("c1", "c2", "c3", "c2");
+
+        LatestMessagesResponse first = chatHttpService.getLatestMessages(channelIds, 20, 0);
+        LatestMessagesResponse last = chatHttpService.getLatestMessages(channelIds, 20, 1);
+
+        assertEquals(List.of("c1", "c2"), List.copyOf(first.channels().keySet()));
+        assertEquals(Integer.valueOf(1), first.nextPage());
+        assertEquals(List.of("c3"), List.copyOf(last.channels().keySet()));
+        assertNull(last.nextPage());
+        assertTrue(chatHttpService.getLatestMessages(channelIds, 20, 2).channels().isEmpty());
+    }
+
+    @Test
+    void 조회_풀이_가득_차도_모든_채널을_조회한다() {
+        // 스레드 2개, 큐 1칸인 풀에 채널 조회를 한꺼번에 넘겨도 요청 스레드가 넘친 작업을 직접 실행한다.
+        ReflectionTestUtils.setField(chatHttpService, "bulkMaxChannels", 20);
+        when(chatMessageStore.findLatestByChannelId(anyString(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return List.of();
+        });
+        List<String> channelIds = IntStream.range(0, 20).mapToObj(i -> "c" + i).toList();
+
+        LatestMessagesResponse response = chatHttpService.getLatestMessages(channelIds, 20, 0);
+
+        assertEquals(channelIds, List.copyOf(response.channels().keySet()));
+        verify(chatMessageStore, times(20)).findLatestByChannelId(anyString(), eq(20));
+    }
+
+    private ChatMessageCreateCommand fileCommand() {
+        return new ChatMessageCreateCommand(
+                "s1", "c1", "user@test.com", "user", "photo.png", MessageType.FILE, FILE_URL, "photo.png");
+    }
+}
@@ -0,0 +1,81 @@
+package com.homeless.service;
+
+import com.homeless.chatservice.common.codec.ChatMessageCodec;
+import com.homeless.chatservice.common.codec.ChatMessageCodecRegistry;
+import com.homeless.chatservice.dto.ChannelType;
+import com.homeless.chatservice.dto.MessageDto;
+import com.homeless.chatservice.dto.MessageType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JSON vs CBOR 크기/처리량 비교 벤치마크
+// 정밀한 측정(JMH)이 아니라 수동 확인용이다. 기본 test 에서는 빠지고 ./gradlew codecBenchmark 로 실행한다.
+// 크기/왕복 변환 검증은 ChatMessageCodecTest 에 있다.
+@Tag("benchmark")
+class ChatMessageCodecBenchmarkTest {
+
+    private static final int MESSAGE_COUNT = 1_000;
+    private static final int ROUNDS = 20;
+
+    private final ChatMessageCodecRegistry registry = new ChatMessageCodecRegistry("application/cbor");
+
+    @Test
+    void JSON_CBOR_크기와_처리량을_출력한다() throws IOException {
+        List<MessageDto> messages = sampleMessages();
+
+        long jsonBytes = totalSize(registry.json(), messages);
+        long cborBytes = totalSize(registry.cbor(), messages);
+        double jsonThroughput = throughput(registry.json(), messages);
+        double cborThroughput = throughput(registry.cbor(), messages);
+
+        assertTrue(jsonThroughput > 0 && cborThroughput > 0);
+        System.out.printf("[codec] json=%d bytes, cbor=%d bytes (%.1f%%)%n",
+                jsonBytes, cborBytes, cborBytes * 100.0 / jsonBytes);
+        System.out.printf("[codec] json=%.0f msg/s, cbor=%.0f msg/s%n", jsonThroughput, cborThroughput);
+    }
+
+    private long totalSize(ChatMessageCodec codec, List<MessageDto> messages) throws IOException {
+        long total = 0;
+        for (MessageDto message : messages) {
+            total += codec.encode(message).length;
+        }
+        return total;
+    }
+
+    // 인코딩 + 디코딩 왕복 기준 초당 처리 메시지 수 (앞의 절반은 워밍업으로 버림)
+    private double throughput(ChatMessageCodec codec, List<MessageDto> messages) throws IOException {
+        long measuredNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (MessageDto message : messages) {
+                codec.decode(codec.encode(message), MessageDto.class);
+            }
+            if (round >= ROUNDS / 2) {
+                measuredNanos += System.nanoTime() - start;
+            }
+        }
+        return (ROUNDS / 2) * (double) messages.size() / (measuredNanos / 1_000_000_000.0);
+    }
+
+    private List<MessageDto> sampleMessages() {
+        List<MessageDto> messages = new ArrayList<>();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            messages.add(MessageDto.builder()
+                    .chatId("6750f1c2a8b34e21d0c9" + String.format("%04d", i))
+                    .channelId("channel-" + (i % 10))
+                    .email("user" + (i % 50) + "@example.com")
+                    .writer("user" + (i % 50))
+                    .content("안녕하세요, 오늘 회의는 3시에 시작합니다. #" + i)
+                    .channelType(ChannelType.PUBLIC)
+                    .messageType(MessageType.TALK)
+                    .build());
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,73 @@
+package com.homeless.service;
+
+import com.homeless.chatservice.common.codec.ChatMessageCodec;
+import com.homeless.chatservice.common.codec.ChatMessageCodecRegistry;
+import com.homeless.chatservice.dto.ChannelType;
+import com.homeless.chatservice.dto.MessageDto;
+import com.homeless.chatservice.dto.MessageType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatMessageCodecTest {
+
+    private final ChatMessageCodecRegistry registry = new ChatMessageCodecRegistry("application/cbor");
+
+    @Test
+    void CBOR_코덱은_JSON보다_작고_왕복_변환이_동일하다() throws IOException {
+        List<MessageDto> messages = sampleMessages();
+
+        long jsonBytes = totalSize(registry.json(), messages);
+        long cborBytes = totalSize(registry.cbor(), messages);
+
+        MessageDto decoded = registry.cbor().decode(registry.cbor().encode(messages.get(0)), MessageDto.class);
+        assertEquals(messages.get(0).getContent(), decoded.getContent());
+        assertEquals(messages.get(0).getMessageType(), decoded.getMessageType());
+        assertEquals(messages.get(0).getChannelType(), decoded.getChannelType());
+        assertTrue(cborBytes < jsonBytes, "CBOR payloads should be smaller than JSON");
+    }
+
+    @Test
+    void JSON_페이로드를_CBOR로_변환할_수_있다() throws IOException {
+        MessageDto message = sampleMessages().get(0);
+        byte[] json = registry.json().encode(message);
+
+        byte[] cbor = registry.cbor().transcode(json, registry.json());
+
+        assertEquals(message.getChatId(), registry.cbor().decode(cbor, MessageDto.class).getChatId());
+    }
+
+    @Test
+    void content_type_으로_코덱을_고른다() {
+        assertSame(registry.cbor(), registry.forContentType("application/cbor"));
+        assertSame(registry.json(), registry.forContentType("application/json"));
+    }
+
+    private long totalSize(ChatMessageCodec codec, List<MessageDto> messages) throws IOException {
+        long total = 0;
+        for (MessageDto message : messages) {
+            total += codec.encode(message).length;
+        }
+        return total;
+    }
+
+    private List<MessageDto> sampleMessages() {
+        List<MessageDto> messages = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            messages.add(MessageDto.builder()
+                    .chatId("6750f1c2a8b34e21d0c9" + String.format("%04d", i))
+                    .channelId("channel-" + (i % 10))
+                    .email("user" + (i % 50) + "@example.com")
+                    .writer("user" + (i % 50))
+                    .content("안녕하세요, 오늘 회의는 3시에 시작합니다. #" + i)
+                    .channelType(ChannelType.PUBLIC)
+                    .messageType(MessageType.TALK)
+                    .build());
+        }
+        return messages;
+    }
+}
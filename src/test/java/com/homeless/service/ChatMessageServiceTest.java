@@ -29,7 +29,7 @@ public class ChatMessageServiceTest {
     @Rollback
     void 통합_메시지_생성_테스트() {
         // given
-        ChatMessageCreateCommand command = new ChatMessageCreateCommand("server-id", "channel-id", "guest123@1.com", "geustUser", "hi", MessageType.TALK, chatReqDto.fileUrl(), chatReqDto.fileName());
+        ChatMessageCreateCommand command = new ChatMessageCreateCommand("server-id", "channel-id", "guest123@1.com", "geustUser", "hi", MessageType.TALK, null, null);
 
         // when
         String chatId = chatHttpService.createChatMessage(command);
@@ -43,7 +43,7 @@ public class ChatMessageServiceTest {
     @Rollback
     void 통합_메시지_삭제_테스트() throws Exception {
         // given
-        ChatMessageCreateCommand command = new ChatMessageCreateCommand("server-id", "channel-id", "guest123@c.com", "user1", "hi", MessageType.TALK, chatReqDto.fileUrl(), chatReqDto.fileName());
+        ChatMessageCreateCommand command = new ChatMessageCreateCommand("server-id", "channel-id", "guest123@c.com", "user1", "hi", MessageType.TALK, null, null);
         String chatId = chatHttpService.createChatMessage(command);
 
         // when
@@ -57,7 +57,7 @@ public class ChatMessageServiceTest {
     @Rollback
     void 통합_메시지_수정_테스트() throws Exception {
         // given
-        ChatMessageCreateCommand command = new ChatMessageCreateCommand("server-id", "channel-id", "guest123", "user1", "hi", MessageType.TALK, chatReqDto.fileUrl(), chatReqDto.fileName());
+        ChatMessageCreateCommand command = new ChatMessageCreateCommand("server-id", "channel-id", "guest123", "user1", "hi", MessageType.TALK, null, null);
         String chatId = chatHttpService.createChatMessage(command);
         // when
         chatHttpService.updateMessage(chatId, "update");
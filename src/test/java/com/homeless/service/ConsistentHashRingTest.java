@@ -0,0 +1,64 @@
+package com.homeless.service;
+
+import com.homeless.chatservice.service.ConsistentHashRing;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int CHANNELS = 10_000;
+
+    @Test
+    void 같은_멤버로_만든_링은_입력_순서와_관계없이_같은_담당_노드를_준다() {
+        ConsistentHashRing first = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 128);
+        ConsistentHashRing second = new ConsistentHashRing(List.of("node-c", "node-a", "node-b"), 128);
+
+        for (int i = 0; i < CHANNELS; i++) {
+            assertEquals(first.ownerOf("channel-" + i), second.ownerOf("channel-" + i));
+        }
+    }
+
+    @Test
+    void 채널은_노드에_고르게_분산된다() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-a", "node-b", "node-c", "node-d"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < CHANNELS; i++) {
+            counts.merge(ring.ownerOf("channel-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        int expected = CHANNELS / 4;
+        counts.values().forEach(count ->
+                assertTrue(Math.abs(count - expected) < expected * 0.25, "unbalanced distribution: " + counts));
+    }
+
+    @Test
+    void 노드가_추가되면_새_노드로_가는_채널만_이동한다() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-a", "node-b", "node-c", "node-d"), 128);
+
+        int moved = 0;
+        for (int i = 0; i < CHANNELS; i++) {
+            String oldOwner = before.ownerOf("channel-" + i);
+            String newOwner = after.ownerOf("channel-" + i);
+            if (!oldOwner.equals(newOwner)) {
+                assertEquals("node-d", newOwner);
+                moved++;
+            }
+        }
+
+        // 이상적으로는 1/4 만 이동
+        assertTrue(moved < CHANNELS * 0.35, "too many channels moved: " + moved);
+    }
+
+    @Test
+    void 빈_링은_담당_노드가_없다() {
+        assertNull(new ConsistentHashRing(List.of(), 128).ownerOf("channel-1"));
+    }
+}
@@ -1,50 +1,57 @@
 package com.homeless.service;
 
 import com.homeless.chatservice.common.config.AwsS3Config;
+import com.homeless.chatservice.dto.ImageVariant;
+import com.homeless.chatservice.entity.ChatMessage;
+import com.homeless.chatservice.repository.ChatMessageStore;
 import com.homeless.chatservice.service.FileService;
+import com.homeless.chatservice.service.ThumbnailService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.test.context.SpringBootTest;
+import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
-@SpringBootTest
+@ExtendWith(MockitoExtension.class)
 class FileServiceTest {
 
+    private static final String BUCKET_NAME = "test-bucket";
+
     @Mock
     private AwsS3Config awsS3Config;
 
+    @Mock
+    private ChatMessageStore chatMessageStore;
+
+    @Mock
+    private ThumbnailService thumbnailService;
+
     @InjectMocks
     private FileService fileService;
 
-    @Value("${aws.s3.bucket-name}")
-    private String bucketName;
-
     private MultipartFile mockFile;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws IOException {
         // Mock MultipartFile 생성
         mockFile = Mockito.mock(MultipartFile.class);
-        try {
-            Mockito.when(mockFile.getOriginalFilename()).thenReturn("testfile.txt");
-            Mockito.when(mockFile.getBytes()).thenReturn("Hello, World!".getBytes());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        Mockito.lenient().when(mockFile.getOriginalFilename()).thenReturn("testfile.txt");
+        Mockito.lenient().when(mockFile.getBytes()).thenReturn("Hello, World!".getBytes());
+        Mockito.lenient().when(mockFile.getContentType()).thenReturn("text/plain");
     }
 
     @Test
     void testUploadFile() throws Exception {
         // S3에 업로드된 파일 URL 예시
-        String expectedFileUrl = "https://s3.amazonaws.com/" + bucketName + "/testfile.txt";
+        String expectedFileUrl = "https://s3.amazonaws.com/" + BUCKET_NAME + "/testfile.txt";
 
         // AWS S3 업로드 메서드가 호출될 때 예상되는 동작
         Mockito.when(awsS3Config.uploadToS3Bucket(Mockito.any(), Mockito.anyString()))
@@ -53,21 +60,34 @@ class FileServiceTest {
         // uploadFile 메서드 호출
         String actualFileUrl = fileService.uploadFile(mockFile);
 
-        // 결과 검증
+        // 결과 검증 (이미지가 아니므로 썸네일은 만들지 않음)
         assertEquals(expectedFileUrl, actualFileUrl, "File URL should match the expected URL.");
+        Mockito.verifyNoInteractions(thumbnailService);
     }
 
     @Test
     void testDeleteFile() throws Exception {
         // 삭제할 파일 URL
-        String fileUrl = "https://s3.amazonaws.com/" + bucketName + "/testfile.txt";
-
-        // 파일 삭제 메서드가 호출될 때 예상되는 동작
-        Mockito.doNothing().when(awsS3Config).deleteFromS3Bucket(Mockito.anyString());
+        String fileUrl = "https://s3.amazonaws.com/" + BUCKET_NAME + "/testfile.txt";
 
         // deleteFile 메서드 호출
         fileService.deleteFile(fileUrl);
 
-        // 메서드가 예외 없이 호출되었으므로, 정상적으로 테스트가 종료됩니다.
+        Mockito.verify(awsS3Config).deleteFromS3Bucket(fileUrl);
+    }
+
+    @Test
+    void testDeleteMessageFilesRemovesDerivatives() throws Exception {
+        ChatMessage withFile = ChatMessage.builder()
+                .fileUrl("https://s3.amazonaws.com/" + BUCKET_NAME + "/image.png")
+                .thumbnail(new ImageVariant("https://s3.amazonaws.com/" + BUCKET_NAME + "/image_thumb.webp", 240, 240))
+                .build();
+        ChatMessage withoutFile = ChatMessage.builder().content("hi").build();
+
+        fileService.deleteMessageFiles(List.of(withFile, withoutFile));
+
+        Mockito.verify(awsS3Config).deleteFromS3Bucket(withFile.getFileUrl());
+        Mockito.verify(awsS3Config).deleteFromS3Bucket(withFile.getThumbnail().url());
+        Mockito.verifyNoMoreInteractions(awsS3Config);
     }
 }
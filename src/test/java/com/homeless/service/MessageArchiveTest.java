@@ -0,0 +1,199 @@
+package com.homeless.service;
+
+import com.homeless.chatservice.entity.ChatMessage;
+import com.homeless.chatservice.repository.ChatMessageStore;
+import com.homeless.chatservice.repository.archive.ArchiveSegment;
+import com.homeless.chatservice.repository.archive.MessageArchive;
+import com.homeless.chatservice.repository.archive.TieredChatMessageStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessageArchiveTest {
+
+    private static final String CHANNEL_ID = "c1";
+    // 블록 하나에 4개씩 담기도록 작게 잡는다.
+    private static final int BLOCK_MESSAGES = 4;
+
+    @TempDir
+    Path directory;
+
+    private MessageArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = new MessageArchive(directory.toString(), BLOCK_MESSAGES, 3, false, false);
+    }
+
+    @Test
+    void 세그먼트는_블록마다_56바이트_인덱스_항목을_가진다() throws IOException {
+        archive.write(CHANNEL_ID, messages(1, 10));
+
+        Path index = onlyFile(".idx");
+        // 헤더 16바이트 + 블록 3개 (4, 4, 2)
+        assertEquals(16 + 3 * 56, Files.size(index));
+        ArchiveSegment segment = ArchiveSegment.open(index);
+        assertEquals(3, segment.blocks());
+        assertEquals(10, segment.count());
+        assertEquals(2, segment.blockCount(2));
+        assertEquals(1000, segment.firstTimestamp());
+        assertEquals(10000, segment.lastTimestamp());
+        assertEquals(5, segment.blockFirstSeq(1));
+        assertEquals(8, segment.blockLastSeq(1));
+        assertEquals(10, segment.lastSeq());
+    }
+
+    @Test
+    void 기록한_메시지를_최신순으로_건너뛰며_읽는다() throws IOException {
+        archive.write(CHANNEL_ID, messages(1, 10));
+        archive.write(CHANNEL_ID, messages(11, 15));
+
+        assertEquals(15, archive.count(CHANNEL_ID));
+        assertEquals(15, archive.maxSeq(CHANNEL_ID));
+        assertEquals(List.of(15L, 14L, 13L), seqs(archive.readNewestFirst(CHANNEL_ID, 0, 3)));
+        // 두 번째 세그먼트를 넘어 첫 세그먼트의 블록 경계에 걸치는 구간
+        assertEquals(List.of(9L, 8L, 7L, 6L, 5L), seqs(archive.readNewestFirst(CHANNEL_ID, 6, 5)));
+        assertEquals(List.of(1L), seqs(archive.readNewestFirst(CHANNEL_ID, 14, 5)));
+        assertTrue(archive.readNewestFirst(CHANNEL_ID, 15, 5).isEmpty());
+    }
+
+    @Test
+    void 순번으로_찾아_읽는다() throws IOException {
+        archive.write(CHANNEL_ID, messages(1, 10));
+        archive.write(CHANNEL_ID, messages(11, 15));
+
+        assertEquals(List.of(7L, 8L, 9L, 10L, 11L), seqs(archive.readAfterSeq(CHANNEL_ID, 6, 5)));
+        assertTrue(archive.readAfterSeq(CHANNEL_ID, 15, 5).isEmpty());
+        assertEquals(List.of(12L, 11L, 10L), seqs(archive.readUpToSeq(CHANNEL_ID, 12, 3)));
+        assertEquals(List.of(2L, 1L), seqs(archive.readUpToSeq(CHANNEL_ID, 2, 5)));
+    }
+
+    @Test
+    void 매직값이_다른_인덱스는_열지_않는다() throws IOException {
+        archive.write(CHANNEL_ID, messages(1, 10));
+        Path index = onlyFile(".idx");
+        overwriteInt(index, 0, 0x12345678);
+
+        assertThrows(IOException.class, () -> ArchiveSegment.open(index));
+        assertThrows(UncheckedIOException.class, () -> archive.count(CHANNEL_ID));
+    }
+
+    @Test
+    void 블록_수보다_짧은_인덱스는_열지_않는다() throws IOException {
+        archive.write(CHANNEL_ID, messages(1, 10));
+        Path index = onlyFile(".idx");
+        truncate(index, 16 + 2 * 56);
+
+        assertThrows(IOException.class, () -> ArchiveSegment.open(index));
+    }
+
+    @Test
+    void 잘린_데이터_파일은_읽을_때_실패한다() throws IOException {
+        archive.write(CHANNEL_ID, messages(1, 10));
+        Path data = onlyFile(".seg");
+        // 두 번째 블록 시작 위치 (인덱스 항목 1의 offset)
+        truncate(data, readLong(onlyFile(".idx"), 16 + 56 + 32) + 1);
+
+        // 앞쪽 블록은 그대로 읽히고, 잘린 블록에서 실패한다.
+        assertEquals(List.of(1L, 2L, 3L, 4L), seqs(archive.readAfterSeq(CHANNEL_ID, 0, 4)));
+        assertThrows(UncheckedIOException.class, () -> archive.readNewestFirst(CHANNEL_ID, 0, 10));
+    }
+
+    @Test
+    void 끝까지_쓰지_못한_세그먼트는_보이지_않고_정리할_수_있다() throws IOException {
+        archive.write(CHANNEL_ID, messages(1, 4));
+        String segment = archive.newSegmentName(messages(5, 8));
+        Path channelDirectory = onlyFile(".idx").getParent();
+        Files.write(channelDirectory.resolve(segment + ".seg.tmp"), new byte[]{1, 2, 3});
+
+        assertFalse(archive.hasSegment(CHANNEL_ID, segment));
+        assertEquals(4, archive.count(CHANNEL_ID));
+
+        archive.discardSegment(CHANNEL_ID, segment);
+        assertFalse(Files.exists(channelDirectory.resolve(segment + ".seg.tmp")));
+
+        archive.write(CHANNEL_ID, segment, messages(5, 8));
+        assertTrue(archive.hasSegment(CHANNEL_ID, segment));
+        assertEquals(8, archive.count(CHANNEL_ID));
+    }
+
+    @Test
+    void 보관_범위_밖의_순번_빈칸은_보관_계층을_읽지_않는다() throws IOException {
+        archive.write(CHANNEL_ID, messages(1, 5));
+        ChatMessageStore hot = mock(ChatMessageStore.class);
+        TieredChatMessageStore store = new TieredChatMessageStore(hot, archive);
+
+        // 8, 9 가 비어 있는 hot 구간
+        when(hot.findAfterSeq(eq(CHANNEL_ID), eq(7L), anyInt())).thenReturn(messages(10, 11));
+        assertEquals(List.of(10L, 11L), seqs(store.findAfterSeq(CHANNEL_ID, 7, 10)));
+
+        // 요청 구간 앞부분이 보관된 경우에는 이어 붙인다.
+        when(hot.findAfterSeq(eq(CHANNEL_ID), eq(3L), anyInt())).thenReturn(messages(6, 7));
+        assertEquals(List.of(4L, 5L, 6L, 7L), seqs(store.findAfterSeq(CHANNEL_ID, 3, 10)));
+    }
+
+    // 순번 from..to, 시각은 순번 * 1000
+    private static List<ChatMessage> messages(long from, long to) {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (long seq = from; seq <= to; seq++) {
+            messages.add(ChatMessage.builder()
+                    .id("chat-" + seq)
+                    .channelId(CHANNEL_ID)
+                    .content("message " + seq)
+                    .timestamp(seq * 1000)
+                    .seq(seq)
+                    .build());
+        }
+        return messages;
+    }
+
+    private static List<Long> seqs(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getSeq).toList();
+    }
+
+    private Path onlyFile(String suffix) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            List<Path> matches = files.filter(path -> path.toString().endsWith(suffix)).toList();
+            assertEquals(1, matches.size());
+            return matches.get(0);
+        }
+    }
+
+    private static void overwriteInt(Path file, long position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, value), position);
+        }
+    }
+
+    private static long readLong(Path file, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.read(buffer, position);
+        }
+        return buffer.getLong(0);
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.homeless.service;
+
+import com.homeless.chatservice.common.lane.MessageLane;
+import com.homeless.chatservice.common.lane.PriorityLaneQueue;
+import com.homeless.chatservice.common.lane.StompLaneClassifier;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityLaneQueueTest {
+
+    private final StompLaneClassifier classifier = new StompLaneClassifier();
+
+    @Test
+    void 두_레인이_밀려_있으면_CONTROL_을_가중치만큼_처리한_뒤_BULK_를_하나_처리한다() throws Exception {
+        PriorityLaneQueue queue = new PriorityLaneQueue(PriorityLaneQueue::laneOf, 10, 10, 2);
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String name = "bulk-" + i;
+            queue.offer(MessageLane.BULK.task(() -> order.add(name)));
+        }
+        for (int i = 0; i < 4; i++) {
+            String name = "control-" + i;
+            queue.offer(MessageLane.CONTROL.task(() -> order.add(name)));
+        }
+
+        while (!queue.isEmpty()) {
+            queue.take().run();
+        }
+
+        assertEquals(List.of("control-0", "control-1", "bulk-0", "control-2", "control-3", "bulk-1", "bulk-2"), order);
+    }
+
+    @Test
+    void BULK_레인이_가득_차도_CONTROL_은_받는다() {
+        PriorityLaneQueue queue = new PriorityLaneQueue(PriorityLaneQueue::laneOf, 1, 2, 4);
+
+        assertTrue(queue.offer(MessageLane.BULK.task(() -> { })));
+        assertTrue(queue.offer(MessageLane.BULK.task(() -> { })));
+        assertFalse(queue.offer(MessageLane.BULK.task(() -> { })));
+        assertTrue(queue.offer(MessageLane.CONTROL.task(() -> { })));
+        assertFalse(queue.offer(MessageLane.CONTROL.task(() -> { })));
+        assertEquals(2, queue.size(MessageLane.BULK));
+        assertEquals(0, queue.remainingCapacity());
+    }
+
+    @Test
+    void 수신_프레임은_명령과_목적지로_레인을_나눈다() {
+        assertEquals(MessageLane.CONTROL, classifier.apply(task(SimpMessageType.SUBSCRIBE, "/topic/chat.channel.1", "")));
+        assertEquals(MessageLane.CONTROL, classifier.apply(task(SimpMessageType.MESSAGE, "/pub/chat.message.delete.1", "abc")));
+        assertEquals(MessageLane.CONTROL, classifier.apply(task(SimpMessageType.MESSAGE, "/pub/chat.message.update.1", "abc")));
+        assertEquals(MessageLane.BULK, classifier.apply(task(SimpMessageType.MESSAGE, "/pub/chat.message.1",
+                "{\"messageType\":\"TALK\"}")));
+        assertEquals(MessageLane.BULK, classifier.apply(task(SimpMessageType.MESSAGE, "/pub/chat.signal.1",
+                "{\"type\":\"TYPING\"}")));
+    }
+
+    @Test
+    void 클라이언트가_보낸_messageType_으로는_CONTROL_레인에_들어갈_수_없다() {
+        assertEquals(MessageLane.BULK, classifier.apply(task(SimpMessageType.MESSAGE, "/pub/chat.message.1",
+                "{\"writer\":\"a\", \"messageType\" : \"SYSTEM\"}")));
+        assertEquals(MessageLane.BULK, classifier.apply(task(SimpMessageType.MESSAGE, "/pub/chat.message.1",
+                "{\"messageType\":\"DELETE\"}")));
+    }
+
+    @Test
+    void content_안의_messageType_문자열로는_CONTROL_레인에_들어갈_수_없다() {
+        String payload = "{\"content\":\"\\\"messageType\\\":\\\"SYSTEM\\\"\",\"messageType\":\"TALK\"}";
+
+        assertEquals(MessageLane.BULK, classifier.apply(task(SimpMessageType.MESSAGE, "/pub/chat.message.1", payload)));
+    }
+
+    private MessageHandlingRunnable task(SimpMessageType type, String destination, String payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setDestination(destination);
+        Message<byte[]> message = MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8),
+                accessor.getMessageHeaders());
+        return new MessageHandlingRunnable() {
+            @Override
+            public Message<?> getMessage() {
+                return message;
+            }
+
+            @Override
+            public MessageHandler getMessageHandler() {
+                return msg -> { };
+            }
+
+            @Override
+            public void run() {
+            }
+        };
+    }
+}
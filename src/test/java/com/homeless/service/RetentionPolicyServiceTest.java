@@ -0,0 +1,85 @@
+package com.homeless.service;
+
+import com.homeless.chatservice.dto.ChannelType;
+import com.homeless.chatservice.entity.ChannelMetadata;
+import com.homeless.chatservice.entity.RetentionPolicy;
+import com.homeless.chatservice.service.RetentionPolicyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RetentionPolicyServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final List<RetentionPolicy> policies = new ArrayList<>();
+    private RetentionPolicyService policyService;
+
+    @BeforeEach
+    void setUp() {
+        policyService = new RetentionPolicyService(mongoTemplate);
+        ReflectionTestUtils.setField(policyService, "publicDays", 90);
+        ReflectionTestUtils.setField(policyService, "privateDays", 0);
+        ReflectionTestUtils.setField(policyService, "directDays", 0);
+        ReflectionTestUtils.setField(policyService, "defaultDays", 0);
+        when(mongoTemplate.findAll(RetentionPolicy.class)).thenReturn(policies);
+    }
+
+    @Test
+    void 채널_종류는_등록된_메타데이터로만_정한다() {
+        // 메시지에 PUBLIC 이 실려 있어도 resolver 는 메시지를 보지 않는다.
+        channel("dm-1", null, ChannelType.DIRECT);
+        channel("general", "s1", ChannelType.PUBLIC);
+
+        RetentionPolicyService.Resolver resolver = policyService.snapshot();
+
+        assertEquals(0, resolver.days("dm-1"));
+        assertEquals(90, resolver.days("general"));
+    }
+
+    @Test
+    void 등록되지_않은_채널은_default_days_를_쓴다() {
+        ReflectionTestUtils.setField(policyService, "defaultDays", 30);
+
+        assertEquals(30, policyService.snapshot().days("unknown"));
+    }
+
+    @Test
+    void 채널_지정이_서버_지정보다_우선한다() {
+        channel("general", "s1", ChannelType.PUBLIC);
+        policy(RetentionPolicy.Scope.SERVER, "s1", 30);
+        policy(RetentionPolicy.Scope.CHANNEL, "general", 7);
+
+        assertEquals(7, policyService.snapshot().days("general"));
+    }
+
+    @Test
+    void 서버_지정은_서버_채널에만_적용되고_1대1_채널에는_적용되지_않는다() {
+        channel("general", "s1", ChannelType.PUBLIC);
+        channel("secret", "s1", ChannelType.PRIVATE);
+        channel("dm-1", "s1", ChannelType.DIRECT);
+        policy(RetentionPolicy.Scope.SERVER, "s1", 30);
+
+        RetentionPolicyService.Resolver resolver = policyService.snapshot();
+
+        assertEquals(30, resolver.days("general"));
+        assertEquals(30, resolver.days("secret"));
+        assertEquals(0, resolver.days("dm-1"));
+    }
+
+    private void channel(String channelId, String serverId, ChannelType channelType) {
+        when(mongoTemplate.findById(channelId, ChannelMetadata.class))
+                .thenReturn(new ChannelMetadata(channelId, serverId, channelType, 0L));
+    }
+
+    private void policy(RetentionPolicy.Scope scope, String target, int days) {
+        policies.add(new RetentionPolicy(RetentionPolicy.idOf(scope, target), scope, target, days, 0L));
+    }
+}
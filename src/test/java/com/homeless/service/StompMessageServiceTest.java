@@ -1,20 +1,32 @@
 package com.homeless.service;
 
-import com.homeless.chatservice.dto.MessageDto;
 import com.homeless.chatservice.dto.ChannelType;
+import com.homeless.chatservice.dto.MessageDto;
 import com.homeless.chatservice.dto.MessageType;
+import com.homeless.chatservice.service.BroadcastCoalescer;
+import com.homeless.chatservice.service.ChannelKeyRegistry;
+import com.homeless.chatservice.service.ChannelOwnership;
+import com.homeless.chatservice.service.ChannelReplayBuffer;
+import com.homeless.chatservice.service.ChatMessagePublisher;
+import com.homeless.chatservice.service.FanoutDeliveryTracker;
+import com.homeless.chatservice.service.FanoutMode;
 import com.homeless.chatservice.service.StompMessageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -22,10 +34,28 @@ import static org.mockito.Mockito.*;
 class StompMessageServiceTest {
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private SimpMessagingTemplate messagingTemplate;
 
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
+    private ChannelOwnership channelOwnership;
+
+    @Mock
+    private FanoutDeliveryTracker deliveryTracker;
+
+    @Mock
+    private BroadcastCoalescer broadcastCoalescer;
+
+    @Mock
+    private ChannelReplayBuffer replayBuffer;
+
+    @Mock
+    private ChannelKeyRegistry channelKeyRegistry;
+
+    @Mock
+    private ChatMessagePublisher chatMessagePublisher;
+
+    @Mock
+    private RedisTemplate<String, MessageDto> messageRedisTemplate;
 
     @Mock
     private RedisTemplate<String, String> redisTemplate;
@@ -33,75 +63,147 @@ class StompMessageServiceTest {
     @Mock
     private ValueOperations<String, String> valueOperations;
 
-    @InjectMocks
     private StompMessageService stompMessageService;
 
     private MessageDto testMessage;
 
     @BeforeEach
     void setUp() {
+        stompMessageService = new StompMessageService(messagingTemplate, channelOwnership, deliveryTracker,
+                broadcastCoalescer, replayBuffer, channelKeyRegistry, chatMessagePublisher, messageRedisTemplate,
+                redisTemplate, new SimpleMeterRegistry());
         testMessage = MessageDto.builder()
                 .chatId("test-chat-id")
                 .channelId("test-channel")
                 .email("test@example.com")
                 .writer("Test User")
                 .content("Test message content")
-                .channelType(ChannelType.TEXT)
-                .messageType(MessageType.MESSAGE)
+                .channelType(ChannelType.PUBLIC)
+                .messageType(MessageType.TALK)
                 .build();
 
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
     }
 
     @Test
-    void sendMessageFromRabbitMQ_Success() {
+    void sendMessageFromRabbitMQ_DirectRelay_BroadcastsOnlyToTopic() {
         // Given
+        ReflectionTestUtils.setField(stompMessageService, "fanoutMode", FanoutMode.DIRECT_RELAY);
         when(valueOperations.get(anyString())).thenReturn(null);
+        when(deliveryTracker.firstDelivery(anyString(), anyString())).thenReturn(true);
 
         // When
         stompMessageService.sendMessageFromRabbitMQ(testMessage);
 
         // Then
-        verify(rabbitTemplate).convertAndSend(anyString(), anyString(), eq(testMessage));
+        verify(messagingTemplate).convertAndSend("/topic/chat.channel.test-channel", testMessage);
+        verify(chatMessagePublisher, never()).publish(anyString(), any());
         verify(valueOperations).set(anyString(), anyString(), any());
     }
 
     @Test
-    void sendMessageFromRabbitMQ_DuplicateMessage_ShouldNotSend() {
+    void sendMessageFromRabbitMQ_Hybrid_BroadcastsAndPublishes() {
+        // Given
+        ReflectionTestUtils.setField(stompMessageService, "fanoutMode", FanoutMode.HYBRID);
+        when(valueOperations.get(anyString())).thenReturn(null);
+        when(deliveryTracker.firstDelivery(anyString(), anyString())).thenReturn(true);
+        when(chatMessagePublisher.publish(anyString(), any())).thenReturn(true);
+
+        // When
+        stompMessageService.sendMessageFromRabbitMQ(testMessage);
+
+        // Then
+        verify(messagingTemplate).convertAndSend("/topic/chat.channel.test-channel", testMessage);
+        verify(chatMessagePublisher).publish("test-channel", testMessage);
+    }
+
+    @Test
+    void sendMessageFromRabbitMQ_HybridCluster_SkipsMessageRelayedByAnotherNode() {
+        // Given: 다른 노드가 같은 메시지를 이미 /topic 으로 보냄
+        ReflectionTestUtils.setField(stompMessageService, "fanoutMode", FanoutMode.HYBRID);
+        ReflectionTestUtils.setField(stompMessageService, "clusterEnabled", true);
+        ReflectionTestUtils.setField(stompMessageService, "clusterDedupTtlMs", 600000L);
+        when(valueOperations.get(anyString())).thenReturn(null);
+        when(valueOperations.setIfAbsent(eq("chat:fanout:relayed:test-chat-id"), anyString(), any())).thenReturn(false);
+        when(deliveryTracker.firstDelivery(anyString(), anyString())).thenReturn(true);
+        when(chatMessagePublisher.publish(anyString(), any())).thenReturn(true);
+
+        // When
+        stompMessageService.sendMessageFromRabbitMQ(testMessage);
+
+        // Then: exchange 발행은 그대로, /topic 전송만 생략
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+        verify(chatMessagePublisher).publish("test-channel", testMessage);
+    }
+
+    @Test
+    void sendMessageFromRabbitMQ_HybridCluster_BroadcastsFirstDelivery() {
         // Given
-        String messageHash = "test-hash";
-        when(valueOperations.get(anyString())).thenReturn(messageHash);
+        ReflectionTestUtils.setField(stompMessageService, "fanoutMode", FanoutMode.HYBRID);
+        ReflectionTestUtils.setField(stompMessageService, "clusterEnabled", true);
+        ReflectionTestUtils.setField(stompMessageService, "clusterDedupTtlMs", 600000L);
+        when(valueOperations.get(anyString())).thenReturn(null);
+        when(valueOperations.setIfAbsent(eq("chat:fanout:relayed:test-chat-id"), anyString(), any())).thenReturn(true);
+        when(deliveryTracker.firstDelivery(anyString(), anyString())).thenReturn(true);
+        when(chatMessagePublisher.publish(anyString(), any())).thenReturn(true);
+
+        // When
+        stompMessageService.sendMessageFromRabbitMQ(testMessage);
+
+        // Then
+        verify(messagingTemplate).convertAndSend("/topic/chat.channel.test-channel", testMessage);
+    }
+
+    @Test
+    void sendMessageFromRabbitMQ_DuplicateMessage_ShouldNotSend() {
+        // Given: 같은 내용의 해시가 이미 기록되어 있음
+        ReflectionTestUtils.setField(stompMessageService, "fanoutMode", FanoutMode.HYBRID);
+        when(valueOperations.get(anyString())).thenReturn(sha256(testMessage.getContent()));
 
         // When
         stompMessageService.sendMessageFromRabbitMQ(testMessage);
 
         // Then
-        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any());
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+        verify(chatMessagePublisher, never()).publish(anyString(), any());
     }
 
     @Test
-    void isDuplicateMessageEnhanced_NewMessage_ReturnsFalse() {
+    void isDuplicateMessage_NewMessage_ReturnsFalse() {
         // Given
         when(valueOperations.get(anyString())).thenReturn(null);
 
         // When
-        boolean result = stompMessageService.isDuplicateMessageEnhanced("test-channel", "test-hash", "test@example.com");
+        boolean result = stompMessageService.isDuplicateMessage("test-channel", "test-hash");
 
         // Then
-        assert !result;
+        assertFalse(result);
         verify(valueOperations).set(anyString(), eq("test-hash"), any());
     }
 
     @Test
-    void isDuplicateMessageEnhanced_DuplicateMessage_ReturnsTrue() {
+    void isDuplicateMessage_DuplicateMessage_ReturnsTrue() {
         // Given
         when(valueOperations.get(anyString())).thenReturn("test-hash");
 
         // When
-        boolean result = stompMessageService.isDuplicateMessageEnhanced("test-channel", "test-hash", "test@example.com");
+        boolean result = stompMessageService.isDuplicateMessage("test-channel", "test-hash");
 
         // Then
-        assert result;
+        assertTrue(result);
         verify(valueOperations, never()).set(anyString(), anyString(), any());
     }
-} 
\ No newline at end of file
+
+    private static String sha256(String content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}